@@ -0,0 +1,81 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import tools.DataGenerator;
+
+/**
+ * A set of generated input files of a given size in a temporary directory, written by
+ * {@link DataGenerator} without malformed rows. The content depends only on the row count,
+ * so every run of a benchmark reads the same bytes.
+ */
+final class BenchmarkData {
+
+    static final int ZIP_CODES = 50;
+
+    private final Path directory;
+    private final Path parkingCsv;
+    private final Path parkingJson;
+    private final Path propertyCsv;
+    private final Path population;
+
+    private BenchmarkData(Path directory) {
+        this.directory = directory;
+        this.parkingCsv = directory.resolve("parking.csv");
+        this.parkingJson = directory.resolve("parking.json");
+        this.propertyCsv = directory.resolve("property.csv");
+        this.population = directory.resolve("population.txt");
+    }
+
+    /**
+     * @param rows the number of parking violations and of properties to write
+     */
+    static BenchmarkData create(int rows) {
+        try {
+            BenchmarkData data = new BenchmarkData(Files.createTempDirectory("cood-bench-"));
+            DataGenerator.generate(new DataGenerator.Options()
+                    .outputDirectory(data.directory)
+                    .parkingRows(rows)
+                    .propertyRows(rows)
+                    .zipCodes(ZIP_CODES)
+                    .seed(rows)
+                    .malformedRate(0));
+            return data;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    String parkingCsv() {
+        return parkingCsv.toString();
+    }
+
+    String parkingJson() {
+        return parkingJson.toString();
+    }
+
+    String propertyCsv() {
+        return propertyCsv.toString();
+    }
+
+    String population() {
+        return population.toString();
+    }
+
+    static String zipCode(int index) {
+        return DataGenerator.zipCode(index);
+    }
+
+    void delete() {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import common.ParkingViolation;
+import common.Population;
+import common.PropertyValue;
+import common.PropertyValueTable;
+import data.ParkingViolationReader;
+import data.PopulationReader;
+import data.PropertyValueReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full-file parse time of each reader, over generated inputs of several sizes.
+ * The files are written once per trial and stay in the page cache, so this measures parsing, not the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ReaderBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private BenchmarkData data;
+
+    @Setup(Level.Trial)
+    public void writeFiles() {
+        data = BenchmarkData.create(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() {
+        data.delete();
+    }
+
+    @Benchmark
+    public List<ParkingViolation> parkingCsv() {
+        return ParkingViolationReader.readCsvFile(data.parkingCsv());
+    }
+
+    @Benchmark
+    public List<ParkingViolation> parkingCsvParallel() {
+        return ParkingViolationReader.readCsvFile(data.parkingCsv(), Runtime.getRuntime().availableProcessors());
+    }
+
+    @Benchmark
+    public List<ParkingViolation> parkingJson() {
+        return ParkingViolationReader.readJsonFile(data.parkingJson());
+    }
+
+    @Benchmark
+    public List<PropertyValue> propertyCsv() {
+        return PropertyValueReader.readCsvFile(data.propertyCsv());
+    }
+
+    @Benchmark
+    public PropertyValueTable propertyTable() {
+        return PropertyValueReader.readTable(data.propertyCsv());
+    }
+
+    @Benchmark
+    public List<Population> population() {
+        return PopulationReader.readPopulationFile(data.population());
+    }
+}
@@ -0,0 +1,215 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import data.DatasetRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import processor.QueryCache;
+import processor.Services;
+import processor.ZipReport;
+
+/**
+ * Every service method, warm and cold.
+ * <p>
+ * Warm: the datasets are loaded and indexed once per trial, and each invocation asks about a
+ * different ZIP Code. The warm services cache a single result, so with the {@value BenchmarkData#ZIP_CODES}
+ * ZIP Codes taken in turn every ZIP-parameterized query misses and is computed from the index; this
+ * measures the per-query cost of a question the menu or the server has not been asked before.
+ * {@link #cachedAverageMarketValue()} measures the other case, a lookup answered by the query cache.
+ * <p>
+ * Cold: see {@link Cold} - a fresh repository per invocation, so the time includes parsing the
+ * files the method needs and building its index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private BenchmarkData data;
+    private Services warm;
+    private Services cached;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = BenchmarkData.create(rows);
+        warm = new Services(repository(data), 1);
+        warm.getDatasetRepository().preload().join();
+        // build the derived indexes too, so the first measured call is not the one paying for them
+        warm.getDatasetRepository().getPropertyZipIndex();
+        warm.getDatasetRepository().getPopulationTable();
+        cached = new Services(warm.getDatasetRepository(), QueryCache.DEFAULT_MAXIMUM_SIZE);
+        for (int i = 0; i < BenchmarkData.ZIP_CODES; i++) {
+            cached.getMarketValueService().getAverageMarketValue(BenchmarkData.zipCode(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.delete();
+    }
+
+    private static DatasetRepository repository(BenchmarkData data) {
+        return new DatasetRepository(data.parkingCsv(), data.propertyCsv(), data.population());
+    }
+
+    private String nextZipCode() {
+        next = (next + 1) % BenchmarkData.ZIP_CODES;
+        return BenchmarkData.zipCode(next);
+    }
+
+    @Benchmark
+    public Long warmPopulationAllZipCodes() {
+        return warm.getPopulationService().getPopulationAllZipCodes();
+    }
+
+    @Benchmark
+    public Map<String, Double> warmFinesPerCapitaPerZipCode() {
+        return warm.getFinesService().getFinesPerCapitaPerZipCode();
+    }
+
+    @Benchmark
+    public int warmAverageMarketValue() {
+        return warm.getMarketValueService().getAverageMarketValue(nextZipCode());
+    }
+
+    @Benchmark
+    public int warmAverageResidentialArea() {
+        return warm.getResidentialAreaService().getAverageResidentialArea(nextZipCode());
+    }
+
+    @Benchmark
+    public int warmResidentialMarketValuePerCapita() {
+        return warm.getMarketValueService().getResidentialMarketValuePerCapita(nextZipCode());
+    }
+
+    @Benchmark
+    public int warmAverageMarketValuePerSquareFoot() {
+        return warm.getMarketValueService().getAverageMarketValuePerSquareFoot(nextZipCode());
+    }
+
+    @Benchmark
+    public int[] warmMinAndMaxLivableAreas() {
+        return warm.getResidentialAreaService().getMinAndMaxLivableAreas(nextZipCode());
+    }
+
+    /**
+     * Every ZIP Code's result is cached during setup, so each invocation is a cache hit.
+     */
+    @Benchmark
+    public int cachedAverageMarketValue() {
+        return cached.getMarketValueService().getAverageMarketValue(nextZipCode());
+    }
+
+    @Benchmark
+    public List<ZipReport> warmReport() {
+        return warm.getReportService().getReport();
+    }
+
+    /**
+     * Fresh services over a fresh repository for every invocation. Measured as single shots, since
+     * one invocation parses whole files; the generated files are shared with the warm benchmarks.
+     */
+    @State(Scope.Thread)
+    public static class Cold {
+        private Services services;
+
+        @Setup(Level.Invocation)
+        public void setUp(ServiceBenchmark benchmark) {
+            // a fresh repository, so nothing is loaded or cached yet
+            services = new Services(repository(benchmark.data), QueryCache.DEFAULT_MAXIMUM_SIZE);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public Long coldPopulationAllZipCodes(Cold cold) {
+        return cold.services.getPopulationService().getPopulationAllZipCodes();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public Map<String, Double> coldFinesPerCapitaPerZipCode(Cold cold) {
+        return cold.services.getFinesService().getFinesPerCapitaPerZipCode();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public int coldAverageMarketValue(Cold cold) {
+        return cold.services.getMarketValueService().getAverageMarketValue(BenchmarkData.zipCode(0));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public int coldAverageResidentialArea(Cold cold) {
+        return cold.services.getResidentialAreaService().getAverageResidentialArea(BenchmarkData.zipCode(0));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public int coldResidentialMarketValuePerCapita(Cold cold) {
+        return cold.services.getMarketValueService().getResidentialMarketValuePerCapita(BenchmarkData.zipCode(0));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public int coldAverageMarketValuePerSquareFoot(Cold cold) {
+        return cold.services.getMarketValueService().getAverageMarketValuePerSquareFoot(BenchmarkData.zipCode(0));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public int[] coldMinAndMaxLivableAreas(Cold cold) {
+        return cold.services.getResidentialAreaService().getMinAndMaxLivableAreas(BenchmarkData.zipCode(0));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public List<ZipReport> coldReport(Cold cold) {
+        return cold.services.getReportService().getReport();
+    }
+}
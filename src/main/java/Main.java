@@ -3,24 +3,222 @@ Program Entry Point
 - Defensive programming has been used to ensure the program is robust and can handle errors gracefully.
 */
 
+import data.DatasetRepository;
+import metrics.FlightRecording;
+import metrics.Metrics;
+import processor.ReportService;
+import processor.Services;
+import ui.BatchRunner;
+import ui.QueryEvaluator;
+import ui.QueryServer;
+import ui.ReportWriter;
 import ui.UI;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Scanner;
+import java.util.concurrent.CompletionException;
 
 public class Main {
-  
+
+  private static final int DEFAULT_PORT = 8080;
+
   public static void main(String[] args) {
+    publishMetrics();
+    startFlightRecording();
+
+    if (args.length > 0 && "report".equals(args[0])) {
+      runReport(args);
+      return;
+    }
+    if (args.length > 0 && "batch".equals(args[0])) {
+      runBatch(args);
+      return;
+    }
+    if (args.length > 0 && "serve".equals(args[0])) {
+      runServer(args);
+      return;
+    }
+
     // Validate number of arguments
     if (args.length != 3) {
       System.err.println("Error: Incorrect number of arguments.");
       System.err.println("Expected 3 arguments: <parking_file> <property_file> <population_file>");
+      System.err.println("Or: report <parking_file> <property_file> <population_file> [output_file]");
+      System.err.println("Or: batch <parking_file> <property_file> <population_file> <request_file> [output_file]");
+      System.err.println("Or: serve <parking_file> <property_file> <population_file> [port]");
       System.exit(1);
     }
-    
+
     String parkingFile = args[0];
     String propertyFile = args[1];
     String populationFile = args[2];
-  
-    UI ui = UI.getInstance(parkingFile, propertyFile, populationFile, new Scanner(System.in));
+
+    // One repository per process, so each dataset is parsed once and shared by all services
+    DatasetRepository datasetRepository = new DatasetRepository(parkingFile, propertyFile, populationFile);
+    // Parse all three files in the background while the menu is shown; a query waits only for its own dataset
+    preload(datasetRepository);
+    UI ui = UI.getInstance(datasetRepository, new Scanner(System.in));
     ui.start();
   }
+
+  /**
+   * Starts loading every dataset in the background. A load that fails is reported on stderr as soon as
+   * it fails, rather than only when a query first needs that dataset.
+   */
+  private static void preload(DatasetRepository datasetRepository) {
+    datasetRepository.preload().exceptionally(e -> {
+      Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+      System.err.println("Error loading datasets: " + cause.getMessage());
+      return null;
+    });
+  }
+
+  /**
+   * Non-interactive report mode: writes every metric for every ZIP Code as CSV, to a file or stdout.
+   */
+  private static void runReport(String[] args) {
+    if (args.length != 4 && args.length != 5) {
+      System.err.println("Error: Incorrect number of arguments.");
+      System.err.println("Expected: report <parking_file> <property_file> <population_file> [output_file]");
+      System.exit(1);
+    }
+
+    DatasetRepository datasetRepository = new DatasetRepository(args[1], args[2], args[3]);
+    preload(datasetRepository);
+    ReportService reportService = new Services(datasetRepository).getReportService();
+
+    try {
+      if (args.length == 5) {
+        try (PrintStream out = new PrintStream(new FileOutputStream(args[4]), false, StandardCharsets.UTF_8)) {
+          ReportWriter.writeCsv(reportService.getReport(), out);
+        }
+      } else {
+        ReportWriter.writeCsv(reportService.getReport(), System.out);
+        System.out.flush();
+      }
+    } catch (IOException e) {
+      System.err.println("Error writing report: " + e.getMessage());
+      System.exit(1);
+    } catch (RuntimeException e) {
+      System.err.println("Error computing report: " + e.getMessage());
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Non-interactive batch mode: answers a JSON Lines file of queries with JSON Lines results, to a file or stdout.
+   */
+  private static void runBatch(String[] args) {
+    if (args.length != 5 && args.length != 6) {
+      System.err.println("Error: Incorrect number of arguments.");
+      System.err.println("Expected: batch <parking_file> <property_file> <population_file> <request_file> [output_file]");
+      System.exit(1);
+    }
+
+    DatasetRepository datasetRepository = new DatasetRepository(args[1], args[2], args[3]);
+    preload(datasetRepository);
+    BatchRunner batchRunner = new BatchRunner(new QueryEvaluator(datasetRepository),
+            Runtime.getRuntime().availableProcessors());
+
+    try (BufferedReader in = Files.newBufferedReader(Paths.get(args[4]), StandardCharsets.UTF_8)) {
+      if (args.length == 6) {
+        try (Writer out = Files.newBufferedWriter(Paths.get(args[5]), StandardCharsets.UTF_8)) {
+          batchRunner.run(in, out);
+        }
+      } else {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        batchRunner.run(in, out);
+      }
+    } catch (IOException e) {
+      System.err.println("Error running batch: " + e.getMessage());
+      System.exit(1);
+    } catch (RuntimeException e) {
+      System.err.println("Error evaluating batch: " + e.getMessage());
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Server mode: answers the queries as JSON over HTTP on the loopback address until the process is stopped.
+   */
+  private static void runServer(String[] args) {
+    if (args.length != 4 && args.length != 5) {
+      System.err.println("Error: Incorrect number of arguments.");
+      System.err.println("Expected: serve <parking_file> <property_file> <population_file> [port]");
+      System.exit(1);
+    }
+
+    int port = DEFAULT_PORT;
+    if (args.length == 5) {
+      try {
+        port = Integer.parseInt(args[4]);
+      } catch (NumberFormatException e) {
+        System.err.println("Error: Invalid port: " + args[4]);
+        System.exit(1);
+      }
+    }
+
+    DatasetRepository datasetRepository = new DatasetRepository(args[1], args[2], args[3]);
+    preload(datasetRepository);
+    QueryServer server;
+    try {
+      server = new QueryServer(new QueryEvaluator(datasetRepository), port);
+    } catch (IOException | IllegalArgumentException e) {
+      System.err.println("Error starting server: " + e.getMessage());
+      System.exit(1);
+      return;
+    }
+    server.start();
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+    System.out.println("Listening on http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort());
+  }
+
+  /**
+   * Registers the metrics MBean and, if -Dmetrics.file=path is set, writes the Prometheus text dump there at exit.
+   * With -Dlatency.report=true, the latency percentiles of every option and service method go to stderr at exit.
+   */
+  private static void publishMetrics() {
+    try {
+      Metrics.registerMBean();
+    } catch (IllegalStateException e) {
+      System.err.println("Warning: metrics are not available over JMX: " + e.getMessage());
+    }
+    String metricsFile = System.getProperty("metrics.file");
+    if (metricsFile != null && !metricsFile.trim().isEmpty()) {
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        try (Writer out = Files.newBufferedWriter(Paths.get(metricsFile), StandardCharsets.UTF_8)) {
+          Metrics.writePrometheus(out);
+        } catch (IOException e) {
+          System.err.println("Error writing metrics: " + e.getMessage());
+        }
+      }));
+    }
+    if (Boolean.getBoolean("latency.report")) {
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.print(Metrics.latencyReport())));
+    }
+  }
+
+  /**
+   * If -Drecording.file=path is set, starts the continuous Flight Recorder recording, written there at exit.
+   */
+  private static void startFlightRecording() {
+    String recordingFile = System.getProperty("recording.file");
+    if (recordingFile != null && !recordingFile.trim().isEmpty()) {
+      try {
+        FlightRecording.startContinuous(Paths.get(recordingFile));
+      } catch (IOException | IllegalStateException e) {
+        System.err.println("Warning: flight recording is not available: " + e.getMessage());
+      }
+    }
+  }
 }
@@ -0,0 +1,269 @@
+package common;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Column-oriented, immutable form of a parking dataset. Each violation is a row index into parallel
+ * primitive columns: epoch seconds, fine, dictionary codes for the description and license
+ * plate state, and the ZIP Code as a {@link ZipCode} int key. The repeated strings are stored once in
+ * a per-column dictionary.
+ * Ticket numbers and plate ids are not retained, since no query reads them.
+ */
+public final class ParkingViolationTable {
+
+  /** Epoch second recorded for a violation without a timestamp. */
+  public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+  private final int size;
+  private final long[] epochSeconds;
+  private final double[] fines;
+  private final int[] descriptionCodes;
+  private final int[] stateCodes;
+  private final int[] zipCodes;
+  private final List<String> descriptions;
+  private final List<String> states;
+
+  private ParkingViolationTable(Builder builder) {
+    this(Arrays.copyOf(builder.epochSeconds, builder.size), Arrays.copyOf(builder.fines, builder.size),
+            Arrays.copyOf(builder.descriptionCodes, builder.size), Arrays.copyOf(builder.stateCodes, builder.size),
+            Arrays.copyOf(builder.zipCodes, builder.size), builder.descriptions.values(), builder.states.values());
+  }
+
+  private ParkingViolationTable(long[] epochSeconds, double[] fines, int[] descriptionCodes, int[] stateCodes,
+                                int[] zipCodes, List<String> descriptions, List<String> states) {
+    this.size = epochSeconds.length;
+    this.epochSeconds = epochSeconds;
+    this.fines = fines;
+    this.descriptionCodes = descriptionCodes;
+    this.stateCodes = stateCodes;
+    this.zipCodes = zipCodes;
+    this.descriptions = descriptions;
+    this.states = states;
+  }
+
+  /**
+   * Wraps columns that were written out from another table, such as a dataset snapshot.
+   * The arrays are taken over rather than copied, so the caller must not modify them afterwards.
+   * @throws IllegalArgumentException if the columns differ in length or a code is outside its dictionary
+   */
+  public static ParkingViolationTable fromColumns(long[] epochSeconds, double[] fines, int[] descriptionCodes,
+                                                  int[] stateCodes, int[] zipCodes, List<String> descriptions,
+                                                  List<String> states) {
+    if (epochSeconds == null || fines == null || descriptionCodes == null || stateCodes == null
+            || zipCodes == null || descriptions == null || states == null) {
+      throw new IllegalArgumentException("Columns cannot be null");
+    }
+    int size = epochSeconds.length;
+    if (fines.length != size || descriptionCodes.length != size || stateCodes.length != size
+            || zipCodes.length != size) {
+      throw new IllegalArgumentException("Columns must have the same length");
+    }
+    for (int row = 0; row < size; row++) {
+      if (descriptionCodes[row] < 0 || descriptionCodes[row] >= descriptions.size()
+              || stateCodes[row] < 0 || stateCodes[row] >= states.size()) {
+        throw new IllegalArgumentException("Dictionary code out of range in row " + row);
+      }
+    }
+    return new ParkingViolationTable(epochSeconds, fines, descriptionCodes, stateCodes, zipCodes,
+            Collections.unmodifiableList(new ArrayList<>(descriptions)),
+            Collections.unmodifiableList(new ArrayList<>(states)));
+  }
+
+  /**
+   * Collects a (possibly streamed) parking dataset into a table, in encounter order.
+   * Null elements are ignored.
+   */
+  public static ParkingViolationTable build(Stream<ParkingViolation> parkingViolations) {
+    Builder builder = new Builder();
+    if (parkingViolations != null) {
+      parkingViolations.forEachOrdered(builder::add);
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return a table holding the given violations, in list order
+   */
+  public static ParkingViolationTable of(List<ParkingViolation> parkingViolations) {
+    Builder builder = new Builder();
+    if (parkingViolations != null) {
+      for (ParkingViolation parkingViolation : parkingViolations) {
+        builder.add(parkingViolation);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return the number of rows
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the timestamp of a row in whole epoch seconds, or {@link #NO_TIMESTAMP}
+   */
+  public long getEpochSecond(int row) {
+    return epochSeconds[row];
+  }
+
+  /**
+   * @return the fine of a row, exactly as parsed
+   */
+  public double getFine(int row) {
+    return fines[row];
+  }
+
+  public int getDescriptionCode(int row) {
+    return descriptionCodes[row];
+  }
+
+  public int getStateCode(int row) {
+    return stateCodes[row];
+  }
+
+  /**
+   * @return the ZIP Code of a row, or {@link ZipCode#NONE} if it is missing or not a 5-digit ZIP Code
+   */
+  public int getZipCode(int row) {
+    return zipCodes[row];
+  }
+
+  /**
+   * @return the distinct descriptions, indexed by description code
+   */
+  public List<String> getDescriptions() {
+    return descriptions;
+  }
+
+  /**
+   * @return the distinct license plate states, indexed by state code
+   */
+  public List<String> getStates() {
+    return states;
+  }
+
+  /**
+   * Appends violations row by row, growing the columns geometrically.
+   */
+  public static final class Builder {
+    private int size;
+    private long[] epochSeconds = new long[1024];
+    private double[] fines = new double[1024];
+    private int[] descriptionCodes = new int[1024];
+    private int[] stateCodes = new int[1024];
+    private int[] zipCodes = new int[1024];
+    private final Dictionary descriptions = new Dictionary();
+    private final Dictionary states = new Dictionary();
+
+    /**
+     * Adds one violation. Null violations are ignored.
+     * @return this builder
+     */
+    public Builder add(ParkingViolation parkingViolation) {
+      if (parkingViolation == null) {
+        return this;
+      }
+      Instant timestamp = parkingViolation.getTimestamp();
+      String zipCode = parkingViolation.getZipCode();
+      return add(timestamp == null ? NO_TIMESTAMP : timestamp.getEpochSecond(), parkingViolation.getFine(),
+              descriptionCode(parkingViolation.getDescription()), stateCode(parkingViolation.getLicensePlateState()),
+              zipCode == null ? ZipCode.NONE : ZipCode.parse(zipCode.trim()));
+    }
+
+    /**
+     * Adds one row of already parsed fields, for readers that parse straight into the columns.
+     * @param epochSecond the timestamp in epoch seconds, or {@link #NO_TIMESTAMP}
+     * @param descriptionCode a code from {@link #descriptionCode(String)} of this builder
+     * @param stateCode a code from {@link #stateCode(String)} of this builder
+     * @param zipCode the ZIP Code, or {@link ZipCode#NONE}
+     * @return this builder
+     */
+    public Builder add(long epochSecond, double fine, int descriptionCode, int stateCode, int zipCode) {
+      if (size == epochSeconds.length) {
+        int capacity = size * 2;
+        epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+        fines = Arrays.copyOf(fines, capacity);
+        descriptionCodes = Arrays.copyOf(descriptionCodes, capacity);
+        stateCodes = Arrays.copyOf(stateCodes, capacity);
+        zipCodes = Arrays.copyOf(zipCodes, capacity);
+      }
+      epochSeconds[size] = epochSecond;
+      fines[size] = fine;
+      descriptionCodes[size] = descriptionCode;
+      stateCodes[size] = stateCode;
+      zipCodes[size] = zipCode;
+      size++;
+      return this;
+    }
+
+    /**
+     * Appends every row of a table, such as one parsed from a slice of the same file, translating its
+     * dictionary codes into this builder's.
+     * @return this builder
+     */
+    public Builder addAll(ParkingViolationTable table) {
+      int[] descriptionCodeMap = new int[table.descriptions.size()];
+      for (int code = 0; code < descriptionCodeMap.length; code++) {
+        descriptionCodeMap[code] = descriptionCode(table.descriptions.get(code));
+      }
+      int[] stateCodeMap = new int[table.states.size()];
+      for (int code = 0; code < stateCodeMap.length; code++) {
+        stateCodeMap[code] = stateCode(table.states.get(code));
+      }
+      for (int row = 0; row < table.size; row++) {
+        add(table.epochSeconds[row], table.fines[row], descriptionCodeMap[table.descriptionCodes[row]],
+                stateCodeMap[table.stateCodes[row]], table.zipCodes[row]);
+      }
+      return this;
+    }
+
+    /**
+     * @return the code of a description in this builder, assigning the next code to one not seen before
+     */
+    public int descriptionCode(String description) {
+      return descriptions.code(description);
+    }
+
+    /**
+     * @return the code of a license plate state in this builder, assigning the next code to one not seen before
+     */
+    public int stateCode(String state) {
+      return states.code(state);
+    }
+
+    public ParkingViolationTable build() {
+      return new ParkingViolationTable(this);
+    }
+  }
+
+  /**
+   * Assigns dense codes to strings in order of first appearance. Null is a value like any other.
+   */
+  private static final class Dictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    int code(String value) {
+      Integer code = codes.get(value);
+      if (code == null) {
+        code = values.size();
+        codes.put(value, code);
+        values.add(value);
+      }
+      return code;
+    }
+
+    List<String> values() {
+      return Collections.unmodifiableList(new ArrayList<>(values));
+    }
+  }
+}
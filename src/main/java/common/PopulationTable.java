@@ -0,0 +1,70 @@
+package common;
+
+import java.util.List;
+
+/**
+ * Populations addressed directly by {@link ZipCode} key, plus the total over every row.
+ * When a ZIP Code appears more than once, lookups return its first row, as a scan of the list would,
+ * rather than failing the query as the ZIP-to-population map built by the services once did.
+ * A row whose ZIP Code is not five digits counts towards the total but has no per-ZIP lookup.
+ */
+public final class PopulationTable {
+
+  private final int[] populationByZipCode;
+  private final boolean[] present;
+  private final long totalPopulation;
+
+  private PopulationTable(int[] populationByZipCode, boolean[] present, long totalPopulation) {
+    this.populationByZipCode = populationByZipCode;
+    this.present = present;
+    this.totalPopulation = totalPopulation;
+  }
+
+  /**
+   * @param populations the population rows in file order; null rows are ignored
+   * @return the table
+   */
+  public static PopulationTable of(List<Population> populations) {
+    int[] populationByZipCode = new int[ZipCode.SPACE];
+    boolean[] present = new boolean[ZipCode.SPACE];
+    long total = 0;
+    if (populations != null) {
+      for (Population population : populations) {
+        if (population == null) {
+          continue;
+        }
+        total += population.getPopulation();
+        int zipCode = ZipCode.parse(population.getZipCode());
+        if (ZipCode.isValid(zipCode) && !present[zipCode]) {
+          present[zipCode] = true;
+          populationByZipCode[zipCode] = population.getPopulation();
+        }
+      }
+    }
+    return new PopulationTable(populationByZipCode, present, total);
+  }
+
+  /**
+   * @return the population of a ZIP Code, or 0 if the ZIP Code is not in the table
+   */
+  public int getPopulation(int zipCode) {
+    if (!ZipCode.isValid(zipCode)) {
+      return 0;
+    }
+    return populationByZipCode[zipCode];
+  }
+
+  /**
+   * @return true if the ZIP Code has a row in the table
+   */
+  public boolean contains(int zipCode) {
+    return ZipCode.isValid(zipCode) && present[zipCode];
+  }
+
+  /**
+   * @return the sum of the populations of all rows
+   */
+  public long getTotalPopulation() {
+    return totalPopulation;
+  }
+}
@@ -0,0 +1,149 @@
+package common;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Column-oriented, immutable form of the property dataset. Market values and livable areas are held
+ * in primitive double columns, with NaN standing in for a missing or invalid value, and each row's
+ * ZIP Code is a {@link ZipCode} int key.
+ */
+public final class PropertyValueTable {
+
+  private final int size;
+  private final double[] marketValues;
+  private final double[] totalLivableAreas;
+  private final int[] zipCodes;
+
+  private PropertyValueTable(Builder builder) {
+    this(Arrays.copyOf(builder.marketValues, builder.size), Arrays.copyOf(builder.totalLivableAreas, builder.size),
+            Arrays.copyOf(builder.zipCodes, builder.size));
+  }
+
+  private PropertyValueTable(double[] marketValues, double[] totalLivableAreas, int[] zipCodes) {
+    this.size = marketValues.length;
+    this.marketValues = marketValues;
+    this.totalLivableAreas = totalLivableAreas;
+    this.zipCodes = zipCodes;
+  }
+
+  /**
+   * Wraps columns that were written out from another table, such as a dataset snapshot.
+   * The arrays are taken over rather than copied, so the caller must not modify them afterwards.
+   * @throws IllegalArgumentException if the columns differ in length
+   */
+  public static PropertyValueTable fromColumns(double[] marketValues, double[] totalLivableAreas, int[] zipCodes) {
+    if (marketValues == null || totalLivableAreas == null || zipCodes == null) {
+      throw new IllegalArgumentException("Columns cannot be null");
+    }
+    if (totalLivableAreas.length != marketValues.length || zipCodes.length != marketValues.length) {
+      throw new IllegalArgumentException("Columns must have the same length");
+    }
+    return new PropertyValueTable(marketValues, totalLivableAreas, zipCodes);
+  }
+
+  /**
+   * Collects a (possibly streamed) property dataset into a table, in encounter order.
+   * Null elements are ignored.
+   */
+  public static PropertyValueTable build(Stream<PropertyValue> propertyValues) {
+    Builder builder = new Builder();
+    if (propertyValues != null) {
+      propertyValues.forEachOrdered(builder::add);
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return a table holding the given property values, in list order
+   */
+  public static PropertyValueTable of(List<PropertyValue> propertyValues) {
+    Builder builder = new Builder();
+    if (propertyValues != null) {
+      for (PropertyValue propertyValue : propertyValues) {
+        builder.add(propertyValue);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return the number of rows
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the market value of a row, or NaN if it has none
+   */
+  public double getMarketValue(int row) {
+    return marketValues[row];
+  }
+
+  /**
+   * @return the total livable area of a row, or NaN if it has none
+   */
+  public double getTotalLivableArea(int row) {
+    return totalLivableAreas[row];
+  }
+
+  /**
+   * @return the ZIP Code of a row, or {@link ZipCode#NONE} if it is missing or not a 5-digit ZIP Code
+   */
+  public int getZipCode(int row) {
+    return zipCodes[row];
+  }
+
+  /**
+   * Appends property values row by row, growing the columns geometrically.
+   */
+  public static final class Builder {
+    private int size;
+    private double[] marketValues = new double[1024];
+    private double[] totalLivableAreas = new double[1024];
+    private int[] zipCodes = new int[1024];
+
+    /**
+     * Adds one property value; null fields become NaN, and a ZIP Code that is not five digits
+     * becomes {@link ZipCode#NONE}. Null is ignored.
+     * @return this builder
+     */
+    public Builder add(PropertyValue propertyValue) {
+      if (propertyValue == null) {
+        return this;
+      }
+      Double marketValue = propertyValue.getMarketValue();
+      Double totalLivableArea = propertyValue.getTotalLivableArea();
+      return add(marketValue == null ? Double.NaN : marketValue,
+              totalLivableArea == null ? Double.NaN : totalLivableArea,
+              ZipCode.parse(propertyValue.getZipCode()));
+    }
+
+    /**
+     * Adds one row.
+     * @param marketValue the market value, or NaN if missing
+     * @param totalLivableArea the total livable area, or NaN if missing
+     * @param zipCode the ZIP Code, or {@link ZipCode#NONE} if missing
+     * @return this builder
+     */
+    public Builder add(double marketValue, double totalLivableArea, int zipCode) {
+      if (size == marketValues.length) {
+        int capacity = size * 2;
+        marketValues = Arrays.copyOf(marketValues, capacity);
+        totalLivableAreas = Arrays.copyOf(totalLivableAreas, capacity);
+        zipCodes = Arrays.copyOf(zipCodes, capacity);
+      }
+      marketValues[size] = marketValue;
+      totalLivableAreas[size] = totalLivableArea;
+      zipCodes[size] = zipCode;
+      size++;
+      return this;
+    }
+
+    public PropertyValueTable build() {
+      return new PropertyValueTable(this);
+    }
+  }
+}
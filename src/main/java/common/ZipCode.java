@@ -0,0 +1,79 @@
+package common;
+
+/**
+ * 5-digit ZIP Codes as int keys. A ZIP Code is parsed to its numeric value once at ingest, and
+ * per-ZIP data is then kept in arrays of {@link #SPACE} entries indexed directly by that value.
+ * Leading zeros are restored when a ZIP Code is formatted back to text.
+ * <p>
+ * Only text of exactly five digits has a key. Any other text, such as {@code "1910"} or {@code "1910A"},
+ * parses to {@link #NONE}: rows carrying it are still read, but are left out of every per-ZIP lookup and
+ * aggregate, and a query for such a ZIP Code finds no data. (The String-keyed maps these arrays replaced
+ * matched such text as-is.)
+ */
+public final class ZipCode {
+
+  /** Key of a missing ZIP Code or of text that is not a 5-digit ZIP Code. */
+  public static final int NONE = -1;
+
+  /** Number of distinct 5-digit ZIP Codes, i.e. the length of a direct-addressed per-ZIP array. */
+  public static final int SPACE = 100_000;
+
+  private static final String[] TEXT = new String[SPACE];
+
+  private ZipCode() {
+  }
+
+  /**
+   * @param text the ZIP Code text
+   * @return the ZIP Code's value, or {@link #NONE} if the text is null or not exactly five ASCII digits
+   */
+  public static int parse(CharSequence text) {
+    if (text == null) {
+      return NONE;
+    }
+    return parse(text, 0, text.length());
+  }
+
+  /**
+   * @return the value of the five ASCII digits in {@code text[start, end)}, or {@link #NONE}
+   *         if the range is not exactly five digits
+   */
+  public static int parse(CharSequence text, int start, int end) {
+    if (end - start != 5) {
+      return NONE;
+    }
+    int value = 0;
+    for (int i = start; i < end; i++) {
+      int digit = text.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return NONE;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  /**
+   * @return true if the key is a ZIP Code value rather than {@link #NONE}
+   */
+  public static boolean isValid(int zipCode) {
+    return zipCode >= 0 && zipCode < SPACE;
+  }
+
+  /**
+   * @return the 5-digit text of a ZIP Code value; the same String instance is returned for each value
+   * @throws IllegalArgumentException if the key is not a ZIP Code value
+   */
+  public static String format(int zipCode) {
+    if (!isValid(zipCode)) {
+      throw new IllegalArgumentException("Not a ZIP Code: " + zipCode);
+    }
+    String text = TEXT[zipCode];
+    if (text == null) {
+      // racy but benign: Strings are immutable and every thread computes the same value
+      text = String.format("%05d", zipCode);
+      TEXT[zipCode] = text;
+    }
+    return text;
+  }
+}
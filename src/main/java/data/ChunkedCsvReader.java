@@ -0,0 +1,315 @@
+package data;
+
+import common.ParkingViolation;
+import common.ParkingViolationTable;
+import metrics.Metrics;
+import metrics.ReaderMetrics;
+import metrics.SkipReason;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Parses a parking CSV file from a memory mapping, in byte ranges aligned to line boundaries.
+ * With a parallelism above 1 each range is parsed on a ForkJoinPool worker; with 1 the ranges are
+ * parsed one after another on the calling thread. Either way the results are emitted in file order
+ * and only a bounded window of ranges is in flight, so memory stays proportional to the parallelism
+ * rather than to the file size. Both modes use the same line parser, so the output is identical.
+ * The file is read either as a stream of violations or straight into a columnar table; for the table,
+ * each range is parsed into a table of its own, and the range tables are appended in file order.
+ */
+final class ChunkedCsvReader {
+
+  /** Target size of one parsed range; the real range ends at the next line break. */
+  static final int CHUNK_SIZE = 4 * 1024 * 1024;
+
+  private static final ReaderMetrics METRICS = Metrics.reader("parking_csv");
+
+  private ChunkedCsvReader() {
+  }
+
+  /**
+   * @param filePath an existing, readable CSV file
+   * @param parallelism the number of worker threads, or 1 to parse on the calling thread
+   * @return an ordered stream of the valid violations; closing it stops the workers
+   */
+  static Stream<ParkingViolation> stream(Path filePath, int parallelism) throws IOException {
+    return stream(filePath, parallelism, CHUNK_SIZE);
+  }
+
+  static Stream<ParkingViolation> stream(Path filePath, int parallelism, int chunkSize) throws IOException {
+    if (parallelism < 1 || chunkSize < 1) {
+      throw new IllegalArgumentException("Parallelism and chunk size must be at least 1");
+    }
+    ReaderMetrics.Load load = METRICS.startLoad(filePath.toString(), "csv");
+    FileChannel channel = null;
+    ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    try {
+      channel = FileChannel.open(filePath, StandardOpenOption.READ);
+      Chunks<List<ParkingViolation>> chunks =
+              new Chunks<>(channel, pool, window(parallelism), chunkSize, chunk -> parseChunk(chunk, load));
+      load.bytesRead(chunks.size);
+      FileChannel openChannel = channel;
+      return StreamSupport.stream(new ChunkSpliterator(chunks), false)
+              .onClose(() -> {
+                if (pool != null) {
+                  pool.shutdownNow();
+                }
+                ReaderSupport.closeUnchecked(openChannel);
+                load.finish();
+              });
+    } catch (IOException | RuntimeException e) {
+      if (pool != null) {
+        pool.shutdownNow();
+      }
+      ReaderSupport.closeAfterFailure(channel);
+      load.finish();
+      throw e;
+    }
+  }
+
+  /**
+   * Reads the file straight into a table, without a ParkingViolation or String per row.
+   * The table holds the same rows, in the same order, as one built from {@link #stream}.
+   * @param filePath an existing, readable CSV file
+   * @param parallelism the number of worker threads, or 1 to parse on the calling thread
+   */
+  static ParkingViolationTable readTable(Path filePath, int parallelism) throws IOException {
+    return readTable(filePath, parallelism, CHUNK_SIZE);
+  }
+
+  static ParkingViolationTable readTable(Path filePath, int parallelism, int chunkSize) throws IOException {
+    if (parallelism < 1 || chunkSize < 1) {
+      throw new IllegalArgumentException("Parallelism and chunk size must be at least 1");
+    }
+    ReaderMetrics.Load load = METRICS.startLoad(filePath.toString(), "csv");
+    ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+      Chunks<ParkingViolationTable> chunks =
+              new Chunks<>(channel, pool, window(parallelism), chunkSize, chunk -> parseChunkTable(chunk, load));
+      load.bytesRead(chunks.size);
+      ParkingViolationTable.Builder builder = new ParkingViolationTable.Builder();
+      ParkingViolationTable chunk;
+      while ((chunk = chunks.next()) != null) {
+        builder.addAll(chunk);
+      }
+      return builder.build();
+    } finally {
+      if (pool != null) {
+        pool.shutdownNow();
+      }
+      load.finish();
+    }
+  }
+
+  private static int window(int parallelism) {
+    return parallelism > 1 ? parallelism * 2 : 1;
+  }
+
+  /**
+   * Hands out the parsed chunks of a file in file order, keeping up to {@code window} chunks parsing ahead.
+   */
+  private static final class Chunks<R> {
+    private final FileChannel channel;
+    private final ForkJoinPool pool;
+    private final int window;
+    private final int chunkSize;
+    private final long size;
+    private final Function<ByteBuffer, R> parser;
+    private final ArrayDeque<Future<R>> inFlight = new ArrayDeque<>();
+    private final ByteBuffer probe = ByteBuffer.allocate(8 * 1024);
+    private long nextChunkStart;
+
+    Chunks(FileChannel channel, ForkJoinPool pool, int window, int chunkSize, Function<ByteBuffer, R> parser)
+            throws IOException {
+      this.channel = channel;
+      this.pool = pool;
+      this.window = window;
+      this.chunkSize = chunkSize;
+      this.size = channel.size();
+      this.parser = parser;
+    }
+
+    /**
+     * @return the next chunk's result, or null after the last chunk
+     */
+    R next() throws IOException {
+      fillWindow();
+      Future<R> next = inFlight.poll();
+      if (next == null) {
+        return null;
+      }
+      try {
+        return next.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while parsing", e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new IllegalStateException(cause);
+      }
+    }
+
+    private void fillWindow() throws IOException {
+      while (inFlight.size() < window && nextChunkStart < size) {
+        long start = nextChunkStart;
+        long end = alignToLineEnd(Math.min(start + chunkSize, size));
+        nextChunkStart = end;
+        MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        if (pool == null) {
+          inFlight.add(CompletableFuture.completedFuture(parser.apply(chunk)));
+        } else {
+          inFlight.add(pool.submit(() -> parser.apply(chunk)));
+        }
+      }
+    }
+
+    /**
+     * @return the offset just past the first line terminator at or after {@code position}, or the file size
+     */
+    private long alignToLineEnd(long position) throws IOException {
+      long offset = position;
+      while (offset < size) {
+        probe.clear();
+        int read = channel.read(probe, offset);
+        if (read <= 0) {
+          return size;
+        }
+        for (int i = 0; i < read; i++) {
+          if (isLineTerminator(probe.get(i))) {
+            return offset + i + 1;
+          }
+        }
+        offset += read;
+      }
+      return size;
+    }
+  }
+
+  /**
+   * Hands out violations chunk by chunk.
+   */
+  private static final class ChunkSpliterator extends Spliterators.AbstractSpliterator<ParkingViolation> {
+    private final Chunks<List<ParkingViolation>> chunks;
+    private Iterator<ParkingViolation> current = Collections.emptyIterator();
+
+    ChunkSpliterator(Chunks<List<ParkingViolation>> chunks) {
+      super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+      this.chunks = chunks;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super ParkingViolation> action) {
+      try {
+        while (!current.hasNext()) {
+          List<ParkingViolation> next = chunks.next();
+          if (next == null) {
+            return false;
+          }
+          current = next.iterator();
+        }
+        action.accept(current.next());
+        return true;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * Parses every line of a chunk into violations.
+   */
+  static List<ParkingViolation> parseChunk(ByteBuffer chunk, ReaderMetrics.Load load) {
+    List<ParkingViolation> violations = new ArrayList<>();
+    ParkingCsvLineParser parser = new ParkingCsvLineParser();
+    forEachLine(chunk, load, parser, (start, end) -> {
+      ParkingViolation violation = parser.parse(chunk, start, end);
+      if (violation == null) {
+        return false;
+      }
+      violations.add(violation);
+      return true;
+    });
+    return violations;
+  }
+
+  /**
+   * Parses every line of a chunk into a table of its own.
+   */
+  static ParkingViolationTable parseChunkTable(ByteBuffer chunk, ReaderMetrics.Load load) {
+    ParkingViolationTable.Builder builder = new ParkingViolationTable.Builder();
+    ParkingCsvLineParser parser = new ParkingCsvLineParser(builder);
+    forEachLine(chunk, load, parser, (start, end) -> parser.parseInto(chunk, start, end));
+    return builder.build();
+  }
+
+  /**
+   * Hands each line of a chunk to {@code line}. A chunk always starts at a line start and ends after a
+   * line terminator (or at end of file). '\r' and '\n' both end a line, as with BufferedReader;
+   * the empty line between "\r\n" is skipped like any other blank line.
+   * Row counts are added to the file's load once per chunk.
+   */
+  private static void forEachLine(ByteBuffer chunk, ReaderMetrics.Load load, ParkingCsvLineParser parser,
+                                  LineHandler line) {
+    long accepted = 0;
+    long[] skipped = new long[SkipReason.values().length];
+    int limit = chunk.limit();
+    int lineStart = 0;
+    for (int i = 0; i <= limit; i++) {
+      if (i == limit || isLineTerminator(chunk.get(i))) {
+        if (i > lineStart) {
+          if (line.parse(lineStart, i)) {
+            accepted++;
+          } else if (parser.getSkipReason() != null) {
+            skipped[parser.getSkipReason().ordinal()]++;
+          }
+        }
+        lineStart = i + 1;
+      }
+    }
+    load.rowsAccepted(accepted);
+    for (SkipReason reason : SkipReason.values()) {
+      if (skipped[reason.ordinal()] > 0) {
+        load.rowsSkipped(reason, skipped[reason.ordinal()]);
+      }
+    }
+  }
+
+  /**
+   * Parses the line in {@code [start, end)} of the chunk.
+   */
+  @FunctionalInterface
+  private interface LineHandler {
+    /**
+     * @return true if the line was accepted
+     */
+    boolean parse(int start, int end);
+  }
+
+  private static boolean isLineTerminator(byte b) {
+    return b == '\n' || b == '\r';
+  }
+}
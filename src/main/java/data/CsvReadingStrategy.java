@@ -2,13 +2,33 @@ package data;
 
 import common.ParkingViolation;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Strategy for reading CSV files.
+ * With a parallelism above 1 the file is parsed in parallel chunks over a memory mapping.
  */
 public class CsvReadingStrategy implements FileReadingStrategy {
+    private final int parallelism;
+
+    public CsvReadingStrategy() {
+        this(1);
+    }
+
+    public CsvReadingStrategy(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
     @Override
     public List<ParkingViolation> read(String fileName) {
-        return ParkingViolationReader.readCsvFile(fileName);
+        return ParkingViolationReader.readCsvFile(fileName, parallelism);
+    }
+
+    @Override
+    public Stream<ParkingViolation> stream(String fileName) {
+        return ParkingViolationReader.streamCsvFile(fileName, parallelism);
     }
 }
@@ -0,0 +1,229 @@
+package data;
+
+import common.ParkingViolationTable;
+import common.Population;
+import common.PopulationTable;
+import common.PropertyValueTable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide owner of the parsed parking, property and population datasets.
+ * Each dataset is parsed on first use and the same immutable data is handed to every caller
+ * until the underlying file's size or modification time changes, at which point it is reloaded.
+ * The parking and property files are read into columnar tables of primitives, so no list of row
+ * objects is ever materialized; the per-ZIP property index is derived from the property table.
+ * Every dataset has its own lock, so a caller waits only for the dataset it asks for, and
+ * {@link #preload()} can parse all three files concurrently in the background.
+ * With {@link DatasetSnapshots}, a file that has not changed since an earlier run is mapped back in from
+ * its binary snapshot instead of being parsed.
+ */
+public class DatasetRepository {
+
+  private final Dataset<ParkingViolationTable> parkingViolations;
+  private final Dataset<PropertyValueTable> propertyValues;
+  private final Dataset<List<Population>> populations;
+  private final Derived<PropertyValueTable, PropertyZipIndex> propertyZipIndex;
+  private final Derived<List<Population>, PopulationTable> populationTable;
+
+  /**
+   * Keeps binary snapshots of the parsed datasets in the directory named by the
+   * {@value DatasetSnapshots#DIRECTORY_PROPERTY} system property, if it is set.
+   */
+  public DatasetRepository(String parkingViolationFilePath, String propertyValueFilePath, String populationFilePath) {
+    this(parkingViolationFilePath, propertyValueFilePath, populationFilePath, DatasetSnapshots.fromSystemProperty());
+  }
+
+  /**
+   * @param snapshots where binary snapshots of the parsed datasets are kept, so an unchanged file is mapped
+   *                  back in rather than parsed again; null to parse every load
+   */
+  public DatasetRepository(String parkingViolationFilePath, String propertyValueFilePath, String populationFilePath,
+                           DatasetSnapshots snapshots) {
+    Function<String, List<Population>> parsePopulations =
+            path -> Collections.unmodifiableList(PopulationReader.readPopulationFile(path));
+    if (snapshots == null) {
+      this.parkingViolations = new Dataset<>(parkingViolationFilePath, ParkingViolationReader::readTable);
+      this.propertyValues = new Dataset<>(propertyValueFilePath, PropertyValueReader::readTable);
+      this.populations = new Dataset<>(populationFilePath, parsePopulations);
+    } else {
+      this.parkingViolations = new Dataset<>(parkingViolationFilePath,
+              path -> snapshots.loadParking(path, ParkingViolationReader::readTable));
+      this.propertyValues = new Dataset<>(propertyValueFilePath,
+              path -> snapshots.loadProperty(path, PropertyValueReader::readTable));
+      this.populations = new Dataset<>(populationFilePath, path -> snapshots.loadPopulation(path, parsePopulations));
+    }
+    this.propertyZipIndex = new Derived<>(propertyValues, PropertyZipIndex::build);
+    this.populationTable = new Derived<>(populations, PopulationTable::of);
+  }
+
+  /**
+   * Starts loading the parking, property and population datasets concurrently, one virtual thread
+   * each, and returns immediately. Callers asking for a dataset before its load has finished block
+   * until that dataset alone is ready. A load that fails is retried by the next caller, which then
+   * sees the error itself.
+   * @return a future completed when all datasets are loaded, or exceptionally if any load failed
+   */
+  public CompletableFuture<Void> preload() {
+    return CompletableFuture.allOf(
+            preload("parking", this::getParkingViolations),
+            preload("property", this::getPropertyZipIndex),
+            preload("population", this::getPopulationTable));
+  }
+
+  private static CompletableFuture<Void> preload(String dataset, Supplier<?> loader) {
+    Executor virtualThread = task -> Thread.ofVirtual().name("preload-" + dataset).start(task);
+    return CompletableFuture.runAsync(loader::get, virtualThread);
+  }
+
+  /**
+   * @return the parking violations as a columnar table, parsed at most once per version of the parking file
+   */
+  public ParkingViolationTable getParkingViolations() {
+    return parkingViolations.get();
+  }
+
+  /**
+   * @return the property values as a columnar table, parsed at most once per version of the property file
+   */
+  public PropertyValueTable getPropertyValues() {
+    return propertyValues.get();
+  }
+
+  /**
+   * @return the per-ZIP property index, computed at most once per loaded property table
+   */
+  public PropertyZipIndex getPropertyZipIndex() {
+    return propertyZipIndex.get();
+  }
+
+  /**
+   * @return the populations, parsed at most once per version of the population file
+   */
+  public List<Population> getPopulations() {
+    return populations.get();
+  }
+
+  /**
+   * @return the populations addressed by ZIP Code, built at most once per loaded population list
+   */
+  public PopulationTable getPopulationTable() {
+    return populationTable.get();
+  }
+
+  /**
+   * Size and last-modified time of a file, used to detect that a dataset must be reloaded.
+   * A missing or unreadable file has a single "unknown" version.
+   */
+  static final class FileVersion {
+    private static final FileVersion UNKNOWN = new FileVersion(-1L, -1L);
+
+    private final long size;
+    private final long lastModifiedMillis;
+
+    private FileVersion(long size, long lastModifiedMillis) {
+      this.size = size;
+      this.lastModifiedMillis = lastModifiedMillis;
+    }
+
+    static FileVersion of(String fileName) {
+      if (fileName == null || fileName.trim().isEmpty()) {
+        return UNKNOWN;
+      }
+      try {
+        Path path = Paths.get(fileName);
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return new FileVersion(attributes.size(), attributes.lastModifiedTime().toMillis());
+      } catch (IOException | RuntimeException e) {
+        return UNKNOWN;
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      FileVersion that = (FileVersion) o;
+      return size == that.size && lastModifiedMillis == that.lastModifiedMillis;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(size, lastModifiedMillis);
+    }
+  }
+
+  /**
+   * A lazily loaded dataset bound to one file. The file version is captured before parsing,
+   * so a change made while a load is in progress triggers another reload on the next access.
+   */
+  private static final class Dataset<T> {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final String filePath;
+    private final Function<String, T> loader;
+    private FileVersion version;
+    private T value;
+
+    Dataset(String filePath, Function<String, T> loader) {
+      this.filePath = filePath;
+      this.loader = loader;
+    }
+
+    T get() {
+      // a ReentrantLock rather than synchronized, so a virtual thread does not pin its carrier while parsing
+      lock.lock();
+      try {
+        FileVersion current = FileVersion.of(filePath);
+        if (value == null || !current.equals(version)) {
+          value = loader.apply(filePath);
+          version = current;
+        }
+        return value;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * A value computed from a dataset, recomputed only when the dataset has been reloaded.
+   */
+  private static final class Derived<S, T> {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Dataset<S> source;
+    private final Function<S, T> function;
+    private S derivedFrom;
+    private T value;
+
+    Derived(Dataset<S> source, Function<S, T> function) {
+      this.source = source;
+      this.function = function;
+    }
+
+    T get() {
+      lock.lock();
+      try {
+        S current = source.get();
+        if (value == null || current != derivedFrom) {
+          value = function.apply(current);
+          derivedFrom = current;
+        }
+        return value;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
@@ -0,0 +1,604 @@
+package data;
+
+import common.ParkingViolationTable;
+import common.Population;
+import common.PropertyValueTable;
+import metrics.Metrics;
+import metrics.ReaderMetrics;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A directory of binary snapshots of parsed datasets, so that a restart maps the parsed columns back in
+ * instead of parsing the source text again.
+ * <p>
+ * A snapshot is little-endian and columnar: a header identifying the format and the source file,
+ * then the row count and each column in turn, then the string dictionaries as a count followed by
+ * length-prefixed UTF-8 values (length -1 for null).
+ * <pre>
+ *   "COODSNAP" | int version | int kind | long source size | long source mtime (ms) | SHA-256 of the source
+ *               | normalized absolute path of the source
+ *   parking:    int rows | long[] epoch seconds | double[] fines | int[] description codes
+ *               | int[] state codes | int[] ZIP Codes | descriptions | states
+ *   property:   int rows | double[] market values | double[] livable areas | int[] ZIP Codes
+ *   population: int rows | int[] populations | ZIP Code strings
+ * </pre>
+ * A snapshot is used only for the source whose path it records, since snapshot file names tell
+ * sources apart by a short hash of that path. It is used when the source's size and modification time match its header. When only the
+ * modification time differs, as for a copied or touched file, the source is hashed, and a matching hash
+ * keeps the snapshot and refreshes its recorded time. Anything else, including another format version or
+ * a truncated file, is ignored and replaced after the next parse. Snapshots are written to a temporary
+ * file and moved into place, so a reader never sees a partial one; failing to write one only costs the
+ * next start a parse.
+ */
+public final class DatasetSnapshots {
+
+  /** System property naming the snapshot directory; snapshots are off when it is unset. */
+  public static final String DIRECTORY_PROPERTY = "snapshot.dir";
+
+  static final int VERSION = 3;
+  private static final byte[] MAGIC = "COODSNAP".getBytes(StandardCharsets.US_ASCII);
+  private static final int HASH_BYTES = 32;
+  private static final long MTIME_OFFSET = MAGIC.length + 4 + 4 + 8;
+  private static final int BUFFER_BYTES = 1 << 20;
+  // a mapping is limited to 2 GB, so larger snapshots are read through a sliding window
+  private static final int MAX_WINDOW_BYTES = 1 << 30;
+
+  private static final Kind<ParkingViolationTable> PARKING = new Kind<>(1, "parking") {
+    @Override
+    void write(Output out, ParkingViolationTable table) throws IOException {
+      int rows = table.size();
+      out.putInt(rows);
+      for (int row = 0; row < rows; row++) {
+        out.putLong(table.getEpochSecond(row));
+      }
+      for (int row = 0; row < rows; row++) {
+        out.putDouble(table.getFine(row));
+      }
+      for (int row = 0; row < rows; row++) {
+        out.putInt(table.getDescriptionCode(row));
+      }
+      for (int row = 0; row < rows; row++) {
+        out.putInt(table.getStateCode(row));
+      }
+      for (int row = 0; row < rows; row++) {
+        out.putInt(table.getZipCode(row));
+      }
+      out.putStrings(table.getDescriptions());
+      out.putStrings(table.getStates());
+    }
+
+    @Override
+    ParkingViolationTable read(Input in) throws IOException {
+      int rows = in.count(8 + 8 + 3 * 4);
+      return ParkingViolationTable.fromColumns(in.getLongs(rows), in.getDoubles(rows), in.getInts(rows),
+              in.getInts(rows), in.getInts(rows), in.getStrings(), in.getStrings());
+    }
+
+    @Override
+    int rows(ParkingViolationTable table) {
+      return table.size();
+    }
+  };
+
+  private static final Kind<PropertyValueTable> PROPERTY = new Kind<>(2, "property") {
+    @Override
+    void write(Output out, PropertyValueTable table) throws IOException {
+      int rows = table.size();
+      out.putInt(rows);
+      for (int row = 0; row < rows; row++) {
+        out.putDouble(table.getMarketValue(row));
+      }
+      for (int row = 0; row < rows; row++) {
+        out.putDouble(table.getTotalLivableArea(row));
+      }
+      for (int row = 0; row < rows; row++) {
+        out.putInt(table.getZipCode(row));
+      }
+    }
+
+    @Override
+    PropertyValueTable read(Input in) throws IOException {
+      int rows = in.count(8 + 8 + 4);
+      return PropertyValueTable.fromColumns(in.getDoubles(rows), in.getDoubles(rows), in.getInts(rows));
+    }
+
+    @Override
+    int rows(PropertyValueTable table) {
+      return table.size();
+    }
+  };
+
+  private static final Kind<List<Population>> POPULATION = new Kind<>(3, "population") {
+    @Override
+    void write(Output out, List<Population> populations) throws IOException {
+      out.putInt(populations.size());
+      for (Population population : populations) {
+        out.putInt(population.getPopulation());
+      }
+      for (Population population : populations) {
+        out.putString(population.getZipCode());
+      }
+    }
+
+    @Override
+    List<Population> read(Input in) throws IOException {
+      int rows = in.count(4 + 4);
+      int[] counts = in.getInts(rows);
+      List<Population> populations = new ArrayList<>(rows);
+      for (int row = 0; row < rows; row++) {
+        populations.add(new Population(in.getString(), counts[row]));
+      }
+      return Collections.unmodifiableList(populations);
+    }
+
+    @Override
+    int rows(List<Population> populations) {
+      return populations.size();
+    }
+  };
+
+  private final Path directory;
+
+  public DatasetSnapshots(Path directory) {
+    if (directory == null) {
+      throw new IllegalArgumentException("Snapshot directory cannot be null");
+    }
+    this.directory = directory;
+  }
+
+  /**
+   * @return the snapshots kept in the directory named by the {@value #DIRECTORY_PROPERTY} system property,
+   *         or null if it is not set
+   */
+  public static DatasetSnapshots fromSystemProperty() {
+    String directory = System.getProperty(DIRECTORY_PROPERTY);
+    if (directory == null || directory.trim().isEmpty()) {
+      return null;
+    }
+    return new DatasetSnapshots(Paths.get(directory.trim()));
+  }
+
+  /**
+   * @param fileName the parking file
+   * @param parser parses the file when there is no usable snapshot of it
+   * @return the table from the snapshot of an unchanged file, else the parsed table, which is then snapshotted
+   */
+  public ParkingViolationTable loadParking(String fileName, Function<String, ParkingViolationTable> parser) {
+    return load(fileName, PARKING, parser);
+  }
+
+  /**
+   * @param fileName the property file
+   * @param parser parses the file when there is no usable snapshot of it
+   * @return the table from the snapshot of an unchanged file, else the parsed table, which is then snapshotted
+   */
+  public PropertyValueTable loadProperty(String fileName, Function<String, PropertyValueTable> parser) {
+    return load(fileName, PROPERTY, parser);
+  }
+
+  /**
+   * @param fileName the population file
+   * @param parser parses the file when there is no usable snapshot of it
+   * @return the populations from the snapshot of an unchanged file, else the parsed populations, which are
+   *         then snapshotted; a list read from a snapshot is unmodifiable
+   */
+  public List<Population> loadPopulation(String fileName, Function<String, List<Population>> parser) {
+    return load(fileName, POPULATION, parser);
+  }
+
+  private <T> T load(String fileName, Kind<T> kind, Function<String, T> parser) {
+    if (fileName == null || fileName.trim().isEmpty()) {
+      throw new IllegalArgumentException("File name cannot be null or empty");
+    }
+    Path source = Paths.get(fileName).toAbsolutePath().normalize();
+    Path snapshot = snapshotPath(source, kind);
+    T value = read(snapshot, source, kind);
+    if (value != null) {
+      return value;
+    }
+    // captured before parsing, so a file changed meanwhile is not snapshotted under the old version
+    Stamp stamp = Stamp.of(source);
+    value = parser.apply(fileName);
+    if (stamp != null && value != null) {
+      write(snapshot, source, stamp, kind, value);
+    }
+    return value;
+  }
+
+  /**
+   * Snapshots are named after the source file, a hash of its directory and the dataset kind, so files of
+   * the same name in different directories do not usually replace each other's snapshots; the path in
+   * the header settles a collision.
+   * @param source the normalized absolute path of the source
+   */
+  Path snapshotPath(Path source, Kind<?> kind) {
+    return directory.resolve(source.getFileName() + "." + Integer.toHexString(source.toString().hashCode())
+            + "." + kind.name + ".snap");
+  }
+
+  /**
+   * @return the snapshot's data, or null if it is missing, stale, of another version or damaged
+   */
+  private static <T> T read(Path snapshot, Path source, Kind<T> kind) {
+    Stamp current = Stamp.of(source);
+    if (current == null || !Files.isRegularFile(snapshot)) {
+      return null;
+    }
+    try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+      Input in = new Input(channel);
+      if (!Arrays.equals(in.getBytes(MAGIC.length), MAGIC) || in.getInt() != VERSION || in.getInt() != kind.id) {
+        return null;
+      }
+      long size = in.getLong();
+      long lastModifiedMillis = in.getLong();
+      byte[] hash = in.getBytes(HASH_BYTES);
+      if (!source.toString().equals(in.getString()) || size != current.size) {
+        return null;
+      }
+      if (lastModifiedMillis != current.lastModifiedMillis) {
+        if (!Arrays.equals(hash, hash(source))) {
+          return null;
+        }
+        refreshLastModified(snapshot, current.lastModifiedMillis);
+      }
+
+      ReaderMetrics.Load load = kind.metrics.startLoad(snapshot.toString(), "snapshot");
+      try {
+        T value = kind.read(in);
+        if (!in.atEnd()) {
+          return null;
+        }
+        load.bytesRead(channel.size());
+        load.rowsAccepted(kind.rows(value));
+        return value;
+      } finally {
+        load.finish();
+      }
+    } catch (IOException | RuntimeException e) {
+      // unreadable or damaged: parse the source and replace the snapshot
+      return null;
+    }
+  }
+
+  private static <T> void write(Path snapshot, Path source, Stamp stamp, Kind<T> kind, T value) {
+    Path temporary = null;
+    try {
+      byte[] hash = hash(source);
+      if (!stamp.equals(Stamp.of(source))) {
+        return;
+      }
+      Files.createDirectories(snapshot.getParent());
+      temporary = Files.createTempFile(snapshot.getParent(), snapshot.getFileName().toString(), ".tmp");
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING)) {
+        Output out = new Output(channel);
+        out.putBytes(MAGIC);
+        out.putInt(VERSION);
+        out.putInt(kind.id);
+        out.putLong(stamp.size);
+        out.putLong(stamp.lastModifiedMillis);
+        out.putBytes(hash);
+        out.putString(source.toString());
+        kind.write(out, value);
+        out.flush();
+      }
+      try {
+        Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException | RuntimeException e) {
+      // best effort: without a snapshot the next start parses the source again
+    } finally {
+      if (temporary != null) {
+        try {
+          Files.deleteIfExists(temporary);
+        } catch (IOException e) {
+          // left behind in the snapshot directory
+        }
+      }
+    }
+  }
+
+  private static void refreshLastModified(Path snapshot, long lastModifiedMillis) {
+    ByteBuffer buffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, lastModifiedMillis);
+    try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+      channel.write(buffer, MTIME_OFFSET);
+    } catch (IOException e) {
+      // the snapshot stays usable; the next start hashes the source again
+    }
+  }
+
+  private static byte[] hash(Path source) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+    ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+      while (channel.read(buffer) >= 0) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+      }
+    }
+    return digest.digest();
+  }
+
+  /**
+   * Size and last-modified time of a source file.
+   */
+  private static final class Stamp {
+    private final long size;
+    private final long lastModifiedMillis;
+
+    private Stamp(long size, long lastModifiedMillis) {
+      this.size = size;
+      this.lastModifiedMillis = lastModifiedMillis;
+    }
+
+    /**
+     * @return the file's stamp, or null if it cannot be read
+     */
+    static Stamp of(Path file) {
+      try {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return new Stamp(attributes.size(), attributes.lastModifiedTime().toMillis());
+      } catch (IOException e) {
+        return null;
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Stamp that = (Stamp) o;
+      return size == that.size && lastModifiedMillis == that.lastModifiedMillis;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(size) * 31 + Long.hashCode(lastModifiedMillis);
+    }
+  }
+
+  /**
+   * How one dataset is laid out after the header.
+   */
+  abstract static class Kind<T> {
+    private final int id;
+    private final String name;
+    private final ReaderMetrics metrics;
+
+    Kind(int id, String name) {
+      this.id = id;
+      this.name = name;
+      this.metrics = Metrics.reader(name + "_snapshot");
+    }
+
+    abstract void write(Output out, T value) throws IOException;
+
+    abstract T read(Input in) throws IOException;
+
+    abstract int rows(T value);
+  }
+
+  /**
+   * Buffered little-endian writes to a channel.
+   */
+  static final class Output {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+    Output(FileChannel channel) {
+      this.channel = channel;
+    }
+
+    void putInt(int value) throws IOException {
+      ensure(4).putInt(value);
+    }
+
+    void putLong(long value) throws IOException {
+      ensure(8).putLong(value);
+    }
+
+    void putDouble(double value) throws IOException {
+      ensure(8).putDouble(value);
+    }
+
+    void putBytes(byte[] bytes) throws IOException {
+      if (bytes.length > buffer.remaining()) {
+        flush();
+      }
+      if (bytes.length > buffer.remaining()) {
+        ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+        while (wrapped.hasRemaining()) {
+          channel.write(wrapped);
+        }
+      } else {
+        buffer.put(bytes);
+      }
+    }
+
+    void putString(String value) throws IOException {
+      if (value == null) {
+        putInt(-1);
+        return;
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      putInt(bytes.length);
+      putBytes(bytes);
+    }
+
+    void putStrings(List<String> values) throws IOException {
+      putInt(values.size());
+      for (String value : values) {
+        putString(value);
+      }
+    }
+
+    void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+
+    private ByteBuffer ensure(int bytes) throws IOException {
+      if (buffer.remaining() < bytes) {
+        flush();
+      }
+      return buffer;
+    }
+  }
+
+  /**
+   * Little-endian reads from a memory mapping of a channel. Columns are copied out of the mapping in bulk.
+   * Reading past the end, or a count that cannot fit in what is left of the file, throws.
+   */
+  static final class Input {
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+
+    Input(FileChannel channel) throws IOException {
+      this.channel = channel;
+      this.size = channel.size();
+    }
+
+    int getInt() throws IOException {
+      ByteBuffer buffer = window(4);
+      position += 4;
+      return buffer.getInt();
+    }
+
+    long getLong() throws IOException {
+      ByteBuffer buffer = window(8);
+      position += 8;
+      return buffer.getLong();
+    }
+
+    byte[] getBytes(int length) throws IOException {
+      byte[] bytes = new byte[length];
+      window(length).get(bytes);
+      position += length;
+      return bytes;
+    }
+
+    /**
+     * Reads a row count and checks that the rows, at the given minimum bytes each, fit in the file.
+     */
+    int count(int bytesPerRow) throws IOException {
+      int count = getInt();
+      if (count < 0 || (long) count * bytesPerRow > size - position) {
+        throw new EOFException("Snapshot row count " + count + " exceeds the file");
+      }
+      return count;
+    }
+
+    long[] getLongs(int count) throws IOException {
+      long[] values = new long[count];
+      for (int done = 0; done < count; ) {
+        ByteBuffer buffer = window((long) (count - done) * 8);
+        int chunk = Math.min(count - done, buffer.remaining() / 8);
+        buffer.asLongBuffer().get(values, done, chunk);
+        done += chunk;
+        position += (long) chunk * 8;
+      }
+      return values;
+    }
+
+    double[] getDoubles(int count) throws IOException {
+      double[] values = new double[count];
+      for (int done = 0; done < count; ) {
+        ByteBuffer buffer = window((long) (count - done) * 8);
+        int chunk = Math.min(count - done, buffer.remaining() / 8);
+        buffer.asDoubleBuffer().get(values, done, chunk);
+        done += chunk;
+        position += (long) chunk * 8;
+      }
+      return values;
+    }
+
+    int[] getInts(int count) throws IOException {
+      int[] values = new int[count];
+      for (int done = 0; done < count; ) {
+        ByteBuffer buffer = window((long) (count - done) * 4);
+        int chunk = Math.min(count - done, buffer.remaining() / 4);
+        buffer.asIntBuffer().get(values, done, chunk);
+        done += chunk;
+        position += (long) chunk * 4;
+      }
+      return values;
+    }
+
+    String getString() throws IOException {
+      int length = getInt();
+      if (length == -1) {
+        return null;
+      }
+      if (length < 0) {
+        throw new EOFException("Invalid string length " + length);
+      }
+      return new String(getBytes(length), StandardCharsets.UTF_8);
+    }
+
+    List<String> getStrings() throws IOException {
+      int count = count(4);
+      List<String> values = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        values.add(getString());
+      }
+      return values;
+    }
+
+    boolean atEnd() {
+      return position == size;
+    }
+
+    /**
+     * @return the mapping positioned at the current position, with at least the wanted bytes remaining,
+     *         or a whole window of them when more are wanted than one window holds
+     */
+    private ByteBuffer window(long wanted) throws IOException {
+      if (wanted > size - position) {
+        throw new EOFException("Snapshot is truncated");
+      }
+      long needed = Math.min(wanted, MAX_WINDOW_BYTES);
+      if (window == null || position < windowStart || position + needed > windowStart + window.capacity()) {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, MAX_WINDOW_BYTES));
+        window.order(ByteOrder.LITTLE_ENDIAN);
+      }
+      window.position((int) (position - windowStart));
+      return window;
+    }
+  }
+}
@@ -0,0 +1,165 @@
+package data;
+
+import common.ZipCode;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Allocation-free parsers for the fixed-layout fields of the ingest hot path, reading straight from
+ * byte offsets. Each parser handles the common layout directly and falls back to the general JDK
+ * parser for anything else, so the accepted values and the rejected inputs are exactly the same.
+ */
+final class FieldParser {
+
+  private static final double[] POWERS_OF_TEN = {
+          1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+          1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  private FieldParser() {
+  }
+
+  /**
+   * Parses an ISO-8601 instant to epoch seconds. The layout {@code yyyy-MM-ddTHH:mm:ssZ} is decoded
+   * from the digits; any other layout goes through {@link Instant#parse(CharSequence)}.
+   * @throws java.time.format.DateTimeParseException if the text is not a valid instant
+   */
+  static long parseEpochSecond(ByteBuffer buffer, int start, int end) {
+    if (end - start == 20
+            && buffer.get(start + 4) == '-' && buffer.get(start + 7) == '-' && buffer.get(start + 10) == 'T'
+            && buffer.get(start + 13) == ':' && buffer.get(start + 16) == ':' && buffer.get(start + 19) == 'Z') {
+      int year = digits(buffer, start, 4);
+      int month = digits(buffer, start + 5, 2);
+      int day = digits(buffer, start + 8, 2);
+      int hour = digits(buffer, start + 11, 2);
+      int minute = digits(buffer, start + 14, 2);
+      int second = digits(buffer, start + 17, 2);
+      if (year >= 0 && month >= 1 && month <= 12 && day >= 1 && day <= lengthOfMonth(year, month)
+              && hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59 && second >= 0 && second <= 59) {
+        return daysFromCivil(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+      }
+    }
+    // leap seconds, offsets, fractions and invalid text are left to the JDK
+    return Instant.parse(utf8(buffer, start, end)).getEpochSecond();
+  }
+
+  /**
+   * Parses a decimal number the way {@link Double#parseDouble(String)} does.
+   * Plain decimals of up to 15 digits are exact in a double, so mantissa / 10^scale is correctly
+   * rounded; everything else is handed to the JDK.
+   * @throws NumberFormatException if the text is not a number
+   */
+  static double parseDouble(ByteBuffer buffer, int start, int end) {
+    long mantissa = 0;
+    int digitCount = 0;
+    int scale = -1;
+    boolean simple = end > start;
+    for (int i = start; i < end && simple; i++) {
+      byte b = buffer.get(i);
+      if (b >= '0' && b <= '9') {
+        mantissa = mantissa * 10 + (b - '0');
+        digitCount++;
+        if (scale >= 0) {
+          scale++;
+        }
+      } else if (b == '.' && scale < 0) {
+        scale = 0;
+      } else {
+        simple = false;
+      }
+    }
+    if (simple && digitCount > 0 && digitCount <= 15 && scale != 0) {
+      return scale < 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+    }
+    return Double.parseDouble(utf8(buffer, start, end));
+  }
+
+  /**
+   * @return the value of a 5-digit ZIP Code, or {@link ZipCode#NONE} if the field is not exactly five ASCII digits
+   */
+  static int parseZipCode(ByteBuffer buffer, int start, int end) {
+    if (end - start != 5) {
+      return ZipCode.NONE;
+    }
+    return digits(buffer, start, 5);
+  }
+
+  /**
+   * Decodes UTF-8 text, with a fast path for pure ASCII.
+   * @throws java.io.UncheckedIOException if the bytes are not valid UTF-8
+   */
+  static String utf8(ByteBuffer buffer, int start, int end) {
+    int length = end - start;
+    byte[] bytes = new byte[length];
+    buffer.get(start, bytes, 0, length);
+    for (byte b : bytes) {
+      if (b < 0) {
+        try {
+          return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+        } catch (CharacterCodingException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    }
+    return new String(bytes, StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * Checks that a field is valid UTF-8 without decoding it when it is pure ASCII.
+   * @throws java.io.UncheckedIOException if the bytes are not valid UTF-8, as {@link #utf8} would
+   */
+  static void requireUtf8(ByteBuffer buffer, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (buffer.get(i) < 0) {
+        utf8(buffer, start, end);
+        return;
+      }
+    }
+  }
+
+  /**
+   * @return the value of {@code count} ASCII digits, or -1 if any byte is not a digit
+   */
+  private static int digits(ByteBuffer buffer, int start, int count) {
+    int value = 0;
+    for (int i = start; i < start + count; i++) {
+      int digit = buffer.get(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        return leap ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  /**
+   * Days since 1970-01-01 in the proleptic Gregorian calendar (Hinnant's civil-from-days inverse).
+   */
+  static long daysFromCivil(int year, int month, int day) {
+    long y = month <= 2 ? year - 1 : year;
+    long era = (y >= 0 ? y : y - 399) / 400;
+    long yearOfEra = y - era * 400;
+    long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+    long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146_097 + dayOfEra - 719_468;
+  }
+}
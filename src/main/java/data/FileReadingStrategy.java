@@ -2,10 +2,20 @@ package data;
 
 import common.ParkingViolation;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Strategy interface for reading parking violation files.
  */
 public interface FileReadingStrategy {
     List<ParkingViolation> read(String fileName);
+
+    /**
+     * Streaming variant of {@link #read(String)}. Implementations that can parse incrementally
+     * return a lazily evaluated stream so that callers can aggregate in constant memory.
+     * The returned stream must be closed to release the underlying file.
+     */
+    default Stream<ParkingViolation> stream(String fileName) {
+        return read(fileName).stream();
+    }
 }
@@ -0,0 +1,362 @@
+package data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Minimal pull tokenizer for JSON text over a buffered {@link Reader}.
+ * Tokens are produced one at a time without building any tree; names and scalar values are exposed
+ * through a reused text buffer so callers can match field names without allocating.
+ */
+public final class JsonPullParser implements Closeable {
+
+  public enum Token {
+    BEGIN_ARRAY, END_ARRAY, BEGIN_OBJECT, END_OBJECT, NAME, STRING, NUMBER, TRUE, FALSE, NULL, END_DOCUMENT
+  }
+
+  /**
+   * Thrown when the input is not well-formed JSON.
+   */
+  public static final class SyntaxException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    SyntaxException(String message, long offset) {
+      super(message + " at offset " + offset);
+    }
+  }
+
+  private static final int EMPTY_DOCUMENT = 0;
+  private static final int NONEMPTY_DOCUMENT = 1;
+  private static final int EMPTY_ARRAY = 2;
+  private static final int NONEMPTY_ARRAY = 3;
+  private static final int EMPTY_OBJECT = 4;
+  private static final int DANGLING_NAME = 5;
+  private static final int NONEMPTY_OBJECT = 6;
+
+  private final Reader reader;
+  private final char[] buffer = new char[16 * 1024];
+  private int pos;
+  private int limit;
+  private long consumedBeforeBuffer;
+
+  private final StringBuilder text = new StringBuilder(64);
+  private int[] scopes = new int[16];
+  private int depth = 1;
+
+  public JsonPullParser(Reader reader) {
+    this.reader = reader;
+    this.scopes[0] = EMPTY_DOCUMENT;
+  }
+
+  /**
+   * Advances to the next token.
+   * @return the token just consumed
+   * @throws SyntaxException if the input is not well-formed JSON
+   * @throws IOException if the underlying reader fails
+   */
+  public Token next() throws IOException {
+    int c;
+    switch (scopes[depth - 1]) {
+      case EMPTY_DOCUMENT:
+        scopes[depth - 1] = NONEMPTY_DOCUMENT;
+        c = nextNonWhitespace();
+        if (c == -1) {
+          throw syntaxError("Empty document");
+        }
+        return readValue(c);
+      case NONEMPTY_DOCUMENT:
+        c = nextNonWhitespace();
+        if (c == -1) {
+          return Token.END_DOCUMENT;
+        }
+        throw syntaxError("Unexpected data after the top-level value");
+      case EMPTY_ARRAY:
+        scopes[depth - 1] = NONEMPTY_ARRAY;
+        c = nextNonWhitespace();
+        if (c == ']') {
+          depth--;
+          return Token.END_ARRAY;
+        }
+        return readValue(c);
+      case NONEMPTY_ARRAY:
+        c = nextNonWhitespace();
+        if (c == ']') {
+          depth--;
+          return Token.END_ARRAY;
+        }
+        if (c != ',') {
+          throw syntaxError("Expected ',' or ']'");
+        }
+        return readValue(nextNonWhitespace());
+      case EMPTY_OBJECT:
+      case NONEMPTY_OBJECT:
+        c = nextNonWhitespace();
+        if (c == '}') {
+          depth--;
+          return Token.END_OBJECT;
+        }
+        if (scopes[depth - 1] == NONEMPTY_OBJECT) {
+          if (c != ',') {
+            throw syntaxError("Expected ',' or '}'");
+          }
+          c = nextNonWhitespace();
+        }
+        if (c != '"') {
+          throw syntaxError("Expected a field name");
+        }
+        readString();
+        scopes[depth - 1] = DANGLING_NAME;
+        return Token.NAME;
+      case DANGLING_NAME:
+        if (nextNonWhitespace() != ':') {
+          throw syntaxError("Expected ':'");
+        }
+        scopes[depth - 1] = NONEMPTY_OBJECT;
+        return readValue(nextNonWhitespace());
+      default:
+        throw new IllegalStateException("Unknown scope " + scopes[depth - 1]);
+    }
+  }
+
+  /**
+   * Skips the remainder of the array or object whose BEGIN token was just returned by {@link #next()}.
+   */
+  public void skipContainer() throws IOException {
+    int containerDepth = depth;
+    while (depth >= containerDepth) {
+      if (next() == Token.END_DOCUMENT) {
+        throw syntaxError("Unterminated container");
+      }
+    }
+  }
+
+  /**
+   * @return the text of the last NAME, STRING or NUMBER token; only valid until the next call to next()
+   */
+  public CharSequence text() {
+    return text;
+  }
+
+  /**
+   * @return true if the text of the last NAME, STRING or NUMBER token equals the given string
+   */
+  public boolean textEquals(String value) {
+    return value.contentEquals(text);
+  }
+
+  /**
+   * @return a copy of the text of the last NAME, STRING or NUMBER token
+   */
+  public String textAsString() {
+    return text.toString();
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private Token readValue(int c) throws IOException {
+    switch (c) {
+      case '{':
+        push(EMPTY_OBJECT);
+        return Token.BEGIN_OBJECT;
+      case '[':
+        push(EMPTY_ARRAY);
+        return Token.BEGIN_ARRAY;
+      case '"':
+        readString();
+        return Token.STRING;
+      case 't':
+        expectLiteral("rue");
+        return Token.TRUE;
+      case 'f':
+        expectLiteral("alse");
+        return Token.FALSE;
+      case 'n':
+        expectLiteral("ull");
+        return Token.NULL;
+      case -1:
+        throw syntaxError("Unexpected end of input");
+      default:
+        if (c == '-' || (c >= '0' && c <= '9')) {
+          readNumber(c);
+          return Token.NUMBER;
+        }
+        throw syntaxError("Unexpected character '" + (char) c + "'");
+    }
+  }
+
+  private void push(int scope) {
+    if (depth == scopes.length) {
+      int[] grown = new int[depth * 2];
+      System.arraycopy(scopes, 0, grown, 0, depth);
+      scopes = grown;
+    }
+    scopes[depth++] = scope;
+  }
+
+  private void readString() throws IOException {
+    text.setLength(0);
+    while (true) {
+      // copy unescaped runs straight from the buffer
+      int start = pos;
+      while (pos < limit) {
+        char c = buffer[pos];
+        if (c == '"') {
+          text.append(buffer, start, pos - start);
+          pos++;
+          return;
+        }
+        if (c == '\\') {
+          break;
+        }
+        pos++;
+      }
+      text.append(buffer, start, pos - start);
+      if (pos == limit) {
+        if (!fill()) {
+          throw syntaxError("Unterminated string");
+        }
+        continue;
+      }
+      pos++; // the backslash
+      int escaped = read();
+      switch (escaped) {
+        case '"': text.append('"'); break;
+        case '\\': text.append('\\'); break;
+        case '/': text.append('/'); break;
+        case 'b': text.append('\b'); break;
+        case 'f': text.append('\f'); break;
+        case 'n': text.append('\n'); break;
+        case 'r': text.append('\r'); break;
+        case 't': text.append('\t'); break;
+        case 'u': text.append(readUnicodeEscape()); break;
+        default: throw syntaxError("Invalid escape sequence");
+      }
+    }
+  }
+
+  private char readUnicodeEscape() throws IOException {
+    int value = 0;
+    for (int i = 0; i < 4; i++) {
+      int c = read();
+      int digit = Character.digit(c, 16);
+      if (c == -1 || digit < 0) {
+        throw syntaxError("Invalid unicode escape");
+      }
+      value = (value << 4) | digit;
+    }
+    return (char) value;
+  }
+
+  /**
+   * Reads a number following the JSON grammar: -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?
+   */
+  private void readNumber(int first) throws IOException {
+    text.setLength(0);
+    int c = first;
+    if (c == '-') {
+      text.append('-');
+      c = read();
+    }
+    if (c == '0') {
+      text.append('0');
+      c = peek();
+    } else if (c >= '1' && c <= '9') {
+      text.append((char) c);
+      c = appendDigits();
+    } else {
+      throw syntaxError("Invalid number");
+    }
+    if (c == '.') {
+      pos++;
+      text.append('.');
+      if (!isDigit(peek())) {
+        throw syntaxError("Invalid number");
+      }
+      c = appendDigits();
+    }
+    if (c == 'e' || c == 'E') {
+      pos++;
+      text.append((char) c);
+      c = peek();
+      if (c == '+' || c == '-') {
+        pos++;
+        text.append((char) c);
+      }
+      if (!isDigit(peek())) {
+        throw syntaxError("Invalid number");
+      }
+      appendDigits();
+    }
+  }
+
+  /**
+   * Appends consecutive digits to the text buffer and returns the first non-digit (not consumed).
+   */
+  private int appendDigits() throws IOException {
+    int c = peek();
+    while (isDigit(c)) {
+      text.append((char) c);
+      pos++;
+      c = peek();
+    }
+    return c;
+  }
+
+  private static boolean isDigit(int c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private void expectLiteral(String rest) throws IOException {
+    for (int i = 0; i < rest.length(); i++) {
+      if (read() != rest.charAt(i)) {
+        throw syntaxError("Invalid literal");
+      }
+    }
+  }
+
+  private int nextNonWhitespace() throws IOException {
+    while (true) {
+      if (pos == limit && !fill()) {
+        return -1;
+      }
+      char c = buffer[pos++];
+      if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+        return c;
+      }
+    }
+  }
+
+  private int read() throws IOException {
+    if (pos == limit && !fill()) {
+      return -1;
+    }
+    return buffer[pos++];
+  }
+
+  private int peek() throws IOException {
+    if (pos == limit && !fill()) {
+      return -1;
+    }
+    return buffer[pos];
+  }
+
+  private boolean fill() throws IOException {
+    consumedBeforeBuffer += limit;
+    pos = 0;
+    limit = 0;
+    int read = reader.read(buffer, 0, buffer.length);
+    if (read <= 0) {
+      return false;
+    }
+    limit = read;
+    return true;
+  }
+
+  private SyntaxException syntaxError(String message) {
+    return new SyntaxException(message, consumedBeforeBuffer + pos);
+  }
+}
@@ -1,19 +1,9 @@
 package data;
 
 import common.ParkingViolation;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 
-import java.io.FileReader;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Strategy for reading JSON files.
@@ -23,4 +13,9 @@ public class JsonReadingStrategy implements FileReadingStrategy {
     public List<ParkingViolation> read(String fileName) {
         return ParkingViolationReader.readJsonFile(fileName);
     }
+
+    @Override
+    public Stream<ParkingViolation> stream(String fileName) {
+        return ParkingViolationReader.streamJsonFile(fileName);
+    }
 }
@@ -0,0 +1,220 @@
+package data;
+
+import common.ParkingViolation;
+import common.ParkingViolationTable;
+import common.ZipCode;
+import metrics.SkipReason;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+
+/**
+ * Parses parking CSV lines directly from bytes. Field boundaries are found by scanning for commas,
+ * and the timestamp, fine and ZIP Code are parsed in place without intermediate Strings.
+ * The accept/skip rules are those of the original {@code trim().split(",")} based parser:
+ * exactly seven comma-separated fields (trailing empty fields are ignored, as String.split does),
+ * each non-empty after trimming, a non-negative fine and a valid ISO-8601 timestamp.
+ * <p>
+ * A line is either parsed into a ParkingViolation, for {@link FileReadingStrategy#stream}, or written
+ * straight into the columns of a {@link ParkingViolationTable.Builder}: epoch seconds, fine, dictionary
+ * codes looked up from the description and state bytes, and the int ZIP Code, with no object or String
+ * per row. Both go through the same field checks, so they accept and skip the same lines.
+ * Instances keep per-line scratch state and must not be shared between threads.
+ */
+final class ParkingCsvLineParser {
+
+  private static final int FIELD_COUNT = 7;
+
+  private final int[] fieldStarts = new int[FIELD_COUNT];
+  private final int[] fieldEnds = new int[FIELD_COUNT];
+  private final ParkingViolationTable.Builder table;
+  private final Utf8Dictionary descriptions;
+  private final Utf8Dictionary states;
+  private SkipReason skipReason;
+  private double fine;
+  private long epochSecond;
+
+  /**
+   * Creates a parser for {@link #parse}.
+   */
+  ParkingCsvLineParser() {
+    this(null);
+  }
+
+  /**
+   * Creates a parser that can also write lines into a table with {@link #parseInto}.
+   */
+  ParkingCsvLineParser(ParkingViolationTable.Builder table) {
+    this.table = table;
+    this.descriptions = table == null ? null : new Utf8Dictionary(table::descriptionCode);
+    this.states = table == null ? null : new Utf8Dictionary(table::stateCode);
+  }
+
+  /**
+   * @param buffer the bytes holding the line
+   * @param start offset of the first byte of the line
+   * @param end offset just past the last byte of the line, excluding the terminator
+   * @return the parsed violation, or null if the line is blank or malformed
+   */
+  ParkingViolation parse(ByteBuffer buffer, int start, int end) {
+    if (!parseFields(buffer, start, end)) {
+      return null;
+    }
+    return new ParkingViolation(
+            Instant.ofEpochSecond(epochSecond),
+            fine,
+            text(buffer, 2),
+            text(buffer, 3),
+            text(buffer, 4),
+            text(buffer, 5),
+            zipCode(buffer)
+    );
+  }
+
+  /**
+   * Writes the line as one row of the table this parser was created with.
+   * Fields the table does not keep are still checked to be valid UTF-8, as {@link #parse} decodes them.
+   * @return true if the line was added, false if it is blank or malformed
+   */
+  boolean parseInto(ByteBuffer buffer, int start, int end) {
+    if (!parseFields(buffer, start, end)) {
+      return false;
+    }
+    int descriptionCode = descriptions.code(buffer, fieldStarts[2], fieldEnds[2]);
+    FieldParser.requireUtf8(buffer, fieldStarts[3], fieldEnds[3]);
+    int stateCode = states.code(buffer, fieldStarts[4], fieldEnds[4]);
+    FieldParser.requireUtf8(buffer, fieldStarts[5], fieldEnds[5]);
+    int zipCode = FieldParser.parseZipCode(buffer, fieldStarts[6], fieldEnds[6]);
+    if (!ZipCode.isValid(zipCode)) {
+      FieldParser.requireUtf8(buffer, fieldStarts[6], fieldEnds[6]);
+    }
+    table.add(epochSecond, fine, descriptionCode, stateCode, zipCode);
+    return true;
+  }
+
+  /**
+   * Splits and checks the line, leaving the field bounds, fine and epoch second for the caller.
+   * @return false if the line is blank or malformed, with the reason in {@link #skipReason}
+   */
+  private boolean parseFields(ByteBuffer buffer, int start, int end) {
+    skipReason = null;
+    // Trim the line
+    while (start < end && isWhitespace(buffer.get(start))) {
+      start++;
+    }
+    while (end > start && isWhitespace(buffer.get(end - 1))) {
+      end--;
+    }
+    // Skip empty lines
+    if (start == end) {
+      return false;
+    }
+
+    // split by comma, trimming each of the seven fields
+    int field = 0;
+    int fieldStart = start;
+    for (int i = start; i <= end; i++) {
+      if (i < end && buffer.get(i) != ',') {
+        continue;
+      }
+      if (field < FIELD_COUNT) {
+        if (!trimField(buffer, field, fieldStart, i)) {
+          // an empty field, or a missing one when the line ends early
+          skipReason = countFields(buffer, i, end, field + 1) < FIELD_COUNT
+                  ? SkipReason.FIELD_COUNT : SkipReason.MISSING_FIELD;
+          return false;
+        }
+      } else if (i > fieldStart) {
+        // an eighth non-empty field: String.split would have produced more than seven parts
+        skipReason = SkipReason.FIELD_COUNT;
+        return false;
+      }
+      field++;
+      fieldStart = i + 1;
+    }
+    if (field < FIELD_COUNT) {
+      skipReason = SkipReason.FIELD_COUNT;
+      return false;
+    }
+
+    // try to parse the fine and timestamp, otherwise skip
+    try {
+      // Validate fine is non-negative
+      fine = FieldParser.parseDouble(buffer, fieldStarts[1], fieldEnds[1]);
+      if (fine < 0) {
+        skipReason = SkipReason.NEGATIVE_NUMBER;
+        return false;
+      }
+
+      epochSecond = FieldParser.parseEpochSecond(buffer, fieldStarts[0], fieldEnds[0]);
+      return true;
+    } catch (NumberFormatException e) {
+      // Skip invalid number format
+      skipReason = SkipReason.INVALID_NUMBER;
+      return false;
+    } catch (DateTimeException e) {
+      // Skip invalid date format
+      skipReason = SkipReason.INVALID_TIMESTAMP;
+      return false;
+    }
+  }
+
+  /**
+   * @return why the last call to parse or parseInto rejected its line, or null if it parsed a row or the
+   *         line was blank
+   */
+  SkipReason getSkipReason() {
+    return skipReason;
+  }
+
+  /**
+   * @return the number of fields the line would have, given {@code fields} fields before {@code from}
+   */
+  private static int countFields(ByteBuffer buffer, int from, int end, int fields) {
+    for (int i = from; i < end; i++) {
+      if (buffer.get(i) == ',') {
+        fields++;
+      }
+    }
+    return fields;
+  }
+
+  /**
+   * Records the trimmed bounds of a field.
+   * @return false if the field is empty after trimming
+   */
+  private boolean trimField(ByteBuffer buffer, int field, int start, int end) {
+    while (start < end && isWhitespace(buffer.get(start))) {
+      start++;
+    }
+    while (end > start && isWhitespace(buffer.get(end - 1))) {
+      end--;
+    }
+    fieldStarts[field] = start;
+    fieldEnds[field] = end;
+    return start < end;
+  }
+
+  private String text(ByteBuffer buffer, int field) {
+    return FieldParser.utf8(buffer, fieldStarts[field], fieldEnds[field]);
+  }
+
+  /**
+   * 5-digit ZIP Codes share one canonical String per value; anything else is decoded as is.
+   */
+  private String zipCode(ByteBuffer buffer) {
+    int zipCode = FieldParser.parseZipCode(buffer, fieldStarts[6], fieldEnds[6]);
+    if (ZipCode.isValid(zipCode)) {
+      return ZipCode.format(zipCode);
+    }
+    return text(buffer, 6);
+  }
+
+  /**
+   * Same definition as String.trim(): any character up to and including the space.
+   */
+  private static boolean isWhitespace(byte b) {
+    return (b & 0xff) <= ' ';
+  }
+}
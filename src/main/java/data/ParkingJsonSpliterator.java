@@ -0,0 +1,257 @@
+package data;
+
+import common.ParkingViolation;
+import data.JsonPullParser.Token;
+import metrics.Metrics;
+import metrics.ReaderMetrics;
+import metrics.SkipReason;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Walks the top-level array of a parking JSON file one object at a time, writing the seven known
+ * fields straight into a ParkingViolation without building an intermediate map per row.
+ * Rows are skipped under the same rules the json-simple based reader applied.
+ */
+final class ParkingJsonSpliterator extends Spliterators.AbstractSpliterator<ParkingViolation> {
+
+  private static final int TICKET_NUMBER = 0;
+  private static final int PLATE_ID = 1;
+  private static final int DATE = 2;
+  private static final int ZIP_CODE = 3;
+  private static final int VIOLATION = 4;
+  private static final int FINE = 5;
+  private static final int STATE = 6;
+  private static final String[] FIELD_NAMES = {
+          "ticket_number", "plate_id", "date", "zip_code", "violation", "fine", "state"
+  };
+
+  static final ReaderMetrics METRICS = Metrics.reader("parking_json");
+
+  private final JsonPullParser parser;
+  private final String fileName;
+  private final ReaderMetrics.Load load;
+  private final String[] values = new String[FIELD_NAMES.length];
+  private final boolean[] present = new boolean[FIELD_NAMES.length];
+  private double numericFine;
+  private boolean fineIsNumber;
+  private boolean finished;
+  private int skipped;
+  private SkipReason skipReason;
+
+  /**
+   * @param parser a parser positioned just after the BEGIN_ARRAY of the top-level array
+   * @param load counts the accepted and skipped rows of the file
+   */
+  ParkingJsonSpliterator(JsonPullParser parser, String fileName, ReaderMetrics.Load load) {
+    super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+    this.parser = parser;
+    this.fileName = fileName;
+    this.load = load;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super ParkingViolation> action) {
+    try {
+      while (!finished) {
+        Token token = parser.next();
+        if (token == Token.END_ARRAY) {
+          finished = true;
+          // json-simple rejected anything after the array, so the rest of the file must be empty
+          if (parser.next() != Token.END_DOCUMENT) {
+            throw new RuntimeException("Error parsing JSON file: " + fileName);
+          }
+          return false;
+        }
+        // Type safety check: every element must be an object
+        if (token != Token.BEGIN_OBJECT) {
+          if (token == Token.BEGIN_ARRAY) {
+            parser.skipContainer();
+          }
+          skipped++;
+          load.rowSkipped(SkipReason.NOT_AN_OBJECT);
+          continue;
+        }
+        ParkingViolation violation = readObject();
+        if (violation == null) {
+          skipped++;
+          load.rowSkipped(skipReason);
+          continue;
+        }
+        load.rowAccepted();
+        action.accept(violation);
+        return true;
+      }
+      return false;
+    } catch (JsonPullParser.SyntaxException e) {
+      throw new RuntimeException("Error parsing JSON file: " + fileName, e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @return the number of array elements skipped so far because they were malformed
+   */
+  int getSkipped() {
+    return skipped;
+  }
+
+  /**
+   * Reads the fields of one object. The parser is positioned after its BEGIN_OBJECT.
+   * @return the violation, or null if a field is missing, null, empty or invalid
+   */
+  private ParkingViolation readObject() throws IOException {
+    for (int i = 0; i < FIELD_NAMES.length; i++) {
+      values[i] = null;
+      present[i] = false;
+    }
+    fineIsNumber = false;
+    Token token;
+    while ((token = parser.next()) == Token.NAME) {
+      int field = fieldIndex();
+      Token valueToken = parser.next();
+      if (field == FINE) {
+        fineIsNumber = valueToken == Token.NUMBER;
+      }
+      if (field == FINE && fineIsNumber) {
+        // numeric fines are converted straight from the token text
+        present[FINE] = true;
+        values[FINE] = "";
+        numericFine = parseNumber(parser.text());
+        continue;
+      }
+      String value = scalarText(valueToken);
+      // later duplicates win, as they did in the map-based reader
+      if (field >= 0) {
+        present[field] = true;
+        values[field] = value;
+      }
+    }
+    if (token != Token.END_OBJECT) {
+      throw new IllegalStateException("Unexpected token " + token);
+    }
+
+    // skip missing or null data
+    skipReason = SkipReason.MISSING_FIELD;
+    for (int i = 0; i < FIELD_NAMES.length; i++) {
+      if (!present[i] || values[i] == null) {
+        return null;
+      }
+      if (i == FINE && fineIsNumber) {
+        continue;
+      }
+      values[i] = values[i].trim();
+      // Validate non-empty strings
+      if (values[i].isEmpty()) {
+        return null;
+      }
+    }
+
+    // try to parse the data into a ParkingViolation instance, otherwise skip
+    try {
+      // Parse and validate fine
+      skipReason = SkipReason.INVALID_NUMBER;
+      double fine = fineIsNumber ? numericFine : Double.parseDouble(values[FINE]);
+      if (fine < 0) {
+        skipReason = SkipReason.NEGATIVE_NUMBER;
+        return null;
+      }
+
+      skipReason = SkipReason.INVALID_TIMESTAMP;
+      Instant timestamp = Instant.parse(values[DATE]);
+
+      return new ParkingViolation(
+              timestamp,
+              fine,
+              values[VIOLATION],
+              values[PLATE_ID],
+              values[STATE],
+              values[TICKET_NUMBER],
+              values[ZIP_CODE]
+      );
+    } catch (NumberFormatException e) {
+      return null;
+    } catch (java.time.format.DateTimeParseException e) {
+      return null;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private int fieldIndex() {
+    for (int i = 0; i < FIELD_NAMES.length; i++) {
+      if (parser.textEquals(FIELD_NAMES[i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Renders a scalar value as text. Nested arrays and objects are skipped and, like JSON null,
+   * yield null so that the row is rejected.
+   */
+  private String scalarText(Token token) throws IOException {
+    switch (token) {
+      case STRING:
+        return parser.textAsString();
+      case NUMBER:
+        return numberText(parser.text());
+      case TRUE:
+        return "true";
+      case FALSE:
+        return "false";
+      case BEGIN_ARRAY:
+      case BEGIN_OBJECT:
+        parser.skipContainer();
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Renders a JSON number the way json-simple did: integers as longs, anything else as a double.
+   * The JSON grammar rules out leading zeros, so an integer's text is already its canonical form.
+   */
+  private static String numberText(CharSequence number) {
+    if (isInteger(number)) {
+      return "-0".contentEquals(number) ? "0" : number.toString();
+    }
+    return Double.toString(Double.parseDouble(number.toString()));
+  }
+
+  /**
+   * Converts a JSON number to a double, accumulating short integers directly from the digits.
+   */
+  private static double parseNumber(CharSequence number) {
+    int length = number.length();
+    boolean negative = number.charAt(0) == '-';
+    int start = negative ? 1 : 0;
+    // up to 15 digits are exactly representable, so the result matches Double.parseDouble
+    if (length - start <= 15 && isInteger(number)) {
+      long value = 0;
+      for (int i = start; i < length; i++) {
+        value = value * 10 + (number.charAt(i) - '0');
+      }
+      return negative ? -value : value;
+    }
+    return Double.parseDouble(number.toString());
+  }
+
+  private static boolean isInteger(CharSequence number) {
+    for (int i = 0; i < number.length(); i++) {
+      char c = number.charAt(i);
+      if (c == '.' || c == 'e' || c == 'E') {
+        return false;
+      }
+    }
+    return true;
+  }
+}
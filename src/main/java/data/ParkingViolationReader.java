@@ -6,32 +6,50 @@ Defensive programming has been used to ensure the program is robust and can hand
 package data;
 
 import common.ParkingViolation;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
+import common.ParkingViolationTable;
+import metrics.ReaderMetrics;
 
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 public class ParkingViolationReader {
+
+  /** CSV files at least this large are parsed in parallel when more than one core is available. */
+  static final long PARALLEL_CSV_THRESHOLD_BYTES = 64L * 1024 * 1024;
+
   public static List<ParkingViolation> readJsonFile(String fileName) {
+    try (Stream<ParkingViolation> violations = streamJsonFile(fileName)) {
+      return violations.collect(Collectors.toCollection(ArrayList::new));
+    } catch (UncheckedIOException e) {
+      throw new RuntimeException("Error reading file: " + fileName, e.getCause());
+    }
+  }
+
+  /**
+   * Lazily reads parking violations from a JSON file containing a top-level array of objects.
+   * Objects are tokenized one at a time, so memory does not grow with the size of the array.
+   * Malformed, missing, or wrongly typed entries are skipped. The returned stream must be closed.
+   * @param fileName the path to the JSON file (must exist and be readable)
+   * @return a sequential stream of the valid parking violations in file order
+   * @throws IllegalArgumentException if the file name is null/empty, the file is missing/unreadable,
+   *         or the file does not contain a JSON array
+   * @throws RuntimeException if the file cannot be read or is not valid JSON
+   */
+  public static Stream<ParkingViolation> streamJsonFile(String fileName) {
     // Input validation
     if (fileName == null || fileName.trim().isEmpty()) {
       throw new IllegalArgumentException("File name cannot be null or empty");
     }
 
-    ArrayList<ParkingViolation> parkingViolations = new ArrayList<>();
-    JSONArray jsonArray;
-    int skip = 0;
-
     // Validate file exists and is readable
     Path filePath = Paths.get(fileName);
     if (!Files.exists(filePath)) {
@@ -41,129 +59,115 @@ public class ParkingViolationReader {
       throw new IllegalArgumentException("File is not readable: " + fileName);
     }
 
-    // read the file with proper resource management
-    try (FileReader fileReader = new FileReader(fileName)) {
-      Object obj = new JSONParser().parse(fileReader);
-      
+    ReaderMetrics.Load load = ParkingJsonSpliterator.METRICS.startLoad(fileName, "json");
+    JsonPullParser parser = null;
+    try {
+      parser = new JsonPullParser(Files.newBufferedReader(filePath));
+      load.bytesRead(Files.size(filePath));
+
       // Type safety check
-      if (!(obj instanceof JSONArray)) {
+      if (parser.next() != JsonPullParser.Token.BEGIN_ARRAY) {
         throw new IllegalArgumentException("JSON file does not contain a JSON array");
       }
-      
-      jsonArray = (JSONArray) obj;
-      
-      // Null check
-      if (jsonArray == null) {
-        return parkingViolations; // Return empty list if array is null
-      }
+
+      JsonPullParser openParser = parser;
+      return StreamSupport.stream(new ParkingJsonSpliterator(parser, fileName, load), false)
+              .onClose(() -> {
+                ReaderSupport.closeUnchecked(openParser);
+                load.finish();
+              });
+    } catch (JsonPullParser.SyntaxException e) {
+      ReaderSupport.closeAfterFailure(parser);
+      throw new RuntimeException("Error parsing JSON file: " + fileName, e);
     } catch (IOException e) {
+      ReaderSupport.closeAfterFailure(parser);
       throw new RuntimeException("Error reading file: " + fileName, e);
-    } catch (ParseException e) {
-      throw new RuntimeException("Error parsing JSON file: " + fileName, e);
+    } catch (RuntimeException e) {
+      ReaderSupport.closeAfterFailure(parser);
+      throw e;
     }
+  }
 
-    // Check for malformed, missing, or wrong type of data
-    for (Object obj : jsonArray) {
-      // Type safety check
-      if (!(obj instanceof JSONObject)) {
-        skip++;
-        continue;
-      }
-      
-      JSONObject jsonObject = (JSONObject) obj;
-      
-      // Null check
-      if (jsonObject == null) {
-        skip++;
-        continue;
-      }
-
-      // skip missing data
-      if (jsonObject.size() < 7
-              || !jsonObject.containsKey("ticket_number")
-              || !jsonObject.containsKey("plate_id")
-              || !jsonObject.containsKey("date")
-              || !jsonObject.containsKey("zip_code")
-              || !jsonObject.containsKey("violation")
-              || !jsonObject.containsKey("fine")
-              || !jsonObject.containsKey("state")) {
-        skip++;
-        continue;
-      }
-
-      // Validate that values are not null before calling toString()
-      Object dateObj = jsonObject.get("date");
-      Object fineObj = jsonObject.get("fine");
-      Object violationObj = jsonObject.get("violation");
-      Object plateIdObj = jsonObject.get("plate_id");
-      Object stateObj = jsonObject.get("state");
-      Object ticketNumberObj = jsonObject.get("ticket_number");
-      Object zipCodeObj = jsonObject.get("zip_code");
-
-      if (dateObj == null || fineObj == null || violationObj == null
-              || plateIdObj == null || stateObj == null
-              || ticketNumberObj == null || zipCodeObj == null) {
-        skip++;
-        continue;
-      }
+  public static List<ParkingViolation> readCsvFile(String fileName) {
+    try (Stream<ParkingViolation> violations = streamCsvFile(fileName)) {
+      return violations.collect(Collectors.toCollection(ArrayList::new));
+    } catch (UncheckedIOException e) {
+      throw new RuntimeException("Error reading file: " + fileName, e.getCause());
+    }
+  }
 
-      // try to parse the data into a ParkingViolation instance, otherwise skip
-      try {
-        String dateStr = dateObj.toString().trim();
-        String fineStr = fineObj.toString().trim();
-        String violationStr = violationObj.toString().trim();
-        String plateIdStr = plateIdObj.toString().trim();
-        String stateStr = stateObj.toString().trim();
-        String ticketNumberStr = ticketNumberObj.toString().trim();
-        String zipCodeStr = zipCodeObj.toString().trim();
+  /**
+   * Reads parking violations from a CSV file on {@code parallelism} threads.
+   * The result is identical to {@link #readCsvFile(String)}, in the same order.
+   */
+  public static List<ParkingViolation> readCsvFile(String fileName, int parallelism) {
+    try (Stream<ParkingViolation> violations = streamCsvFile(fileName, parallelism)) {
+      return violations.collect(Collectors.toCollection(ArrayList::new));
+    } catch (UncheckedIOException e) {
+      throw new RuntimeException("Error reading file: " + fileName, e.getCause());
+    }
+  }
 
-        // Validate non-empty strings
-        if (dateStr.isEmpty() || fineStr.isEmpty() || violationStr.isEmpty()
-                || plateIdStr.isEmpty() || stateStr.isEmpty()
-                || ticketNumberStr.isEmpty() || zipCodeStr.isEmpty()) {
-          skip++;
-          continue;
-        }
+  /**
+   * Lazily reads parking violations from a CSV file, one line-aligned block at a time.
+   * The file is memory-mapped and each line is parsed straight from its bytes, so memory stays bounded
+   * by the block size; malformed rows are skipped exactly as in readCsvFile.
+   * The returned stream must be closed to release the underlying file.
+   * @param fileName the path to the CSV file (must exist and be readable)
+   * @return a sequential stream of the valid parking violations in file order
+   * @throws IllegalArgumentException if the file name is null/empty or the file is missing/unreadable
+   * @throws RuntimeException if the file cannot be opened
+   */
+  public static Stream<ParkingViolation> streamCsvFile(String fileName) {
+    return streamCsvFile(fileName, 1);
+  }
 
-        // Parse and validate fine
-        double fine = Double.parseDouble(fineStr);
-        if (fine < 0) {
-          skip++;
-          continue;
-        }
+  /**
+   * Parallel variant of {@link #streamCsvFile(String)}. The line-aligned byte ranges are parsed on a
+   * ForkJoinPool of {@code parallelism} workers; violations are still emitted in file order.
+   * With a parallelism of 1 this is the sequential reader.
+   * The returned stream must be closed to stop the workers and release the file.
+   * @param fileName the path to the CSV file (must exist and be readable)
+   * @param parallelism the number of parsing threads (at least 1)
+   * @return a sequential, ordered stream of the valid parking violations
+   */
+  public static Stream<ParkingViolation> streamCsvFile(String fileName, int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be at least 1");
+    }
+    Path filePath = readableCsvFile(fileName);
+    try {
+      return ChunkedCsvReader.stream(filePath, parallelism);
+    } catch (IOException e) {
+      throw new RuntimeException("Error reading file: " + fileName, e);
+    }
+  }
 
-        Instant timestamp = Instant.parse(dateStr);
-        
-        ParkingViolation pv = new ParkingViolation(
-                timestamp,
-                fine,
-                violationStr,
-                plateIdStr,
-                stateStr,
-                ticketNumberStr,
-                zipCodeStr
-        );
-        parkingViolations.add(pv);
-      } catch (NumberFormatException e) {
-        skip++;
-      } catch (java.time.format.DateTimeParseException e) {
-        skip++;
-      } catch (IllegalArgumentException e) {
-        skip++;
-      }
+  /**
+   * Reads a parking CSV file straight into a columnar table: each line is parsed from its bytes into
+   * the table's columns, without a ParkingViolation or String per row. Large files are parsed in
+   * parallel, as with {@link #streamFile(String)}. The rows are those of {@link #streamCsvFile(String)}.
+   * @param fileName the path to the CSV file (must exist and be readable)
+   * @throws IllegalArgumentException if the file name is null/empty or the file is missing/unreadable
+   * @throws RuntimeException if the file cannot be read
+   */
+  public static ParkingViolationTable readCsvTable(String fileName) {
+    Path filePath = readableCsvFile(fileName);
+    try {
+      return ChunkedCsvReader.readTable(filePath, csvParallelism(fileName));
+    } catch (IOException e) {
+      throw new RuntimeException("Error reading file: " + fileName, e);
+    } catch (UncheckedIOException e) {
+      throw new RuntimeException("Error reading file: " + fileName, e.getCause());
     }
-//    System.out.println(skip);
-    return parkingViolations;
   }
 
-  public static List<ParkingViolation> readCsvFile(String fileName) {
+  private static Path readableCsvFile(String fileName) {
     // Input validation
     if (fileName == null || fileName.trim().isEmpty()) {
       throw new IllegalArgumentException("File name cannot be null or empty");
     }
 
-    ArrayList<ParkingViolation> parkingViolations = new ArrayList<>();
-    
     // Validate file exists and is readable
     Path filePath = Paths.get(fileName);
     if (!Files.exists(filePath)) {
@@ -172,84 +176,7 @@ public class ParkingViolationReader {
     if (!Files.isReadable(filePath)) {
       throw new IllegalArgumentException("File is not readable: " + fileName);
     }
-
-    // read the file
-    try {
-      List<String> lines = Files.readAllLines(filePath);
-      
-      // Handle empty file
-      if (lines == null || lines.isEmpty()) {
-        return parkingViolations;
-      }
-
-      for (String line : lines) {
-        // Skip empty lines
-        if (line == null || line.trim().isEmpty()) {
-          continue;
-        }
-
-        // Trim the line and split by comma
-        String trimmedLine = line.trim();
-        String[] parts = trimmedLine.split(",");
-
-        if (parts.length != 7) {
-          continue;
-        }
-
-        // Trim each part and validate non-empty
-        String[] trimmedParts = new String[7];
-        boolean hasEmptyField = false;
-        for (int i = 0; i < 7; i++) {
-          if (parts[i] == null) {
-            hasEmptyField = true;
-            break;
-          }
-          trimmedParts[i] = parts[i].trim();
-          if (trimmedParts[i].isEmpty()) {
-            hasEmptyField = true;
-            break;
-          }
-        }
-
-        if (hasEmptyField) {
-          continue;
-        }
-
-        // try to parse the data into a ParkingViolation instance, otherwise skip
-        try {
-          // Validate fine is non-negative
-          double fine = Double.parseDouble(trimmedParts[1]);
-          if (fine < 0) {
-            continue;
-          }
-
-          Instant timestamp = Instant.parse(trimmedParts[0]);
-          
-          ParkingViolation pv = new ParkingViolation(
-                  timestamp,
-                  fine,
-                  trimmedParts[2],
-                  trimmedParts[3],
-                  trimmedParts[4],
-                  trimmedParts[5],
-                  trimmedParts[6]
-          );
-          parkingViolations.add(pv);
-        } catch (NumberFormatException e) {
-          // Skip invalid number format
-          continue;
-        } catch (java.time.format.DateTimeParseException e) {
-          // Skip invalid date format
-          continue;
-        } catch (IllegalArgumentException e) {
-          // Skip other validation errors
-          continue;
-        }
-      }
-    } catch (IOException e) {
-      throw new RuntimeException("Error reading file: " + fileName, e);
-    }
-    return parkingViolations;
+    return filePath;
   }
 
   /**
@@ -263,12 +190,27 @@ public class ParkingViolationReader {
     if (lowerFileName.endsWith(".json")) {
       return new JsonReadingStrategy();
     } else if (lowerFileName.endsWith(".csv")) {
-      return new CsvReadingStrategy();
+      return new CsvReadingStrategy(csvParallelism(fileName));
     } else {
       throw new IllegalArgumentException("Unsupported file format. Only .json or .csv are allowed.");
     }
   }
 
+  /**
+   * Large CSV files are parsed on every available core; small ones are not worth the thread start-up.
+   */
+  private static int csvParallelism(String fileName) {
+    int cores = Runtime.getRuntime().availableProcessors();
+    try {
+      if (cores > 1 && Files.size(Paths.get(fileName)) >= PARALLEL_CSV_THRESHOLD_BYTES) {
+        return cores;
+      }
+    } catch (IOException | RuntimeException e) {
+      // let the reader report the missing or unreadable file
+    }
+    return 1;
+  }
+
   /**
    * Reads file using Strategy pattern.
    */
@@ -276,6 +218,26 @@ public class ParkingViolationReader {
     return getStrategy(fileName).read(fileName);
   }
 
+  /**
+   * Streams file using Strategy pattern. The returned stream must be closed.
+   */
+  public static Stream<ParkingViolation> streamFile(String fileName) {
+    return getStrategy(fileName).stream(fileName);
+  }
+
+  /**
+   * Reads a parking file, CSV or JSON by extension, into a columnar table. CSV files are parsed straight
+   * into the columns by {@link #readCsvTable(String)}; JSON files are collected from {@link #streamFile(String)}.
+   */
+  public static ParkingViolationTable readTable(String fileName) {
+    if (fileName != null && fileName.toLowerCase().endsWith(".csv")) {
+      return readCsvTable(fileName);
+    }
+    try (Stream<ParkingViolation> parkingViolations = streamFile(fileName)) {
+      return ParkingViolationTable.build(parkingViolations);
+    }
+  }
+
   public static void main(String[] args) {
     // System.out.println(readCsvFile("parking.csv"));
     // System.out.println(readJsonFile("parking.json"));
@@ -1,15 +1,25 @@
 package data;
 
 import common.Population;
+import metrics.Metrics;
+import metrics.ReaderMetrics;
+import metrics.SkipReason;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class PopulationReader {
 
+  private static final ReaderMetrics METRICS = Metrics.reader("population");
+
   /**
    * Parses a string to the population Integer. Returns null if invalid (0 is allowed).
    */
@@ -55,49 +65,83 @@ public class PopulationReader {
    */
 
   public static List<Population> readPopulationFile(String fileName) {
+    try (Stream<Population> populations = streamPopulationFile(fileName)) {
+      return populations.collect(Collectors.toCollection(ArrayList::new));
+    } catch (UncheckedIOException e) {
+      throw new RuntimeException("Error reading file: " + fileName, e.getCause());
+    }
+  }
+
+  /**
+   * Lazily reads population data, one line at a time. The returned stream must be closed.
+   * @param fileName the path to the population file (must not be null or empty)
+   * @return a sequential stream of Population objects in file order
+   * @throws IllegalArgumentException if file name is null/empty
+   * @throws RuntimeException if the file cannot be opened
+   */
+  public static Stream<Population> streamPopulationFile(String fileName) {
     if (fileName == null || fileName.trim().isEmpty()) {
       throw new IllegalArgumentException("File name cannot be null or empty");
     }
 
-    ArrayList<Population> populations = new ArrayList<>();
-
+    ReaderMetrics.Load load = METRICS.startLoad(fileName, "txt");
+    BufferedReader reader = null;
     try {
-      List<String> lines = Files.readAllLines(Paths.get(fileName));
-
-      if (lines == null || lines.isEmpty()) {
-        return populations;
-      }
-      // Skip null/blank lines
-      for (String line : lines) {
-        if (line == null) {
-          continue;
-        }
-        String trimmedLine = line.trim();
-        if (trimmedLine.isEmpty()) {
-          continue;
-        }
-
-        // split with whitespace characters
-        String[] parts = trimmedLine.split("\\s+");
-        if (parts.length < 2) {
-          continue; //skip this malformed line
-        }
-
-        String zipCode = normalizeZipCode(parts[0]);
-        Integer populationValue = parseIntSafely(parts[1]);
-        // skip when invalid ZIP Code or population
-        if (zipCode == null || populationValue == null) {
-          continue;
-        }
-
-        Population p = new Population(zipCode, populationValue);
-        populations.add(p);
-      }
+      reader = Files.newBufferedReader(Paths.get(fileName));
+      load.bytesRead(Files.size(Paths.get(fileName)));
+      BufferedReader opened = reader;
+      return reader.lines()
+              .map(line -> parseLine(line, load))
+              .filter(Objects::nonNull)
+              .onClose(() -> {
+                ReaderSupport.closeUnchecked(opened);
+                load.finish();
+              });
     } catch (IOException e) {
+      ReaderSupport.closeAfterFailure(reader);
+      load.finish();
       throw new RuntimeException("Error reading file: " + fileName, e);
+    } catch (RuntimeException e) {
+      ReaderSupport.closeAfterFailure(reader);
+      load.finish();
+      throw e;
+    }
+  }
+
+  /**
+   * Parses one "zip population" line. Returns null for blank or malformed lines
+   */
+  private static Population parseLine(String line, ReaderMetrics.Load load) {
+    // Skip null/blank lines
+    if (line == null) {
+      return null;
+    }
+    String trimmedLine = line.trim();
+    if (trimmedLine.isEmpty()) {
+      return null;
+    }
+
+    // split with whitespace characters
+    String[] parts = trimmedLine.split("\\s+");
+    if (parts.length < 2) {
+      load.rowSkipped(SkipReason.FIELD_COUNT);
+      return null; //skip this malformed line
+    }
+
+    String zipCode = normalizeZipCode(parts[0]);
+    Integer populationValue = parseIntSafely(parts[1]);
+    // skip when invalid ZIP Code or population
+    if (zipCode == null) {
+      load.rowSkipped(SkipReason.MISSING_FIELD);
+      return null;
+    }
+    if (populationValue == null) {
+      load.rowSkipped(parts[1].matches("-\\d+") ? SkipReason.NEGATIVE_NUMBER : SkipReason.INVALID_NUMBER);
+      return null;
     }
 
-    return populations;
+    load.rowAccepted();
+    return new Population(zipCode, populationValue);
   }
 
 // test run (should output 1526206!):
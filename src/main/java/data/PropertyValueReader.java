@@ -1,14 +1,27 @@
 package data;
 
 import common.PropertyValue;
+import common.PropertyValueTable;
+import common.ZipCode;
+import metrics.Metrics;
+import metrics.ReaderMetrics;
+import metrics.SkipReason;
 
+import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class PropertyValueReader {
+
+  private static final ReaderMetrics METRICS = Metrics.reader("property_csv");
   
   /**
    * Parses a string to a Double, returning null if invalid
@@ -42,6 +55,30 @@ public class PropertyValueReader {
     return trimmed;
   }
 
+  /**
+   * Parses the first 5 characters of a trimmed ZIP Code field to an int key, without a substring.
+   * A field shorter than five characters has no key, so its row is left out of the per-ZIP queries
+   * (see {@link ZipCode}).
+   * @return the ZIP Code, or ZipCode.NONE if the field does not start with five digits
+   */
+  private static int parseZipCode(String zipCode) {
+    if (zipCode == null) {
+      return ZipCode.NONE;
+    }
+    int start = 0;
+    int end = zipCode.length();
+    while (start < end && zipCode.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && zipCode.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    if (end - start < 5) {
+      return ZipCode.NONE;
+    }
+    return ZipCode.parse(zipCode, start, start + 5);
+  }
+
   /**
    * Finds the index of a column in the header array
    * Returns -1 if not found
@@ -67,48 +104,163 @@ public class PropertyValueReader {
    * @throws RuntimeException if the file cannot be read or required columns are missing
    */
   public static List<PropertyValue> readCsvFile(String fileName) {
-    if (fileName == null || fileName.trim().isEmpty()) {
-      throw new IllegalArgumentException("File name cannot be null or empty");
+    try (Stream<PropertyValue> propertyValues = streamCsvFile(fileName)) {
+      return propertyValues.collect(Collectors.toCollection(ArrayList::new));
+    } catch (UncheckedIOException e) {
+      throw new RuntimeException("Error reading file: " + fileName, e.getCause());
     }
-    
-    ArrayList<PropertyValue> propertyValues = new ArrayList<>();
-    
-    try {
-      List<String> lines = Files.readAllLines(Paths.get(fileName));
-      
-      if (lines.isEmpty()) {
-        return propertyValues;
+  }
+
+  /**
+   * Reads property values from a CSV file straight into a columnar table, without creating a
+   * PropertyValue per row. Missing or invalid values become NaN, exactly where readCsvFile yields null.
+   * @param fileName the path to the CSV file (must not be null or empty)
+   * @return the property values in file order
+   * @throws IllegalArgumentException if fileName is null or empty
+   * @throws RuntimeException if the file cannot be read or required columns are missing
+   */
+  public static PropertyValueTable readTable(String fileName) {
+    PropertyValueTable.Builder builder = new PropertyValueTable.Builder();
+    try (CsvRows rows = CsvRows.open(fileName)) {
+      if (rows == null) {
+        return builder.build();
+      }
+      String line;
+      while ((line = rows.reader.readLine()) != null) {
+        parseCsvLine(line, rows, (marketValue, totalLivableArea, zipCode) -> builder.add(
+                orNaN(marketValue), orNaN(totalLivableArea), parseZipCode(zipCode)));
       }
+      return builder.build();
+    } catch (IOException e) {
+      throw new RuntimeException("Error reading file: " + fileName, e);
+    }
+  }
 
-      String headerLine = lines.get(0);
-      String[] headers = headerLine.split(",");
-      
-      int marketValueIndex = findColumnIndex(headers, "market_value");
-      int totalLivableAreaIndex = findColumnIndex(headers, "total_livable_area");
-      int zipCodeIndex = findColumnIndex(headers, "zip_code");
+  /**
+   * Lazily reads property values from a CSV file, one line at a time.
+   * The header is read eagerly so that missing columns are reported before the stream is returned.
+   * The returned stream must be closed to release the underlying file.
+   * @param fileName the path to the CSV file (must not be null or empty)
+   * @return a sequential stream of PropertyValue objects in file order
+   * @throws IllegalArgumentException if fileName is null or empty
+   * @throws RuntimeException if the file cannot be read or required columns are missing
+   */
+  public static Stream<PropertyValue> streamCsvFile(String fileName) {
+    CsvRows rows = CsvRows.open(fileName);
+    if (rows == null) {
+      return Stream.empty();
+    }
+    return rows.reader.lines()
+            .map(line -> parseCsvLine(line, rows, (marketValue, totalLivableArea, zipCode) ->
+                    new PropertyValue(marketValue, totalLivableArea, extractZipCode(zipCode))))
+            .filter(Objects::nonNull)
+            .onClose(() -> ReaderSupport.closeUnchecked(rows));
+  }
+
+  /**
+   * Parses one data row, for both the list and the table readers, so they share one set of skip rules.
+   * @param row builds the reader's result from the parsed values and the raw ZIP Code field
+   * @return the row's result, or null if the row has too few columns
+   */
+  private static <T> T parseCsvLine(String line, CsvRows rows, RowFactory<T> row) {
+    String[] parts = line.split(",");
+
+    if (parts.length <= rows.lastRequiredIndex) {
+      rows.load.rowSkipped(SkipReason.FIELD_COUNT);
+      return null;
+    }
 
-      if (marketValueIndex == -1 || totalLivableAreaIndex == -1 || zipCodeIndex == -1) {
-        throw new RuntimeException("Required columns not found in CSV header");
+    rows.load.rowAccepted();
+    return row.create(parseDoubleSafely(parts[rows.marketValueIndex]),
+            parseDoubleSafely(parts[rows.totalLivableAreaIndex]), parts[rows.zipCodeIndex]);
+  }
+
+  private static double orNaN(Double value) {
+    return value == null ? Double.NaN : value;
+  }
+
+  /**
+   * Builds a reader's result from the fields of one accepted row.
+   */
+  @FunctionalInterface
+  private interface RowFactory<T> {
+    /**
+     * @param marketValue the market value, or null if missing or invalid
+     * @param totalLivableArea the total livable area, or null if missing or invalid
+     * @param zipCode the untrimmed ZIP Code field
+     */
+    T create(Double marketValue, Double totalLivableArea, String zipCode);
+  }
+
+  /**
+   * An open property CSV file positioned after its header, with the required column positions.
+   */
+  private static final class CsvRows implements Closeable {
+    private final BufferedReader reader;
+    private final int marketValueIndex;
+    private final int totalLivableAreaIndex;
+    private final int zipCodeIndex;
+    private final int lastRequiredIndex;
+    private final ReaderMetrics.Load load;
+
+    private CsvRows(BufferedReader reader, int marketValueIndex, int totalLivableAreaIndex, int zipCodeIndex,
+                    ReaderMetrics.Load load) {
+      this.reader = reader;
+      this.load = load;
+      this.marketValueIndex = marketValueIndex;
+      this.totalLivableAreaIndex = totalLivableAreaIndex;
+      this.zipCodeIndex = zipCodeIndex;
+      this.lastRequiredIndex = Math.max(marketValueIndex, Math.max(totalLivableAreaIndex, zipCodeIndex));
+    }
+
+    /**
+     * Opens the file and reads its header.
+     * @return the open rows, or null if the file is empty
+     */
+    static CsvRows open(String fileName) {
+      if (fileName == null || fileName.trim().isEmpty()) {
+        throw new IllegalArgumentException("File name cannot be null or empty");
       }
 
-      for (int i = 1; i < lines.size(); i++) {
-        String line = lines.get(i);
-        String[] parts = line.split(",");
+      ReaderMetrics.Load load = METRICS.startLoad(fileName, "csv");
+      BufferedReader reader = null;
+      try {
+        reader = Files.newBufferedReader(Paths.get(fileName));
+        load.bytesRead(Files.size(Paths.get(fileName)));
+        String headerLine = reader.readLine();
 
-        if (parts.length <= Math.max(marketValueIndex, Math.max(totalLivableAreaIndex, zipCodeIndex))) {
-          continue;
+        if (headerLine == null) {
+          reader.close();
+          load.finish();
+          return null;
         }
 
-        String zipCode = extractZipCode(parts[zipCodeIndex]);
-        Double marketValue = parseDoubleSafely(parts[marketValueIndex]);
-        Double totalLivableArea = parseDoubleSafely(parts[totalLivableAreaIndex]);
-        PropertyValue pv = new PropertyValue(marketValue, totalLivableArea, zipCode);
-        propertyValues.add(pv);
+        String[] headers = headerLine.split(",");
+
+        int marketValueIndex = findColumnIndex(headers, "market_value");
+        int totalLivableAreaIndex = findColumnIndex(headers, "total_livable_area");
+        int zipCodeIndex = findColumnIndex(headers, "zip_code");
+
+        if (marketValueIndex == -1 || totalLivableAreaIndex == -1 || zipCodeIndex == -1) {
+          throw new RuntimeException("Required columns not found in CSV header");
+        }
+
+        return new CsvRows(reader, marketValueIndex, totalLivableAreaIndex, zipCodeIndex, load);
+      } catch (IOException e) {
+        ReaderSupport.closeAfterFailure(reader);
+        load.finish();
+        throw new RuntimeException("Error reading file: " + fileName, e);
+      } catch (RuntimeException e) {
+        ReaderSupport.closeAfterFailure(reader);
+        load.finish();
+        throw e;
       }
-    } catch (IOException e) {
-      throw new RuntimeException("Error reading file: " + fileName, e);
     }
 
-    return propertyValues;
+    @Override
+    public void close() throws IOException {
+      reader.close();
+      load.finish();
+    }
   }
 }
@@ -0,0 +1,152 @@
+package data;
+
+import common.PropertyValueTable;
+import common.ZipCode;
+
+/**
+ * Per-ZIP aggregates over the property dataset, built in a single pass so that every
+ * ZIP-parameterized property query is answered with one array lookup instead of a full scan.
+ * Rows are folded in file order, so the sums are bit-for-bit what a per-query scan would produce.
+ * The fold runs over the primitive columns of a {@link PropertyValueTable}, without unboxing, and
+ * the aggregates are addressed directly by {@link ZipCode} key.
+ */
+public final class PropertyZipIndex {
+
+  private final ZipAggregate[] aggregatesByZipCode;
+
+  private PropertyZipIndex(ZipAggregate[] aggregatesByZipCode) {
+    this.aggregatesByZipCode = aggregatesByZipCode;
+  }
+
+  /**
+   * Builds the index in one pass over the columns of a property table.
+   * Rows without a ZIP Code are ignored; NaN values count as missing.
+   * @param propertyValues the property dataset, in file order
+   * @return the per-ZIP index
+   */
+  public static PropertyZipIndex build(PropertyValueTable propertyValues) {
+    ZipAggregate[] aggregates = new ZipAggregate[ZipCode.SPACE];
+    if (propertyValues == null) {
+      return new PropertyZipIndex(aggregates);
+    }
+    for (int row = 0; row < propertyValues.size(); row++) {
+      int zipCode = propertyValues.getZipCode(row);
+      if (!ZipCode.isValid(zipCode)) {
+        continue;
+      }
+      ZipAggregate aggregate = aggregates[zipCode];
+      if (aggregate == null) {
+        aggregate = new ZipAggregate();
+        aggregates[zipCode] = aggregate;
+      }
+      aggregate.add(propertyValues.getMarketValue(row), propertyValues.getTotalLivableArea(row));
+    }
+    return new PropertyZipIndex(aggregates);
+  }
+
+  /**
+   * @param zipCode the ZIP Code to look up
+   * @return the aggregate for the ZIP Code, or null if no property has that ZIP Code
+   */
+  public ZipAggregate get(String zipCode) {
+    return get(ZipCode.parse(zipCode));
+  }
+
+  /**
+   * @param zipCode the ZIP Code key to look up
+   * @return the aggregate for the ZIP Code, or null if no property has that ZIP Code
+   */
+  public ZipAggregate get(int zipCode) {
+    if (!ZipCode.isValid(zipCode)) {
+      return null;
+    }
+    return aggregatesByZipCode[zipCode];
+  }
+
+  /**
+   * Aggregates for the properties of one ZIP Code.
+   */
+  public static final class ZipAggregate {
+    private int propertyCount;
+    private int marketValueCount;
+    private double marketValueSum;
+    private int livableAreaCount;
+    private double livableAreaSum;
+    private double minLivableArea = Double.NaN;
+    private double maxLivableArea = Double.NaN;
+    private double marketValueSumWithArea;
+    private double positiveLivableAreaSum;
+
+    private ZipAggregate() {
+    }
+
+    private void add(double marketValue, double livableArea) {
+      boolean hasMarketValue = !Double.isNaN(marketValue);
+      boolean hasLivableArea = !Double.isNaN(livableArea);
+      propertyCount++;
+      if (hasMarketValue) {
+        marketValueCount++;
+        marketValueSum += marketValue;
+      }
+      if (hasLivableArea) {
+        livableAreaCount++;
+        livableAreaSum += livableArea;
+        if (livableAreaCount == 1 || livableArea < minLivableArea) {
+          minLivableArea = livableArea;
+        }
+        if (livableAreaCount == 1 || livableArea > maxLivableArea) {
+          maxLivableArea = livableArea;
+        }
+      }
+      if (hasMarketValue && livableArea > 0) {
+        marketValueSumWithArea += marketValue;
+        positiveLivableAreaSum += livableArea;
+      }
+    }
+
+    /** @return the number of properties folded into this aggregate */
+    public int getPropertyCount() {
+      return propertyCount;
+    }
+
+    /** @return the number of properties with a market value */
+    public int getMarketValueCount() {
+      return marketValueCount;
+    }
+
+    /** @return the total market value of properties with a market value */
+    public double getMarketValueSum() {
+      return marketValueSum;
+    }
+
+    /** @return the number of properties with a livable area */
+    public int getLivableAreaCount() {
+      return livableAreaCount;
+    }
+
+    /** @return the total livable area of properties with a livable area */
+    public double getLivableAreaSum() {
+      return livableAreaSum;
+    }
+
+    /** @return the smallest livable area, or NaN if no property has one */
+    public double getMinLivableArea() {
+      return minLivableArea;
+    }
+
+    /** @return the largest livable area, or NaN if no property has one */
+    public double getMaxLivableArea() {
+      return maxLivableArea;
+    }
+
+    /** @return the total market value of properties that also have a positive livable area */
+    public double getMarketValueSumWithArea() {
+      return marketValueSumWithArea;
+    }
+
+    /** @return the total positive livable area of properties that also have a market value */
+    public double getPositiveLivableAreaSum() {
+      return positiveLivableAreaSum;
+    }
+  }
+}
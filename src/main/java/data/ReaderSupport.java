@@ -0,0 +1,39 @@
+package data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Helpers shared by the dataset readers.
+ */
+final class ReaderSupport {
+
+  private ReaderSupport() {
+  }
+
+  /**
+   * Closes a resource from a stream's close handler, which cannot throw checked exceptions.
+   */
+  static void closeUnchecked(Closeable closeable) {
+    try {
+      closeable.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Closes a resource after a failure, keeping the original failure as the one reported.
+   */
+  static void closeAfterFailure(Closeable closeable) {
+    if (closeable == null) {
+      return;
+    }
+    try {
+      closeable.close();
+    } catch (IOException ignored) {
+      // the original failure is more useful to the caller
+    }
+  }
+}
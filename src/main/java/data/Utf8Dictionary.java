@@ -0,0 +1,94 @@
+package data;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * Maps the UTF-8 bytes of a repeated text field to a dictionary code without decoding them.
+ * The bytes are hashed and compared in place; only a value seen for the first time is decoded to a
+ * String, which is handed to the table builder to assign its code. Sized for small dictionaries such
+ * as violation descriptions and license plate states.
+ * Instances are not thread-safe.
+ */
+final class Utf8Dictionary {
+
+  private final ToIntFunction<String> assignCode;
+  private byte[][] keys = new byte[64][];
+  private int[] codes = new int[64];
+  private int count;
+
+  /**
+   * @param assignCode returns the code of a value decoded for the first time
+   */
+  Utf8Dictionary(ToIntFunction<String> assignCode) {
+    this.assignCode = assignCode;
+  }
+
+  /**
+   * @return the code of the text in {@code buffer[start, end)}
+   * @throws java.io.UncheckedIOException if the bytes are new and not valid UTF-8
+   */
+  int code(ByteBuffer buffer, int start, int end) {
+    int mask = keys.length - 1;
+    int slot = hash(buffer, start, end) & mask;
+    while (keys[slot] != null) {
+      if (matches(keys[slot], buffer, start, end)) {
+        return codes[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    int code = assignCode.applyAsInt(FieldParser.utf8(buffer, start, end));
+    byte[] key = new byte[end - start];
+    buffer.get(start, key, 0, key.length);
+    keys[slot] = key;
+    codes[slot] = code;
+    if (++count * 2 > keys.length) {
+      grow();
+    }
+    return code;
+  }
+
+  private void grow() {
+    byte[][] oldKeys = keys;
+    int[] oldCodes = codes;
+    keys = new byte[oldKeys.length * 2][];
+    codes = new int[oldKeys.length * 2];
+    int mask = keys.length - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      byte[] key = oldKeys[i];
+      if (key == null) {
+        continue;
+      }
+      int slot = Arrays.hashCode(key) & mask;
+      while (keys[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = key;
+      codes[slot] = oldCodes[i];
+    }
+  }
+
+  /**
+   * Same value as {@link Arrays#hashCode(byte[])} of the range, so stored keys rehash consistently.
+   */
+  private static int hash(ByteBuffer buffer, int start, int end) {
+    int hash = 1;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + buffer.get(i);
+    }
+    return hash;
+  }
+
+  private static boolean matches(byte[] key, ByteBuffer buffer, int start, int end) {
+    if (key.length != end - start) {
+      return false;
+    }
+    for (int i = 0; i < key.length; i++) {
+      if (key[i] != buffer.get(start + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
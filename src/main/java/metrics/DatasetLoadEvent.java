@@ -0,0 +1,43 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one input file, from opening it to closing its stream.
+ * Committed by {@link ReaderMetrics.Load#finish()}.
+ */
+@Name(DatasetLoadEvent.NAME)
+@Label("Dataset Load")
+@Category({"COOD", "Datasets"})
+@Description("An input file read from opening it to closing its stream")
+@StackTrace(false)
+public final class DatasetLoadEvent extends Event {
+
+    public static final String NAME = "cood.DatasetLoad";
+
+    @Label("Dataset")
+    @Description("The reader, e.g. parking_csv")
+    String dataset;
+
+    @Label("File")
+    String file;
+
+    @Label("Format")
+    String format;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Rows Accepted")
+    long rowsAccepted;
+
+    @Label("Rows Skipped")
+    long rowsSkipped;
+}
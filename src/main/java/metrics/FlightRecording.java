@@ -0,0 +1,64 @@
+package metrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * The continuous Flight Recorder recording of the project's events, alongside the JDK's own
+ * GC, allocation and thread events, so that pauses can be matched with the loads and queries
+ * running at the time.
+ * <p>
+ * The events are enabled by default, so a recording started with {@code -XX:StartFlightRecording}
+ * picks them up too; this class is for starting one from inside the application.
+ */
+public final class FlightRecording {
+
+    public static final String NAME = "cood-continuous";
+
+    /** How far back the recording reaches. */
+    public static final Duration MAX_AGE = Duration.ofHours(6);
+
+    /** The most disk space the recording keeps. */
+    public static final long MAX_SIZE_BYTES = 256L * 1024 * 1024;
+
+    private FlightRecording() {
+    }
+
+    /**
+     * Starts a recording with the JDK's "default" settings, which are meant for continuous use in
+     * production, plus every project event. It is kept on disk as a ring buffer bounded by
+     * {@link #MAX_AGE} and {@link #MAX_SIZE_BYTES} and written to {@code destination} when the JVM exits.
+     * @param destination the file the recording is written to
+     * @return the started recording
+     * @throws IOException if the destination cannot be written
+     * @throws IllegalStateException if Flight Recorder is not available
+     */
+    public static Recording startContinuous(Path destination) throws IOException {
+        if (destination == null) {
+            throw new IllegalArgumentException("Destination cannot be null");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration("default");
+        } catch (ParseException e) {
+            throw new IllegalStateException("Cannot read the default Flight Recorder settings", e);
+        }
+        Recording recording = new Recording(configuration);
+        recording.setName(NAME);
+        recording.enable(DatasetLoadEvent.NAME);
+        recording.enable(QueryExecutionEvent.NAME);
+        recording.enable(QueryCacheEvent.NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(MAX_AGE);
+        recording.setMaxSize(MAX_SIZE_BYTES);
+        recording.setDestination(destination);
+        recording.setDumpOnExit(true);
+        recording.start();
+        return recording;
+    }
+}
@@ -0,0 +1,117 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * A log-linear latency histogram in the style of HdrHistogram: every power of two of nanoseconds is
+ * split into {@value #SUB_BUCKETS} equal buckets, so a recorded value is kept to within 1/64 (about 1.6%)
+ * of itself at any magnitude. Recording is one atomic increment, without locks or allocation, so a
+ * histogram can be shared by every thread and left on.
+ * <p>
+ * Values of 2^{@value #MAX_EXPONENT} ns (about 18 minutes) or more share the top bucket; the maximum is
+ * tracked exactly.
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 6;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param nanos the latency of one event; negative values count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        maxNanos.accumulate(value);
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the latency at or below which the given percentage of values fall, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        return getValuesAtPercentiles(percentile)[0];
+    }
+
+    /**
+     * Looks up several percentiles from one pass over the buckets, so they are consistent with each
+     * other even while values are being recorded.
+     * @param percentiles each between 0 and 100
+     * @return the latency in nanoseconds at each percentile, reported as the highest value of its
+     *         bucket but never above the maximum; all 0 if nothing was recorded
+     * @throws IllegalArgumentException if a percentile is outside 0 to 100
+     */
+    public long[] getValuesAtPercentiles(double... percentiles) {
+        for (double percentile : percentiles) {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+            }
+        }
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        long max = getMaxNanos();
+        long[] values = new long[percentiles.length];
+        if (count == 0) {
+            return values;
+        }
+        for (int p = 0; p < percentiles.length; p++) {
+            long rank = Math.max(1, (long) Math.ceil(percentiles[p] / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    values[p] = Math.min(highestValueOf(i), max);
+                    break;
+                }
+            }
+        }
+        return values;
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        // value >>> shift keeps the top SUB_BUCKET_BITS + 1 bits, the leading one included
+        int shift = exponent - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
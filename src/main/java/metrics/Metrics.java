@@ -0,0 +1,307 @@
+package metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide registry of the reader and service metrics. The readers are static, so the
+ * registry is too; metrics are created on first use and live for the life of the process.
+ * <p>
+ * The metrics are published two ways: as the {@link MetricsMXBean} registered by
+ * {@link #registerMBean()}, and as Prometheus text from {@link #writePrometheus(Appendable)}.
+ * Durations are reported in seconds, as Prometheus summaries plus a max gauge. The summary quantiles
+ * come from each timer's {@link LatencyHistogram} and cover the life of the process.
+ * <p>
+ * {@link #writeLatencyReport(Appendable)} prints the same percentiles as a table for people.
+ */
+public final class Metrics {
+
+    public static final String OBJECT_NAME = "cood:type=Metrics";
+
+    private static final ConcurrentMap<String, ReaderMetrics> READERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Timer> SERVICE_TIMERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Timer> UI_TIMERS = new ConcurrentHashMap<>();
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double NANOS_PER_MILLISECOND = 1e6;
+
+    /** The percentiles of the Prometheus summaries and of the latency report. */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] QUANTILE_LABELS = {"0.5", "0.9", "0.99", "0.999"};
+    private static final String[] PERCENTILE_HEADERS = {"p50", "p90", "p99", "p99.9"};
+
+    private Metrics() {
+    }
+
+    /**
+     * @param name the reader and format, e.g. "parking_csv"
+     * @return the metrics of the reader, created on first use
+     */
+    public static ReaderMetrics reader(String name) {
+        return READERS.computeIfAbsent(name, ReaderMetrics::new);
+    }
+
+    /**
+     * @return the call timer of a service method, created on first use
+     */
+    public static Timer serviceTimer(String service, String method) {
+        return SERVICE_TIMERS.computeIfAbsent(service + "." + method, key -> new Timer());
+    }
+
+    /**
+     * @param option the menu option, e.g. "3"
+     * @return the timer of a UI menu option, created on first use
+     */
+    public static Timer uiTimer(String option) {
+        return UI_TIMERS.computeIfAbsent(option, key -> new Timer());
+    }
+
+    /**
+     * Registers the MXBean with the platform MBean server; later calls do nothing.
+     * @throws IllegalStateException if the bean cannot be registered
+     */
+    public static void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new Bean(), name);
+            }
+        } catch (InstanceAlreadyExistsException e) {
+            // registered concurrently by another thread
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format (version 0.0.4).
+     */
+    public static void writePrometheus(Appendable out) throws IOException {
+        String family = null;
+        for (Sample sample : samples()) {
+            if (!sample.family.equals(family)) {
+                family = sample.family;
+                out.append("# HELP ").append(family).append(' ').append(sample.help).append('\n');
+                out.append("# TYPE ").append(family).append(' ').append(sample.type).append('\n');
+            }
+            out.append(sample.key()).append(' ').append(formatValue(sample.value)).append('\n');
+        }
+    }
+
+    /**
+     * @return the Prometheus text of {@link #writePrometheus(Appendable)}
+     */
+    public static String toPrometheusText() {
+        StringBuilder text = new StringBuilder();
+        try {
+            writePrometheus(text);
+        } catch (IOException e) {
+            // a StringBuilder does not throw
+            throw new IllegalStateException(e);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes the count, p50, p90, p99, p99.9 and max latency in milliseconds of every UI option and
+     * service method that has been called, one line per operation.
+     */
+    public static void writeLatencyReport(Appendable out) throws IOException {
+        Map<String, Timer> operations = new LinkedHashMap<>();
+        List<String> options = new ArrayList<>(UI_TIMERS.keySet());
+        options.sort(null);
+        for (String option : options) {
+            operations.put("UI option " + option, UI_TIMERS.get(option));
+        }
+        List<String> methods = new ArrayList<>(SERVICE_TIMERS.keySet());
+        methods.sort(null);
+        for (String method : methods) {
+            operations.put(method, SERVICE_TIMERS.get(method));
+        }
+        operations.values().removeIf(timer -> timer.getCount() == 0);
+
+        int width = "Operation".length();
+        for (String operation : operations.keySet()) {
+            width = Math.max(width, operation.length());
+        }
+        String operationColumn = "%-" + width + "s";
+        StringBuilder line = new StringBuilder(String.format(Locale.ROOT, operationColumn + " %10s", "Operation", "count"));
+        for (String header : PERCENTILE_HEADERS) {
+            line.append(String.format(Locale.ROOT, " %10s", header + " ms"));
+        }
+        out.append(line.append(String.format(Locale.ROOT, " %10s", "max ms"))).append('\n');
+        for (Map.Entry<String, Timer> operation : operations.entrySet()) {
+            Timer timer = operation.getValue();
+            line = new StringBuilder(String.format(Locale.ROOT, operationColumn + " %10d",
+                    operation.getKey(), timer.getCount()));
+            for (long nanos : timer.getHistogram().getValuesAtPercentiles(PERCENTILES)) {
+                line.append(String.format(Locale.ROOT, " %10.3f", nanos / NANOS_PER_MILLISECOND));
+            }
+            line.append(String.format(Locale.ROOT, " %10.3f", timer.getMaxNanos() / NANOS_PER_MILLISECOND));
+            out.append(line).append('\n');
+        }
+    }
+
+    /**
+     * @return the table of {@link #writeLatencyReport(Appendable)}
+     */
+    public static String latencyReport() {
+        StringBuilder report = new StringBuilder();
+        try {
+            writeLatencyReport(report);
+        } catch (IOException e) {
+            // a StringBuilder does not throw
+            throw new IllegalStateException(e);
+        }
+        return report.toString();
+    }
+
+    /**
+     * @return every sample keyed by name and labels, in dump order
+     */
+    public static Map<String, Double> getSamples() {
+        Map<String, Double> samples = new LinkedHashMap<>();
+        for (Sample sample : samples()) {
+            samples.put(sample.key(), sample.value);
+        }
+        return samples;
+    }
+
+    private static List<Sample> samples() {
+        List<ReaderMetrics> readers = new ArrayList<>(READERS.values());
+        readers.sort((a, b) -> a.getName().compareTo(b.getName()));
+        List<String> timerNames = new ArrayList<>(SERVICE_TIMERS.keySet());
+        timerNames.sort(null);
+        List<String> options = new ArrayList<>(UI_TIMERS.keySet());
+        options.sort(null);
+
+        List<Sample> samples = new ArrayList<>();
+        for (ReaderMetrics reader : readers) {
+            samples.add(new Sample("cood_reader_rows_read_total", "counter",
+                    "Rows read by each reader, accepted or skipped.", readerLabel(reader), reader.getRowsRead()));
+        }
+        for (ReaderMetrics reader : readers) {
+            samples.add(new Sample("cood_reader_rows_accepted_total", "counter",
+                    "Rows each reader turned into records.", readerLabel(reader), reader.getRowsAccepted()));
+        }
+        for (ReaderMetrics reader : readers) {
+            for (SkipReason reason : SkipReason.values()) {
+                long skipped = reader.getRowsSkipped(reason);
+                if (skipped > 0) {
+                    samples.add(new Sample("cood_reader_rows_skipped_total", "counter",
+                            "Rows each reader skipped, by reason.",
+                            readerLabel(reader) + ",reason=\"" + reason.label() + "\"", skipped));
+                }
+            }
+        }
+        for (ReaderMetrics reader : readers) {
+            samples.add(new Sample("cood_reader_bytes_read_total", "counter",
+                    "Size of the files each reader opened.", readerLabel(reader), reader.getBytesRead()));
+        }
+        for (ReaderMetrics reader : readers) {
+            addTimer(samples, "cood_reader_parse_duration_seconds",
+                    "Time from opening a file to closing its stream, per file.", readerLabel(reader), reader.getParseTimer());
+        }
+        for (String timerName : timerNames) {
+            int dot = timerName.indexOf('.');
+            String labels = "service=\"" + timerName.substring(0, dot) + "\",method=\"" + timerName.substring(dot + 1) + "\"";
+            addTimer(samples, "cood_service_call_duration_seconds",
+                    "Latency of each service method call.", labels, SERVICE_TIMERS.get(timerName));
+        }
+        for (String option : options) {
+            addTimer(samples, "cood_ui_option_duration_seconds",
+                    "Latency of each UI menu option, from its query to its printed answer.",
+                    "option=\"" + option + "\"", UI_TIMERS.get(option));
+        }
+        return regroup(samples);
+    }
+
+    private static void addTimer(List<Sample> samples, String family, String help, String labels, Timer timer) {
+        long[] quantiles = timer.getHistogram().getValuesAtPercentiles(PERCENTILES);
+        for (int i = 0; i < quantiles.length; i++) {
+            samples.add(new Sample(family, "summary", help,
+                    labels + ",quantile=\"" + QUANTILE_LABELS[i] + "\"", quantiles[i] / NANOS_PER_SECOND));
+        }
+        samples.add(new Sample(family, "summary", help, family + "_count", labels, timer.getCount()));
+        samples.add(new Sample(family, "summary", help, family + "_sum", labels, timer.getTotalNanos() / NANOS_PER_SECOND));
+        samples.add(new Sample(family + "_max", "gauge", "Longest single event of " + family + ".",
+                labels, timer.getMaxNanos() / NANOS_PER_SECOND));
+    }
+
+    // the exposition format wants all samples of a family together
+    private static List<Sample> regroup(List<Sample> samples) {
+        Map<String, List<Sample>> byFamily = new LinkedHashMap<>();
+        for (Sample sample : samples) {
+            byFamily.computeIfAbsent(sample.family, family -> new ArrayList<>()).add(sample);
+        }
+        List<Sample> grouped = new ArrayList<>(samples.size());
+        byFamily.values().forEach(grouped::addAll);
+        return grouped;
+    }
+
+    private static String readerLabel(ReaderMetrics reader) {
+        return "reader=\"" + reader.getName() + "\"";
+    }
+
+    private static String formatValue(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static final class Sample {
+        private final String family;
+        private final String type;
+        private final String help;
+        private final String name;
+        private final String labels;
+        private final double value;
+
+        Sample(String family, String type, String help, String labels, double value) {
+            this(family, type, help, family, labels, value);
+        }
+
+        Sample(String family, String type, String help, String name, String labels, double value) {
+            this.family = family;
+            this.type = type;
+            this.help = help;
+            this.name = name;
+            this.labels = labels;
+            this.value = value;
+        }
+
+        String key() {
+            return name + "{" + labels + "}";
+        }
+    }
+
+    private static final class Bean implements MetricsMXBean {
+        @Override
+        public Map<String, Double> getSamples() {
+            return Metrics.getSamples();
+        }
+
+        @Override
+        public String getPrometheusText() {
+            return Metrics.toPrometheusText();
+        }
+
+        @Override
+        public String getLatencyReport() {
+            return Metrics.latencyReport();
+        }
+    }
+}
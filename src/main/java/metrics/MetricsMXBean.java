@@ -0,0 +1,25 @@
+package metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link Metrics}, registered as {@value Metrics#OBJECT_NAME}.
+ */
+public interface MetricsMXBean {
+
+    /**
+     * @return every sample, keyed by its Prometheus name and labels, e.g.
+     *         {@code cood_reader_rows_read_total{reader="parking_csv"}}
+     */
+    Map<String, Double> getSamples();
+
+    /**
+     * @return the same samples in the Prometheus text exposition format
+     */
+    String getPrometheusText();
+
+    /**
+     * @return the latency percentiles of every UI option and service method, as a table
+     */
+    String getLatencyReport();
+}
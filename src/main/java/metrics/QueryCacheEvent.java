@@ -0,0 +1,54 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one query cache lookup. A hit is instantaneous; a miss lasts until
+ * the result has been computed, or received from a concurrent computation of the same query.
+ */
+@Name(QueryCacheEvent.NAME)
+@Label("Query Cache Lookup")
+@Category({"COOD", "Queries"})
+@Description("A lookup in the query result cache")
+@StackTrace(false)
+public final class QueryCacheEvent extends Event {
+
+    public static final String NAME = "cood.QueryCache";
+
+    @Label("Query")
+    private String query;
+
+    @Label("ZIP Code")
+    private String zipCode;
+
+    @Label("Hit")
+    private boolean hit;
+
+    @Label("Stale")
+    @Description("A cached result was found but its dataset has since been reloaded")
+    private boolean stale;
+
+    /**
+     * @return the begun event
+     */
+    public static QueryCacheEvent start(String query, String zipCode) {
+        QueryCacheEvent event = new QueryCacheEvent();
+        event.query = query;
+        event.zipCode = zipCode;
+        event.begin();
+        return event;
+    }
+
+    public void hit() {
+        hit = true;
+    }
+
+    public void stale() {
+        stale = true;
+    }
+}
@@ -0,0 +1,59 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one service query. A service begins it on entry with
+ * {@link #start(String, String)}, adds the rows it reads and commits it on exit:
+ * <pre>
+ * QueryExecutionEvent event = QueryExecutionEvent.start("FinesService.getFinesPerCapitaPerZipCode", null);
+ * try {
+ *     ...
+ *     event.addRowsScanned(table.size());
+ * } finally {
+ *     event.commit();
+ * }
+ * </pre>
+ */
+@Name(QueryExecutionEvent.NAME)
+@Label("Query Execution")
+@Category({"COOD", "Queries"})
+@Description("A service query, from entry to return")
+@StackTrace(false)
+public final class QueryExecutionEvent extends Event {
+
+    public static final String NAME = "cood.QueryExecution";
+
+    @Label("Method")
+    @Description("The service and method, e.g. MarketValueService.getAverageMarketValue")
+    private String method;
+
+    @Label("ZIP Code")
+    private String zipCode;
+
+    @Label("Rows Scanned")
+    @Description("Dataset rows the answer was computed from; 0 when it came from the cache")
+    private long rowsScanned;
+
+    /**
+     * @param method the service and method
+     * @param zipCode the ZIP Code parameter, or null for queries over every ZIP Code
+     * @return the begun event
+     */
+    public static QueryExecutionEvent start(String method, String zipCode) {
+        QueryExecutionEvent event = new QueryExecutionEvent();
+        event.method = method;
+        event.zipCode = zipCode;
+        event.begin();
+        return event;
+    }
+
+    public void addRowsScanned(long rows) {
+        rowsScanned += rows;
+    }
+}
@@ -0,0 +1,161 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one reader: rows read, accepted and skipped (by reason), bytes read and parse time.
+ * Readers that parse in batches can add whole batches at once instead of counting row by row.
+ * <p>
+ * A reader counts through the {@link Load} it starts for each file, which adds to these totals,
+ * keeps the counts of that file alone and reports them as a {@link DatasetLoadEvent} when the file is closed.
+ */
+public final class ReaderMetrics {
+
+    private final String name;
+    private final LongAdder rowsAccepted = new LongAdder();
+    private final LongAdder[] rowsSkipped = new LongAdder[SkipReason.values().length];
+    private final LongAdder bytesRead = new LongAdder();
+    private final Timer parseTimer = new Timer();
+
+    ReaderMetrics(String name) {
+        this.name = name;
+        for (int i = 0; i < rowsSkipped.length; i++) {
+            rowsSkipped[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Starts tracking the read of one file: the parse timer and the Flight Recorder event run from now
+     * until {@link Load#finish()}.
+     * @param file the path of the file
+     * @param format the file format, e.g. "csv"
+     */
+    public Load startLoad(String file, String format) {
+        return new Load(file, format);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void rowAccepted() {
+        rowsAccepted.increment();
+    }
+
+    public void rowsAccepted(long rows) {
+        rowsAccepted.add(rows);
+    }
+
+    public void rowSkipped(SkipReason reason) {
+        rowsSkipped[reason.ordinal()].increment();
+    }
+
+    public void rowsSkipped(SkipReason reason, long rows) {
+        rowsSkipped[reason.ordinal()].add(rows);
+    }
+
+    public void bytesRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    /**
+     * @return the timer of whole-file parses: one event per file, from opening it to closing its stream
+     */
+    public Timer getParseTimer() {
+        return parseTimer;
+    }
+
+    /**
+     * @return the rows read: accepted plus skipped
+     */
+    public long getRowsRead() {
+        long rows = getRowsAccepted();
+        for (LongAdder skipped : rowsSkipped) {
+            rows += skipped.sum();
+        }
+        return rows;
+    }
+
+    public long getRowsAccepted() {
+        return rowsAccepted.sum();
+    }
+
+    public long getRowsSkipped(SkipReason reason) {
+        return rowsSkipped[reason.ordinal()].sum();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    /**
+     * The read of one file. The counting methods add to the reader's totals as well as to this file's
+     * counts, and may be called from several threads.
+     */
+    public final class Load {
+        private final long startNanos = System.nanoTime();
+        private final DatasetLoadEvent event = new DatasetLoadEvent();
+        private final LongAdder accepted = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private long bytes;
+        private boolean finished;
+
+        private Load(String file, String format) {
+            event.dataset = name;
+            event.file = file;
+            event.format = format;
+            event.begin();
+        }
+
+        public void rowAccepted() {
+            accepted.increment();
+            ReaderMetrics.this.rowAccepted();
+        }
+
+        public void rowsAccepted(long rows) {
+            accepted.add(rows);
+            ReaderMetrics.this.rowsAccepted(rows);
+        }
+
+        public void rowSkipped(SkipReason reason) {
+            skipped.increment();
+            ReaderMetrics.this.rowSkipped(reason);
+        }
+
+        public void rowsSkipped(SkipReason reason, long rows) {
+            skipped.add(rows);
+            ReaderMetrics.this.rowsSkipped(reason, rows);
+        }
+
+        public void bytesRead(long bytes) {
+            this.bytes += bytes;
+            ReaderMetrics.this.bytesRead(bytes);
+        }
+
+        /**
+         * Records the parse time and commits the event; later calls do nothing.
+         * Called once the file's stream is closed.
+         */
+        public void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            parseTimer.recordSince(startNanos);
+            if (event.shouldCommit()) {
+                event.bytes = bytes;
+                event.rowsAccepted = accepted.sum();
+                event.rowsSkipped = skipped.sum();
+                event.commit();
+            }
+        }
+
+        public long getRowsAccepted() {
+            return accepted.sum();
+        }
+
+        public long getRowsSkipped() {
+            return skipped.sum();
+        }
+    }
+}
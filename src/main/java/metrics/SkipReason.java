@@ -0,0 +1,28 @@
+package metrics;
+
+import java.util.Locale;
+
+/**
+ * Why a reader skipped a row.
+ */
+public enum SkipReason {
+    /** Too few or too many fields or columns. */
+    FIELD_COUNT,
+    /** A required field is missing, null or empty. */
+    MISSING_FIELD,
+    /** A numeric field does not parse. */
+    INVALID_NUMBER,
+    /** A numeric field that must not be negative is. */
+    NEGATIVE_NUMBER,
+    /** The timestamp is not a valid ISO-8601 instant. */
+    INVALID_TIMESTAMP,
+    /** A JSON array element is not an object. */
+    NOT_AN_OBJECT;
+
+    /**
+     * @return the label value used in the Prometheus dump, e.g. "invalid_timestamp"
+     */
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,53 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts timed events, accumulates their durations and keeps their distribution in a
+ * {@link LatencyHistogram}. Recording is lock-free, so a timer can be shared by every thread that
+ * runs the timed operation.
+ */
+public final class Timer {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    Timer() {
+    }
+
+    /**
+     * @param nanos the duration of one event, from {@link System#nanoTime()} differences
+     */
+    public void record(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        histogram.record(nanos);
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}, a value previously read from {@link System#nanoTime()}.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+}
@@ -1,78 +1,157 @@
 package processor;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.IntStream;
 
-import common.ParkingViolation;
-import common.Population;
-import data.ParkingViolationReader;
-import data.PopulationReader;
+import common.ParkingViolationTable;
+import common.PopulationTable;
+import common.ZipCode;
+import data.DatasetRepository;
+import metrics.Metrics;
+import metrics.QueryExecutionEvent;
+import metrics.Timer;
 
 public class FinesService {
 
-    private String parkingViolationFilePath;
-    private String propertyValueFilePath;
-    private String populationFilePath;
+    /** Tables with at least this many rows are aggregated in parallel slices. */
+    static final int PARALLEL_THRESHOLD_ROWS = 1_000_000;
 
-    public FinesService(String parkingViolationFilePath, String propertyValueFilePath, String populationFilePath) {
-        this.parkingViolationFilePath = parkingViolationFilePath;
-        this.propertyValueFilePath = propertyValueFilePath;
-        this.populationFilePath = populationFilePath;
+    private static final Timer FINES_PER_CAPITA_PER_ZIP_CODE_TIMER =
+            Metrics.serviceTimer("FinesService", "getFinesPerCapitaPerZipCode");
+
+    private final DatasetRepository datasetRepository;
+    private final int parallelism;
+    private final Executor executor;
+    // concurrent option 2 requests share one aggregation
+    private final SingleFlight<String> flights = new SingleFlight<>();
+
+    public FinesService(DatasetRepository datasetRepository) {
+        this(datasetRepository, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param parallelism the number of slices a large parking table is aggregated in (1 = sequential)
+     */
+    public FinesService(DatasetRepository datasetRepository, int parallelism) {
+        this(datasetRepository, parallelism, ServiceExecutors.VIRTUAL_THREADS);
+    }
+
+    /**
+     * @param parallelism the number of slices a large parking table is aggregated in (1 = sequential)
+     * @param executor runs the asynchronous methods
+     */
+    public FinesService(DatasetRepository datasetRepository, int parallelism, Executor executor) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.datasetRepository = datasetRepository;
+        this.parallelism = parallelism;
+        this.executor = ServiceExecutors.requireExecutor(executor);
     }
 
     /**
      * Menu Option 2: Show parking fines per capita for each ZIP Code
-     * @return a map of zip codes to parking fines per capita
+     * @return an unmodifiable map of zip codes to parking fines per capita, in ascending ZIP Code order
      */
     public Map<String, Double> getFinesPerCapitaPerZipCode() {
-        // Use Strategy pattern to read file
-        List<ParkingViolation> parkingViolations = ParkingViolationReader.readFile(parkingViolationFilePath);
-        List<Population> populations = PopulationReader.readPopulationFile(populationFilePath);
+        long start = System.nanoTime();
+        QueryExecutionEvent event = QueryExecutionEvent.start("FinesService.getFinesPerCapitaPerZipCode", null);
+        try {
+            // a caller that joins another's aggregation scans no rows itself
+            return flights.execute("finesPerCapitaPerZipCode", () -> computeFinesPerCapitaPerZipCode(event));
+        } finally {
+            FINES_PER_CAPITA_PER_ZIP_CODE_TIMER.recordSince(start);
+            event.commit();
+        }
+    }
+
+    /**
+     * Asynchronous {@link #getFinesPerCapitaPerZipCode()}, run on this service's executor.
+     */
+    public CompletableFuture<Map<String, Double>> getFinesPerCapitaPerZipCodeAsync() {
+        return CompletableFuture.supplyAsync(this::getFinesPerCapitaPerZipCode, executor);
+    }
+
+    private Map<String, Double> computeFinesPerCapitaPerZipCode(QueryExecutionEvent event) {
+        // Datasets are parsed once and shared through the repository
+        ParkingViolationTable parkingViolations = datasetRepository.getParkingViolations();
+        PopulationTable populations = datasetRepository.getPopulationTable();
+        event.addRowsScanned(parkingViolations.size());
 
-        Map<String, Double> totalFinesPerZipCode = new HashMap<>();
-        for (ParkingViolation parkingViolation : parkingViolations) {
+        // The state filter is evaluated once per dictionary entry, so the row loop only compares codes
+        List<String> states = parkingViolations.getStates();
+        boolean[] isPennsylvania = new boolean[states.size()];
+        for (int code = 0; code < states.size(); code++) {
             // Filter: ignore violations where license plate state is not "PA"
-            String state = parkingViolation.getLicensePlateState();
-            if (state == null || !state.trim().equals("PA")) {
-                continue;
-            }
-            
-            // Filter: ignore violations where ZIP Code is unknown (null or empty)
-            String zipCode = parkingViolation.getZipCode();
-            if (zipCode == null || zipCode.trim().isEmpty()) {
-                continue;
-            }
-            
-            Double fine = parkingViolation.getFine();
-            // Accumulate fines for valid violations
-            totalFinesPerZipCode.put(zipCode, totalFinesPerZipCode.getOrDefault(zipCode, 0.0) + fine);
+            String state = states.get(code);
+            isPennsylvania[code] = state != null && state.trim().equals("PA");
         }
 
-        // populations is a List<Population>, so build a ZipCode->Population map first
-        Map<String, Integer> zipToPopulation = populations.stream()
-                .collect(Collectors.toMap(pop -> pop.getZipCode(), pop -> pop.getPopulation()));
+        // Large tables are summed in parallel slices; small ones are not worth the fork
+        int slices = parkingViolations.size() >= PARALLEL_THRESHOLD_ROWS ? parallelism : 1;
+        double[] finesByZipCode = sumFinesByZipCode(parkingViolations, isPennsylvania, slices);
 
-        Map<String, Double> finesPerCapitaPerZipCode = new HashMap<>();
-        for (Map.Entry<String, Double> entry : totalFinesPerZipCode.entrySet()) {
-            String zipCode = entry.getKey();
-            Double totalFine = entry.getValue();
-            
+        Map<String, Double> finesPerCapitaPerZipCode = new LinkedHashMap<>();
+        for (int zipCode = 0; zipCode < ZipCode.SPACE; zipCode++) {
             // Filter: don't display ZIP Codes where total aggregate fines = 0
-            if (totalFine == null || totalFine == 0.0) {
+            double totalFine = finesByZipCode[zipCode];
+            if (totalFine == 0.0) {
                 continue;
             }
-            
+
             // Filter: don't display ZIP Codes where population = 0
-            Integer population = zipToPopulation.get(zipCode);
-            if (population == null || population == 0) {
+            int population = populations.getPopulation(zipCode);
+            if (population == 0) {
                 continue;
             }
-            
-            finesPerCapitaPerZipCode.put(zipCode, totalFine / population);
+
+            finesPerCapitaPerZipCode.put(ZipCode.format(zipCode), totalFine / population);
+        }
+        return Collections.unmodifiableMap(finesPerCapitaPerZipCode);
+    }
+
+    /**
+     * Sums fines per ZIP Code, addressed directly by ZIP Code.
+     * A single slice adds each ZIP Code's fines in file order, so the totals are bit-for-bit those of a
+     * per-violation scan. With more than one slice, each slice of rows is folded into its own accumulator
+     * on the common ForkJoinPool and the accumulators are added together in slice order; floating-point
+     * addition is not associative, so those totals may differ from the sequential ones in the last bits.
+     */
+    static double[] sumFinesByZipCode(ParkingViolationTable parkingViolations, boolean[] isPennsylvania, int slices) {
+        int rows = parkingViolations.size();
+        if (slices <= 1) {
+            return sumSlice(parkingViolations, isPennsylvania, 0, rows);
+        }
+        return IntStream.range(0, slices)
+                .parallel()
+                .mapToObj(slice -> sumSlice(parkingViolations, isPennsylvania,
+                        (int) ((long) rows * slice / slices), (int) ((long) rows * (slice + 1) / slices)))
+                .reduce(FinesService::addInto)
+                .orElseGet(() -> new double[ZipCode.SPACE]);
+    }
+
+    private static double[] sumSlice(ParkingViolationTable parkingViolations, boolean[] isPennsylvania, int from, int to) {
+        double[] finesByZipCode = new double[ZipCode.SPACE];
+        for (int row = from; row < to; row++) {
+            int zipCode = parkingViolations.getZipCode(row);
+            // Filter: ignore violations where ZIP Code is unknown
+            if (isPennsylvania[parkingViolations.getStateCode(row)] && ZipCode.isValid(zipCode)) {
+                finesByZipCode[zipCode] += parkingViolations.getFine(row);
+            }
+        }
+        return finesByZipCode;
+    }
+
+    private static double[] addInto(double[] totals, double[] partial) {
+        for (int zipCode = 0; zipCode < totals.length; zipCode++) {
+            totals[zipCode] += partial[zipCode];
         }
-        return finesPerCapitaPerZipCode;
+        return totals;
     }
 
 }
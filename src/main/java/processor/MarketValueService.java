@@ -1,65 +1,89 @@
 package processor;
 
-import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Map;
-
-import common.Population;
-import common.PropertyValue;
-import data.PopulationReader;
-import data.PropertyValueReader;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import common.PopulationTable;
+import common.ZipCode;
+import data.DatasetRepository;
+import data.PropertyZipIndex;
+import data.PropertyZipIndex.ZipAggregate;
+import metrics.Metrics;
+import metrics.QueryExecutionEvent;
+import metrics.Timer;
 
 public class MarketValueService {
 
-    private String parkingViolationFilePath;
-    private String propertyValueFilePath;
-    private String populationFilePath;
-    
-    // Memoization cache for getAverageMarketValue results
-    private final Map<String, Integer> averageMarketValueCache = new ConcurrentHashMap<>();
-
-    public MarketValueService(String parkingViolationFilePath, String propertyValueFilePath, String populationFilePath) {
-        this.parkingViolationFilePath = parkingViolationFilePath;
-        this.propertyValueFilePath = propertyValueFilePath;
-        this.populationFilePath = populationFilePath;
+    /** The metrics answered by this service. */
+    public static final Set<PropertyMetric> METRICS = Collections.unmodifiableSet(EnumSet.of(
+            PropertyMetric.AVERAGE_MARKET_VALUE,
+            PropertyMetric.RESIDENTIAL_MARKET_VALUE_PER_CAPITA,
+            PropertyMetric.AVERAGE_MARKET_VALUE_PER_SQUARE_FOOT));
+
+    private static final Timer AVERAGE_MARKET_VALUE_TIMER =
+            Metrics.serviceTimer("MarketValueService", "getAverageMarketValue");
+    private static final Timer RESIDENTIAL_MARKET_VALUE_PER_CAPITA_TIMER =
+            Metrics.serviceTimer("MarketValueService", "getResidentialMarketValuePerCapita");
+    private static final Timer AVERAGE_MARKET_VALUE_PER_SQUARE_FOOT_TIMER =
+            Metrics.serviceTimer("MarketValueService", "getAverageMarketValuePerSquareFoot");
+    private static final Timer GET_METRICS_TIMER =
+            Metrics.serviceTimer("MarketValueService", "getMetrics");
+
+    private final DatasetRepository datasetRepository;
+    private final QueryCache queryCache;
+    private final Executor executor;
+
+    public MarketValueService(DatasetRepository datasetRepository) {
+        this(datasetRepository, new QueryCache());
+    }
+
+    /**
+     * @param queryCache the result cache, typically shared with the other ZIP-parameterized services
+     */
+    public MarketValueService(DatasetRepository datasetRepository, QueryCache queryCache) {
+        this(datasetRepository, queryCache, ServiceExecutors.VIRTUAL_THREADS);
+    }
+
+    /**
+     * @param queryCache the result cache, typically shared with the other ZIP-parameterized services
+     * @param executor runs the asynchronous methods
+     */
+    public MarketValueService(DatasetRepository datasetRepository, QueryCache queryCache, Executor executor) {
+        this.datasetRepository = datasetRepository;
+        this.queryCache = queryCache;
+        this.executor = ServiceExecutors.requireExecutor(executor);
     }
 
     /**
      * Menu Option 3: Show average market value for residences in a specified ZIP Code
-     * Uses memoization to cache results for previously computed ZIP codes.
+     * Results are cached per ZIP Code until the property file changes.
      * @param zipCode the ZIP Code to get the average market value for
      * @return the average market value for residences in the specified ZIP Code
      */
     public int getAverageMarketValue(String zipCode) {
-        if (zipCode == null || zipCode.isEmpty()) {
-            return 0;
-        }
-        
-        // Check cache first (memoization)
-        return averageMarketValueCache.computeIfAbsent(zipCode, key -> {
-            
-            System.out.println("did not hit cache");
-            
-            List<PropertyValue> propertyValues = PropertyValueReader.readCsvFile(propertyValueFilePath);
-            double totalMarketValue = 0;
-            int count = 0;
-
-            for (PropertyValue pv : propertyValues) {
-                if (pv == null) continue;
-                String pvZip = pv.getZipCode();
-                Double marketValue = pv.getMarketValue();
-                if (pvZip == null || marketValue == null) continue;
-                if (key.equals(pvZip)) {
-                    totalMarketValue += marketValue;
-                    count++;
-                }
-            }
-
-            if (count == 0) {
+        long start = System.nanoTime();
+        QueryExecutionEvent event = QueryExecutionEvent.start("MarketValueService.getAverageMarketValue", zipCode);
+        try {
+            if (zipCode == null || zipCode.isEmpty()) {
                 return 0;
             }
-            return (int)Math.round(totalMarketValue / count);
-        });
+
+            PropertyZipIndex index = datasetRepository.getPropertyZipIndex();
+            return queryCache.get("averageMarketValue", zipCode, index, () -> {
+                ZipAggregate aggregate = index.get(zipCode);
+                event.addRowsScanned(PropertyMetric.propertyCount(aggregate));
+                return PropertyMetric.AVERAGE_MARKET_VALUE.compute(aggregate, 0);
+            });
+        } finally {
+            AVERAGE_MARKET_VALUE_TIMER.recordSince(start);
+            event.commit();
+        }
     }
 
 
@@ -75,39 +99,27 @@ public class MarketValueService {
       * @return the residential market value per capita for the specified ZIP Code, rounded to the nearest integer; or 0 if data is missing
       */
     public int getResidentialMarketValuePerCapita(String zipCode) {
-        if (zipCode == null || zipCode.isEmpty()) {
-            return 0;
-        }
-
-        List<PropertyValue> propertyValues = PropertyValueReader.readCsvFile(propertyValueFilePath);
-        double totalMarketValue = 0;
-
-        for (PropertyValue pv : propertyValues) {
-            if (pv == null) continue;
-            String pvZip = pv.getZipCode();
-            Double marketValue = pv.getMarketValue();
-            if (pvZip == null || marketValue == null) continue;
-            if (zipCode.equals(pvZip)) {
-                totalMarketValue += marketValue;
-            }
-        }
-
-        // now read population from the population file
-        List<Population> populationList = PopulationReader.readPopulationFile(populationFilePath);
-        int populationForZip = 0;
-        for (Population pop : populationList) {
-            if (pop == null) continue;
-            if (zipCode.equals(pop.getZipCode())) {
-                populationForZip = pop.getPopulation();
-                break;
+        long start = System.nanoTime();
+        QueryExecutionEvent event =
+                QueryExecutionEvent.start("MarketValueService.getResidentialMarketValuePerCapita", zipCode);
+        try {
+            if (zipCode == null || zipCode.isEmpty()) {
+                return 0;
             }
-        }
 
-        if (populationForZip == 0) {
-            return 0;
+            PropertyZipIndex index = datasetRepository.getPropertyZipIndex();
+            PopulationTable populations = datasetRepository.getPopulationTable();
+            return queryCache.get("residentialMarketValuePerCapita", zipCode, Arrays.asList(index, populations), () -> {
+                // now look up the population of the ZIP Code
+                int populationForZip = populations.getPopulation(ZipCode.parse(zipCode));
+                ZipAggregate aggregate = index.get(zipCode);
+                event.addRowsScanned(PropertyMetric.propertyCount(aggregate));
+                return PropertyMetric.RESIDENTIAL_MARKET_VALUE_PER_CAPITA.compute(aggregate, populationForZip);
+            });
+        } finally {
+            RESIDENTIAL_MARKET_VALUE_PER_CAPITA_TIMER.recordSince(start);
+            event.commit();
         }
-
-        return (int) Math.round(totalMarketValue / populationForZip);
     }
 
     /** 
@@ -117,27 +129,83 @@ public class MarketValueService {
      * @return the average market value per square foot for residences in the specified ZIP Code
      */
     public int getAverageMarketValuePerSquareFoot(String zipCode) {
-        if (zipCode == null || zipCode.isEmpty()) {
-            return 0;
-        }
-        List<PropertyValue> propertyValues = PropertyValueReader.readCsvFile(propertyValueFilePath);
-        double totalMarketValue = 0;
-        double totalLivableArea = 0;
-        for (PropertyValue pv : propertyValues) {
-            if (pv == null) continue;
-            String pvZip = pv.getZipCode();
-            Double marketValue = pv.getMarketValue();
-            Double livableArea = pv.getTotalLivableArea();
-            if (pvZip == null || marketValue == null || livableArea == null) continue;
-            if (zipCode.equals(pvZip) && livableArea > 0) {
-                totalMarketValue += marketValue;
-                totalLivableArea += livableArea;
+        long start = System.nanoTime();
+        QueryExecutionEvent event =
+                QueryExecutionEvent.start("MarketValueService.getAverageMarketValuePerSquareFoot", zipCode);
+        try {
+            if (zipCode == null || zipCode.isEmpty()) {
+                return 0;
             }
+            PropertyZipIndex index = datasetRepository.getPropertyZipIndex();
+            return queryCache.get("averageMarketValuePerSquareFoot", zipCode, index, () -> {
+                ZipAggregate aggregate = index.get(zipCode);
+                event.addRowsScanned(PropertyMetric.propertyCount(aggregate));
+                return PropertyMetric.AVERAGE_MARKET_VALUE_PER_SQUARE_FOOT.compute(aggregate, 0);
+            });
+        } finally {
+            AVERAGE_MARKET_VALUE_PER_SQUARE_FOOT_TIMER.recordSince(start);
+            event.commit();
         }
-        if (totalLivableArea == 0) {
-            return 0;
+    }
+
+    /**
+     * Batch variant of options 3, 5 and 6: computes the requested metrics for every given ZIP Code
+     * from one snapshot of the datasets, with a single index lookup per ZIP Code.
+     * @param zipCodes the ZIP Codes to compute the metrics for
+     * @param metrics any of AVERAGE_MARKET_VALUE, RESIDENTIAL_MARKET_VALUE_PER_CAPITA and
+     *                AVERAGE_MARKET_VALUE_PER_SQUARE_FOOT
+     * @return ZIP Code to metric to value, in the iteration order of {@code zipCodes}
+     * @throws IllegalArgumentException if an argument is null or a metric is not a market value metric
+     */
+    public Map<String, Map<PropertyMetric, Integer>> getMetrics(Collection<String> zipCodes, Set<PropertyMetric> metrics) {
+        long start = System.nanoTime();
+        QueryExecutionEvent event = QueryExecutionEvent.start("MarketValueService.getMetrics", null);
+        try {
+            if (zipCodes == null || metrics == null) {
+                throw new IllegalArgumentException("ZIP Codes and metrics cannot be null");
+            }
+            if (!METRICS.containsAll(metrics)) {
+                throw new IllegalArgumentException("Unsupported metrics: " + metrics);
+            }
+            boolean needsPopulation = metrics.contains(PropertyMetric.RESIDENTIAL_MARKET_VALUE_PER_CAPITA);
+            PopulationTable populations = needsPopulation ? datasetRepository.getPopulationTable() : null;
+            PropertyZipIndex index = datasetRepository.getPropertyZipIndex();
+            PropertyMetric.countRowsScanned(event, index, zipCodes);
+            return PropertyMetric.computeAll(index, populations, zipCodes, metrics);
+        } finally {
+            GET_METRICS_TIMER.recordSince(start);
+            event.commit();
         }
-        return (int) Math.round(totalMarketValue / totalLivableArea);
+    }
+
+    /**
+     * Asynchronous {@link #getAverageMarketValue(String)}, run on this service's executor.
+     */
+    public CompletableFuture<Integer> getAverageMarketValueAsync(String zipCode) {
+        return CompletableFuture.supplyAsync(() -> getAverageMarketValue(zipCode), executor);
+    }
+
+    /**
+     * Asynchronous {@link #getResidentialMarketValuePerCapita(String)}, run on this service's executor.
+     */
+    public CompletableFuture<Integer> getResidentialMarketValuePerCapitaAsync(String zipCode) {
+        return CompletableFuture.supplyAsync(() -> getResidentialMarketValuePerCapita(zipCode), executor);
+    }
+
+    /**
+     * Asynchronous {@link #getAverageMarketValuePerSquareFoot(String)}, run on this service's executor.
+     */
+    public CompletableFuture<Integer> getAverageMarketValuePerSquareFootAsync(String zipCode) {
+        return CompletableFuture.supplyAsync(() -> getAverageMarketValuePerSquareFoot(zipCode), executor);
+    }
+
+    /**
+     * Asynchronous {@link #getMetrics(Collection, Set)}, run on this service's executor.
+     * Invalid arguments complete the future exceptionally with an IllegalArgumentException.
+     */
+    public CompletableFuture<Map<String, Map<PropertyMetric, Integer>>> getMetricsAsync(Collection<String> zipCodes,
+                                                                                       Set<PropertyMetric> metrics) {
+        return CompletableFuture.supplyAsync(() -> getMetrics(zipCodes, metrics), executor);
     }
 
 }
@@ -1,21 +1,30 @@
 package processor;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
-import common.Population;
-import data.PopulationReader;
+import data.DatasetRepository;
+import metrics.Metrics;
+import metrics.QueryExecutionEvent;
+import metrics.Timer;
 
 public class PopulationService {
 
-    private String parkingViolationFilePath;
-    private String propertyValueFilePath;
-    private String populationFilePath;
+    private static final Timer POPULATION_ALL_ZIP_CODES_TIMER =
+            Metrics.serviceTimer("PopulationService", "getPopulationAllZipCodes");
 
-    public PopulationService(String parkingViolationFilePath, String propertyValueFilePath, String populationFilePath) {
-        this.parkingViolationFilePath = parkingViolationFilePath;
-        this.propertyValueFilePath = propertyValueFilePath;
-        this.populationFilePath = populationFilePath;
+    private final DatasetRepository datasetRepository;
+    private final Executor executor;
+
+    public PopulationService(DatasetRepository datasetRepository) {
+        this(datasetRepository, ServiceExecutors.VIRTUAL_THREADS);
+    }
+
+    /**
+     * @param executor runs the asynchronous methods
+     */
+    public PopulationService(DatasetRepository datasetRepository, Executor executor) {
+        this.datasetRepository = datasetRepository;
+        this.executor = ServiceExecutors.requireExecutor(executor);
     }
     
     /**
@@ -23,12 +32,22 @@ public class PopulationService {
      * @return a map of zip codes to populations
      */
     public Long getPopulationAllZipCodes() {
-        List<Population> populations = PopulationReader.readPopulationFile(populationFilePath);
-        long total = 0;
-        for (Population p : populations) {
-            total += p.getPopulation();
+        long start = System.nanoTime();
+        // the total is summed when the table is built, so the query scans no rows
+        QueryExecutionEvent event = QueryExecutionEvent.start("PopulationService.getPopulationAllZipCodes", null);
+        try {
+            return datasetRepository.getPopulationTable().getTotalPopulation();
+        } finally {
+            POPULATION_ALL_ZIP_CODES_TIMER.recordSince(start);
+            event.commit();
         }
-        return total;
+    }
+
+    /**
+     * Asynchronous {@link #getPopulationAllZipCodes()}, run on this service's executor.
+     */
+    public CompletableFuture<Long> getPopulationAllZipCodesAsync() {
+        return CompletableFuture.supplyAsync(this::getPopulationAllZipCodes, executor);
     }
 
 }
@@ -0,0 +1,154 @@
+package processor;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import common.PopulationTable;
+import common.ZipCode;
+import data.PropertyZipIndex;
+import data.PropertyZipIndex.ZipAggregate;
+import metrics.QueryExecutionEvent;
+
+/**
+ * The ZIP-parameterized property metrics of menu options 3 to 7. Each metric is computed from a ZIP
+ * Code's property aggregate (and, for the per-capita value, its population), so the single-ZIP
+ * service methods and the batch methods share one definition of every formula.
+ */
+public enum PropertyMetric {
+
+    /** Menu Option 3: average market value of residences with a market value. */
+    AVERAGE_MARKET_VALUE {
+        @Override
+        int compute(ZipAggregate aggregate, int population) {
+            if (aggregate == null || aggregate.getMarketValueCount() == 0) {
+                return 0;
+            }
+            return (int) Math.round(aggregate.getMarketValueSum() / aggregate.getMarketValueCount());
+        }
+    },
+
+    /** Menu Option 5: total residential market value divided by the ZIP Code's population. */
+    RESIDENTIAL_MARKET_VALUE_PER_CAPITA {
+        @Override
+        int compute(ZipAggregate aggregate, int population) {
+            double totalMarketValue = aggregate == null ? 0 : aggregate.getMarketValueSum();
+            if (population == 0) {
+                return 0;
+            }
+            return (int) Math.round(totalMarketValue / population);
+        }
+
+        @Override
+        boolean requiresPopulation() {
+            return true;
+        }
+    },
+
+    /** Menu Option 6: market value per square foot over residences with a market value and a positive area. */
+    AVERAGE_MARKET_VALUE_PER_SQUARE_FOOT {
+        @Override
+        int compute(ZipAggregate aggregate, int population) {
+            if (aggregate == null || aggregate.getPositiveLivableAreaSum() == 0) {
+                return 0;
+            }
+            return (int) Math.round(aggregate.getMarketValueSumWithArea() / aggregate.getPositiveLivableAreaSum());
+        }
+    },
+
+    /** Menu Option 4: average total livable area of residences with a livable area. */
+    AVERAGE_RESIDENTIAL_AREA {
+        @Override
+        int compute(ZipAggregate aggregate, int population) {
+            if (aggregate == null || aggregate.getLivableAreaCount() == 0) {
+                return 0;
+            }
+            return (int) Math.round(aggregate.getLivableAreaSum() / aggregate.getLivableAreaCount());
+        }
+    },
+
+    /** Menu Option 7, first value: smallest livable area. */
+    MIN_LIVABLE_AREA {
+        @Override
+        int compute(ZipAggregate aggregate, int population) {
+            if (aggregate == null || aggregate.getLivableAreaCount() == 0) {
+                return 0;
+            }
+            return (int) Math.round(aggregate.getMinLivableArea());
+        }
+    },
+
+    /** Menu Option 7, second value: largest livable area. */
+    MAX_LIVABLE_AREA {
+        @Override
+        int compute(ZipAggregate aggregate, int population) {
+            if (aggregate == null || aggregate.getLivableAreaCount() == 0) {
+                return 0;
+            }
+            return (int) Math.round(aggregate.getMaxLivableArea());
+        }
+    };
+
+    /**
+     * @param aggregate the ZIP Code's property aggregate, or null if it has no properties
+     * @param population the ZIP Code's population, or 0 if unknown
+     * @return the metric, rounded to the nearest integer; 0 if there is no data
+     */
+    abstract int compute(ZipAggregate aggregate, int population);
+
+    /**
+     * @return true if the metric depends on the population dataset
+     */
+    boolean requiresPopulation() {
+        return false;
+    }
+
+    /**
+     * @return the number of property rows behind the aggregate, 0 for a ZIP Code without properties
+     */
+    static int propertyCount(ZipAggregate aggregate) {
+        return aggregate == null ? 0 : aggregate.getPropertyCount();
+    }
+
+    /**
+     * Adds the property rows behind every ZIP Code of a batch to the event. The lookups are only
+     * repeated while the event is being recorded.
+     */
+    static void countRowsScanned(QueryExecutionEvent event, PropertyZipIndex index, Collection<String> zipCodes) {
+        if (!event.isEnabled()) {
+            return;
+        }
+        for (String zipCode : zipCodes) {
+            if (zipCode != null && !zipCode.isEmpty()) {
+                event.addRowsScanned(propertyCount(index.get(zipCode)));
+            }
+        }
+    }
+
+    /**
+     * Computes several metrics for several ZIP Codes with one index lookup per ZIP Code.
+     * A null or empty ZIP Code gets 0 for every metric, as in the single-ZIP methods.
+     * @param populations the population table; only read if a requested metric requires it
+     * @return ZIP Code to metric to value, in the iteration order of {@code zipCodes}
+     */
+    static Map<String, Map<PropertyMetric, Integer>> computeAll(PropertyZipIndex index, PopulationTable populations,
+                                                               Collection<String> zipCodes, Set<PropertyMetric> metrics) {
+        Map<String, Map<PropertyMetric, Integer>> results = new LinkedHashMap<>();
+        for (String zipCode : zipCodes) {
+            boolean hasZipCode = zipCode != null && !zipCode.isEmpty();
+            ZipAggregate aggregate = hasZipCode ? index.get(zipCode) : null;
+            int population = 0;
+            Map<PropertyMetric, Integer> values = new EnumMap<>(PropertyMetric.class);
+            for (PropertyMetric metric : metrics) {
+                if (metric.requiresPopulation() && hasZipCode && population == 0) {
+                    population = populations.getPopulation(ZipCode.parse(zipCode));
+                }
+                values.put(metric, hasZipCode ? metric.compute(aggregate, population) : 0);
+            }
+            results.put(zipCode, values);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,224 @@
+package processor;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import metrics.QueryCacheEvent;
+
+/**
+ * Bounded, approximately least-recently-used cache for the results of ZIP-parameterized queries, shared by
+ * the services.
+ * Each entry remembers the dataset version it was computed from (the dataset objects handed out by the
+ * DatasetRepository, which are replaced when a file changes); an entry whose version no longer matches
+ * is treated as a miss and recomputed, so results never outlive the data they came from.
+ * Concurrent misses for the same query, ZIP Code and version share a single computation.
+ * <p>
+ * Lookups take no lock: entries live in a concurrent map, and a hit only marks its entry as referenced.
+ * Evictions follow the CLOCK ("second chance") approximation of LRU: inserting a result takes a lock and
+ * appends the entry to an insertion-ordered queue; once the cache is full, entries are taken from the head
+ * of the queue, and one that was referenced since it was last passed is unmarked and moved to the tail
+ * instead of being evicted. Each insert therefore does amortized constant work, which matters because
+ * the computations themselves are cheap index lookups and a miss-heavy workload inserts constantly.
+ * Every lookup is reported to Flight Recorder as a {@link QueryCacheEvent}.
+ */
+public class QueryCache {
+
+    /** Maximum number of cached results when no bound is configured. */
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private final int maximumSize;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Object insertLock = new Object();
+    // guarded by insertLock; may also hold entries already invalidated or replaced, which are skipped
+    private final ArrayDeque<Entry> evictionQueue = new ArrayDeque<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final SingleFlight<List<Object>> flights = new SingleFlight<>();
+
+    public QueryCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * @param maximumSize the maximum number of cached results (at least 1)
+     */
+    public QueryCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be at least 1");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the cached result of a query, computing and caching it on a miss.
+     * The computation runs without holding any lock, so slow queries do not block other lookups, and
+     * callers missing on the same key and version at the same time wait for one shared computation.
+     * @param query the name of the query, e.g. the service method
+     * @param zipCode the ZIP Code parameter
+     * @param dataVersion the dataset object(s) the result is computed from; compared with equals
+     * @param computation computes the result on a miss
+     * @return the result
+     */
+    public <V> V get(String query, String zipCode, Object dataVersion, Supplier<V> computation) {
+        Key key = new Key(query, zipCode);
+        QueryCacheEvent event = QueryCacheEvent.start(query, zipCode);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (Objects.equals(entry.dataVersion, dataVersion)) {
+                if (!entry.referenced) {
+                    entry.referenced = true;
+                }
+                hits.increment();
+                event.hit();
+                event.commit();
+                @SuppressWarnings("unchecked")
+                V value = (V) entry.value;
+                return value;
+            }
+            // computed from a dataset that has since been reloaded
+            if (entries.remove(key, entry)) {
+                invalidations.increment();
+            }
+            event.stale();
+        }
+        boolean[] computed = new boolean[1];
+        try {
+            return flights.execute(Arrays.asList(key, dataVersion), () -> {
+                // only the caller whose computation runs counts a miss; the others joined it
+                computed[0] = true;
+                misses.increment();
+                V value = computation.get();
+                insert(new Entry(key, value, dataVersion));
+                return value;
+            });
+        } finally {
+            if (!computed[0]) {
+                coalesced.increment();
+            }
+            event.commit();
+        }
+    }
+
+    private void insert(Entry entry) {
+        synchronized (insertLock) {
+            entries.put(entry.key, entry);
+            evictionQueue.addLast(entry);
+            while (entries.size() > maximumSize) {
+                Entry candidate = evictionQueue.pollFirst();
+                if (candidate == null) {
+                    break;
+                }
+                if (entries.get(candidate.key) != candidate) {
+                    continue; // invalidated or replaced since it was queued
+                }
+                if (candidate.referenced) {
+                    candidate.referenced = false;
+                    evictionQueue.addLast(candidate);
+                } else if (entries.remove(candidate.key, candidate)) {
+                    evictions.increment();
+                }
+            }
+            // entries dropped as stale leave their queue slot behind; clear those out before they pile up
+            if (evictionQueue.size() > 2 * maximumSize) {
+                evictionQueue.removeIf(queued -> entries.get(queued.key) != queued);
+            }
+        }
+    }
+
+    /**
+     * Removes every cached result.
+     */
+    public void invalidateAll() {
+        synchronized (insertLock) {
+            invalidations.add(entries.size());
+            entries.clear();
+            evictionQueue.clear();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /** @return the number of lookups answered from the cache */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /** @return the number of lookups that had to compute their result */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /** @return the number of lookups that missed but waited for another caller's computation of the same result */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /** @return the number of results dropped to stay within the size bound */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /** @return the number of results dropped because their dataset was reloaded or the cache was cleared */
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "QueryCache{size=" + size() + ", maximumSize=" + maximumSize + ", hits=" + getHits()
+                + ", misses=" + getMisses() + ", coalesced=" + getCoalesced() + ", evictions=" + getEvictions()
+                + ", invalidations=" + getInvalidations() + "}";
+    }
+
+    private static final class Key {
+        private final String query;
+        private final String zipCode;
+
+        Key(String query, String zipCode) {
+            this.query = query;
+            this.zipCode = zipCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return query.equals(key.query) && Objects.equals(zipCode, key.zipCode);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * query.hashCode() + Objects.hashCode(zipCode);
+        }
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private final Object value;
+        private final Object dataVersion;
+        // set by hits without a lock and cleared by the eviction sweep under insertLock
+        private volatile boolean referenced;
+
+        Entry(Key key, Object value, Object dataVersion) {
+            this.key = key;
+            this.value = value;
+            this.dataVersion = dataVersion;
+        }
+    }
+}
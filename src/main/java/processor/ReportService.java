@@ -0,0 +1,98 @@
+package processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import common.PopulationTable;
+import common.ZipCode;
+import data.DatasetRepository;
+
+public class ReportService {
+
+    private final DatasetRepository datasetRepository;
+    private final FinesService finesService;
+    private final MarketValueService marketValueService;
+    private final ResidentialAreaService residentialAreaService;
+    private final Executor executor;
+
+    public ReportService(DatasetRepository datasetRepository, FinesService finesService,
+                         MarketValueService marketValueService, ResidentialAreaService residentialAreaService) {
+        this(datasetRepository, finesService, marketValueService, residentialAreaService, ServiceExecutors.VIRTUAL_THREADS);
+    }
+
+    /**
+     * @param executor runs the asynchronous methods; the fan-out stages run on the services' own executors
+     */
+    public ReportService(DatasetRepository datasetRepository, FinesService finesService,
+                         MarketValueService marketValueService, ResidentialAreaService residentialAreaService,
+                         Executor executor) {
+        this.datasetRepository = datasetRepository;
+        this.finesService = finesService;
+        this.marketValueService = marketValueService;
+        this.residentialAreaService = residentialAreaService;
+        this.executor = ServiceExecutors.requireExecutor(executor);
+    }
+
+    /**
+     * Menu Option 8: Show every metric for every ZIP Code in the population file.
+     * Each dataset is aggregated once (fines in one pass over the parking table, property metrics from
+     * the per-ZIP index built in one pass over the property table) and the results are joined by ZIP Code.
+     * @return one row per ZIP Code of the population file, in ascending ZIP Code order
+     */
+    public List<ZipReport> getReport() {
+        PopulationTable populations = datasetRepository.getPopulationTable();
+        List<String> zipCodes = zipCodesOf(populations);
+
+        Map<String, Double> finesPerCapita = finesService.getFinesPerCapitaPerZipCode();
+        Map<String, Map<PropertyMetric, Integer>> marketValues =
+                marketValueService.getMetrics(zipCodes, MarketValueService.METRICS);
+        Map<String, Map<PropertyMetric, Integer>> livableAreas =
+                residentialAreaService.getMetrics(zipCodes, ResidentialAreaService.METRICS);
+        return join(populations, zipCodes, finesPerCapita, marketValues, livableAreas);
+    }
+
+    /**
+     * Asynchronous {@link #getReport()}: the fines aggregation and the two property metric batches
+     * run concurrently, and the rows are joined once all three have completed.
+     */
+    public CompletableFuture<List<ZipReport>> getReportAsync() {
+        CompletableFuture<Map<String, Double>> finesPerCapita = finesService.getFinesPerCapitaPerZipCodeAsync();
+        return CompletableFuture.supplyAsync(datasetRepository::getPopulationTable, executor).thenCompose(populations -> {
+            List<String> zipCodes = zipCodesOf(populations);
+            CompletableFuture<Map<String, Map<PropertyMetric, Integer>>> marketValues =
+                    marketValueService.getMetricsAsync(zipCodes, MarketValueService.METRICS);
+            CompletableFuture<Map<String, Map<PropertyMetric, Integer>>> livableAreas =
+                    residentialAreaService.getMetricsAsync(zipCodes, ResidentialAreaService.METRICS);
+            return CompletableFuture.allOf(finesPerCapita, marketValues, livableAreas).thenApply(ignored ->
+                    join(populations, zipCodes, finesPerCapita.join(), marketValues.join(), livableAreas.join()));
+        });
+    }
+
+    private static List<String> zipCodesOf(PopulationTable populations) {
+        List<String> zipCodes = new ArrayList<>();
+        for (int zipCode = 0; zipCode < ZipCode.SPACE; zipCode++) {
+            if (populations.contains(zipCode)) {
+                zipCodes.add(ZipCode.format(zipCode));
+            }
+        }
+        return zipCodes;
+    }
+
+    private static List<ZipReport> join(PopulationTable populations, List<String> zipCodes,
+                                        Map<String, Double> finesPerCapita,
+                                        Map<String, Map<PropertyMetric, Integer>> marketValues,
+                                        Map<String, Map<PropertyMetric, Integer>> livableAreas) {
+        List<ZipReport> report = new ArrayList<>(zipCodes.size());
+        for (String zipCode : zipCodes) {
+            Map<PropertyMetric, Integer> propertyMetrics = marketValues.get(zipCode);
+            propertyMetrics.putAll(livableAreas.get(zipCode));
+            Double fines = finesPerCapita.get(zipCode);
+            report.add(new ZipReport(zipCode, populations.getPopulation(ZipCode.parse(zipCode)),
+                    fines == null ? 0.0 : fines, propertyMetrics));
+        }
+        return report;
+    }
+}
@@ -1,20 +1,58 @@
 package processor;
 
-import java.util.List;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
-import common.PropertyValue;
-import data.PropertyValueReader;
+import data.DatasetRepository;
+import data.PropertyZipIndex;
+import data.PropertyZipIndex.ZipAggregate;
+import metrics.Metrics;
+import metrics.QueryExecutionEvent;
+import metrics.Timer;
 
 public class ResidentialAreaService {
 
-    private String parkingViolationFilePath;
-    private String propertyValueFilePath;
-    private String populationFilePath;
+    /** The metrics answered by this service. */
+    public static final Set<PropertyMetric> METRICS = Collections.unmodifiableSet(EnumSet.of(
+            PropertyMetric.AVERAGE_RESIDENTIAL_AREA,
+            PropertyMetric.MIN_LIVABLE_AREA,
+            PropertyMetric.MAX_LIVABLE_AREA));
 
-    public ResidentialAreaService(String parkingViolationFilePath, String propertyValueFilePath, String populationFilePath) {
-        this.parkingViolationFilePath = parkingViolationFilePath;
-        this.propertyValueFilePath = propertyValueFilePath;
-        this.populationFilePath = populationFilePath;
+    private static final Timer AVERAGE_RESIDENTIAL_AREA_TIMER =
+            Metrics.serviceTimer("ResidentialAreaService", "getAverageResidentialArea");
+    private static final Timer MIN_AND_MAX_LIVABLE_AREAS_TIMER =
+            Metrics.serviceTimer("ResidentialAreaService", "getMinAndMaxLivableAreas");
+    private static final Timer GET_METRICS_TIMER =
+            Metrics.serviceTimer("ResidentialAreaService", "getMetrics");
+
+    private final DatasetRepository datasetRepository;
+    private final QueryCache queryCache;
+    private final Executor executor;
+
+    public ResidentialAreaService(DatasetRepository datasetRepository) {
+        this(datasetRepository, new QueryCache());
+    }
+
+    /**
+     * @param queryCache the result cache, typically shared with the other ZIP-parameterized services
+     */
+    public ResidentialAreaService(DatasetRepository datasetRepository, QueryCache queryCache) {
+        this(datasetRepository, queryCache, ServiceExecutors.VIRTUAL_THREADS);
+    }
+
+    /**
+     * @param queryCache the result cache, typically shared with the other ZIP-parameterized services
+     * @param executor runs the asynchronous methods
+     */
+    public ResidentialAreaService(DatasetRepository datasetRepository, QueryCache queryCache, Executor executor) {
+        this.datasetRepository = datasetRepository;
+        this.queryCache = queryCache;
+        this.executor = ServiceExecutors.requireExecutor(executor);
     }
 
     /**
@@ -23,26 +61,22 @@ public class ResidentialAreaService {
      * @return the average residential area for residences in the specified ZIP Code
      */
     public int getAverageResidentialArea(String zipCode) {
-        List<PropertyValue> propertyValues = PropertyValueReader.readCsvFile(propertyValueFilePath);
-        double totalArea = 0;
-        int count = 0;
-        if (zipCode == null || zipCode.isEmpty()) {
-            return 0;
-        }
-        for (PropertyValue pv : propertyValues) {
-            if (pv == null) continue;
-            String pvZip = pv.getZipCode();
-            Double area = pv.getTotalLivableArea();
-            if (pvZip == null || area == null) continue;
-            if (zipCode.equals(pvZip)) {
-                totalArea += area;
-                count++;
+        long start = System.nanoTime();
+        QueryExecutionEvent event = QueryExecutionEvent.start("ResidentialAreaService.getAverageResidentialArea", zipCode);
+        try {
+            if (zipCode == null || zipCode.isEmpty()) {
+                return 0;
             }
+            PropertyZipIndex index = datasetRepository.getPropertyZipIndex();
+            return queryCache.get("averageResidentialArea", zipCode, index, () -> {
+                ZipAggregate aggregate = index.get(zipCode);
+                event.addRowsScanned(PropertyMetric.propertyCount(aggregate));
+                return PropertyMetric.AVERAGE_RESIDENTIAL_AREA.compute(aggregate, 0);
+            });
+        } finally {
+            AVERAGE_RESIDENTIAL_AREA_TIMER.recordSince(start);
+            event.commit();
         }
-        if (count == 0) {
-            return 0;
-        }
-        return (int)Math.round(totalArea / count);
     }   
 
     /**
@@ -51,34 +85,78 @@ public class ResidentialAreaService {
      * @return an array where the first element is the minimum and the second is the maximum livable area
      */
     public int[] getMinAndMaxLivableAreas(String zipCode) {
-        List<PropertyValue> propertyValues = PropertyValueReader.readCsvFile(propertyValueFilePath);
-        if (zipCode == null || zipCode.isEmpty()) {
-            return new int[]{0, 0};
-        }
-        
-        Double minArea = null;
-        Double maxArea = null;
-        
-        for (PropertyValue pv : propertyValues) {
-            if (pv == null) continue;
-            String pvZip = pv.getZipCode();
-            Double area = pv.getTotalLivableArea();
-            if (pvZip == null || area == null) continue;
-            if (zipCode.equals(pvZip)) {
-                if (minArea == null || area < minArea) {
-                    minArea = area;
-                }
-                if (maxArea == null || area > maxArea) {
-                    maxArea = area;
-                }
+        long start = System.nanoTime();
+        QueryExecutionEvent event = QueryExecutionEvent.start("ResidentialAreaService.getMinAndMaxLivableAreas", zipCode);
+        try {
+            if (zipCode == null || zipCode.isEmpty()) {
+                return new int[]{0, 0};
             }
+
+            PropertyZipIndex index = datasetRepository.getPropertyZipIndex();
+            int[] minAndMax = queryCache.get("minAndMaxLivableAreas", zipCode, index, () -> {
+                ZipAggregate aggregate = index.get(zipCode);
+                event.addRowsScanned(PropertyMetric.propertyCount(aggregate));
+                return new int[]{
+                        PropertyMetric.MIN_LIVABLE_AREA.compute(aggregate, 0),
+                        PropertyMetric.MAX_LIVABLE_AREA.compute(aggregate, 0)
+                };
+            });
+            // the cached array is shared, so callers get their own copy
+            return minAndMax.clone();
+        } finally {
+            MIN_AND_MAX_LIVABLE_AREAS_TIMER.recordSince(start);
+            event.commit();
         }
-        
-        if (minArea == null || maxArea == null) {
-            return new int[]{0, 0};
+    }
+
+    /**
+     * Batch variant of options 4 and 7: computes the requested metrics for every given ZIP Code
+     * from one snapshot of the property index, with a single lookup per ZIP Code.
+     * @param zipCodes the ZIP Codes to compute the metrics for
+     * @param metrics any of AVERAGE_RESIDENTIAL_AREA, MIN_LIVABLE_AREA and MAX_LIVABLE_AREA
+     * @return ZIP Code to metric to value, in the iteration order of {@code zipCodes}
+     * @throws IllegalArgumentException if an argument is null or a metric is not a livable area metric
+     */
+    public Map<String, Map<PropertyMetric, Integer>> getMetrics(Collection<String> zipCodes, Set<PropertyMetric> metrics) {
+        long start = System.nanoTime();
+        QueryExecutionEvent event = QueryExecutionEvent.start("ResidentialAreaService.getMetrics", null);
+        try {
+            if (zipCodes == null || metrics == null) {
+                throw new IllegalArgumentException("ZIP Codes and metrics cannot be null");
+            }
+            if (!METRICS.containsAll(metrics)) {
+                throw new IllegalArgumentException("Unsupported metrics: " + metrics);
+            }
+            PropertyZipIndex index = datasetRepository.getPropertyZipIndex();
+            PropertyMetric.countRowsScanned(event, index, zipCodes);
+            return PropertyMetric.computeAll(index, null, zipCodes, metrics);
+        } finally {
+            GET_METRICS_TIMER.recordSince(start);
+            event.commit();
         }
-        
-        return new int[]{(int)Math.round(minArea), (int)Math.round(maxArea)};
     }
-    
+
+    /**
+     * Asynchronous {@link #getAverageResidentialArea(String)}, run on this service's executor.
+     */
+    public CompletableFuture<Integer> getAverageResidentialAreaAsync(String zipCode) {
+        return CompletableFuture.supplyAsync(() -> getAverageResidentialArea(zipCode), executor);
+    }
+
+    /**
+     * Asynchronous {@link #getMinAndMaxLivableAreas(String)}, run on this service's executor.
+     */
+    public CompletableFuture<int[]> getMinAndMaxLivableAreasAsync(String zipCode) {
+        return CompletableFuture.supplyAsync(() -> getMinAndMaxLivableAreas(zipCode), executor);
+    }
+
+    /**
+     * Asynchronous {@link #getMetrics(Collection, Set)}, run on this service's executor.
+     * Invalid arguments complete the future exceptionally with an IllegalArgumentException.
+     */
+    public CompletableFuture<Map<String, Map<PropertyMetric, Integer>>> getMetricsAsync(Collection<String> zipCodes,
+                                                                                       Set<PropertyMetric> metrics) {
+        return CompletableFuture.supplyAsync(() -> getMetrics(zipCodes, metrics), executor);
+    }
+
 }
@@ -0,0 +1,25 @@
+package processor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executors for the asynchronous service methods.
+ */
+final class ServiceExecutors {
+
+    /**
+     * Runs each task on a new virtual thread. A task may block on the first load of a dataset,
+     * so the default must not tie up a bounded pool such as the common fork/join pool.
+     */
+    static final Executor VIRTUAL_THREADS = task -> Thread.ofVirtual().name("service-async").start(task);
+
+    private ServiceExecutors() {
+    }
+
+    static Executor requireExecutor(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        return executor;
+    }
+}
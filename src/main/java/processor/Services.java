@@ -0,0 +1,74 @@
+package processor;
+
+import data.DatasetRepository;
+
+/**
+ * The menu's services wired over one dataset repository, with the ZIP-parameterized services sharing
+ * one result cache. Every front end (menu, report, batch, server, load test) builds its services here,
+ * so they all answer from the same wiring.
+ */
+public class Services {
+
+    /** System property overriding the bound of the shared query cache. */
+    public static final String QUERY_CACHE_SIZE_PROPERTY = "queryCache.maximumSize";
+
+    private final DatasetRepository datasetRepository;
+    private final QueryCache queryCache;
+    private final PopulationService populationService;
+    private final FinesService finesService;
+    private final MarketValueService marketValueService;
+    private final ResidentialAreaService residentialAreaService;
+    private final ReportService reportService;
+
+    /**
+     * Wires the services with a query cache bounded by {@value #QUERY_CACHE_SIZE_PROPERTY}, or by
+     * {@link QueryCache#DEFAULT_MAXIMUM_SIZE} when it is not set.
+     */
+    public Services(DatasetRepository datasetRepository) {
+        this(datasetRepository, Integer.getInteger(QUERY_CACHE_SIZE_PROPERTY, QueryCache.DEFAULT_MAXIMUM_SIZE));
+    }
+
+    /**
+     * @param queryCacheSize the bound of the shared query cache (at least 1)
+     */
+    public Services(DatasetRepository datasetRepository, int queryCacheSize) {
+        if (datasetRepository == null) {
+            throw new IllegalArgumentException("Dataset repository cannot be null");
+        }
+        this.datasetRepository = datasetRepository;
+        this.queryCache = new QueryCache(queryCacheSize);
+        this.populationService = new PopulationService(datasetRepository);
+        this.finesService = new FinesService(datasetRepository);
+        this.marketValueService = new MarketValueService(datasetRepository, queryCache);
+        this.residentialAreaService = new ResidentialAreaService(datasetRepository, queryCache);
+        this.reportService = new ReportService(datasetRepository, finesService, marketValueService, residentialAreaService);
+    }
+
+    public DatasetRepository getDatasetRepository() {
+        return datasetRepository;
+    }
+
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    public PopulationService getPopulationService() {
+        return populationService;
+    }
+
+    public FinesService getFinesService() {
+        return finesService;
+    }
+
+    public MarketValueService getMarketValueService() {
+        return marketValueService;
+    }
+
+    public ResidentialAreaService getResidentialAreaService() {
+        return residentialAreaService;
+    }
+
+    public ReportService getReportService() {
+        return reportService;
+    }
+}
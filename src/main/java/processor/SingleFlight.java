@@ -0,0 +1,66 @@
+package processor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical computations: while a computation for a key is in flight, other
+ * callers asking for the same key wait for it and receive its result (or its exception) instead of
+ * starting their own. The in-flight map is only touched to register and remove a computation, never
+ * while computing, so callers with different keys never block each other.
+ * Nothing is retained once a computation finishes; caching is the caller's concern.
+ */
+public class SingleFlight<K> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the computation for a key, or joins the one already running for an equal key.
+     * @param key identifies the question being asked
+     * @param computation computes the answer; runs on the calling thread of the first caller
+     * @return the answer shared by every caller that joined the same flight
+     */
+    public <V> V execute(K key, Supplier<V> computation) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            V value = computation.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * @return the number of computations currently in flight
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V await(CompletableFuture<Object> flight) {
+        try {
+            return (V) flight.join();
+        } catch (CompletionException e) {
+            // rethrow what the computing caller saw
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
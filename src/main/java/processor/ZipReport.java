@@ -0,0 +1,46 @@
+package processor;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One row of the full-city report: every metric the menu offers, for one ZIP Code.
+ */
+public class ZipReport {
+
+    private final String zipCode;
+    private final int population;
+    private final double finesPerCapita;
+    private final Map<PropertyMetric, Integer> propertyMetrics;
+
+    public ZipReport(String zipCode, int population, double finesPerCapita, Map<PropertyMetric, Integer> propertyMetrics) {
+        this.zipCode = zipCode;
+        this.population = population;
+        this.finesPerCapita = finesPerCapita;
+        this.propertyMetrics = Collections.unmodifiableMap(new EnumMap<>(propertyMetrics));
+    }
+
+    public String getZipCode() {
+        return zipCode;
+    }
+
+    public int getPopulation() {
+        return population;
+    }
+
+    /** @return the parking fines per capita, or 0 if the ZIP Code has no qualifying fines */
+    public double getFinesPerCapita() {
+        return finesPerCapita;
+    }
+
+    /** @return the value of a property metric, or 0 if it has no data */
+    public int getPropertyMetric(PropertyMetric metric) {
+        Integer value = propertyMetrics.get(metric);
+        return value == null ? 0 : value;
+    }
+
+    public Map<PropertyMetric, Integer> getPropertyMetrics() {
+        return propertyMetrics;
+    }
+}
@@ -0,0 +1,531 @@
+package tools;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+
+/**
+ * Writes synthetic input files in the formats the readers accept, for benchmarks and soak tests:
+ * parking.csv and parking.json (the same violations in both), property.csv and population.txt.
+ * <p>
+ * The output depends only on the options: each file draws from its own random sequence derived
+ * from the seed, so the same options always produce byte-identical files, and changing one file's
+ * row count does not change the others. Rows are streamed to disk, so 100M-row files need no more
+ * memory than small ones.
+ * <p>
+ * A configurable share of rows is malformed in a way the readers skip (bad timestamp, negative or
+ * non-numeric fine, missing field, truncated property row, non-numeric population); the generator
+ * reports how many it wrote so tests can predict exactly how many rows the readers return.
+ * <p>
+ * Usage: {@code java tools.DataGenerator --out=DIR [--parking-rows=N] [--property-rows=N]
+ * [--zip-codes=N] [--zip-skew=S] [--seed=N] [--malformed-rate=R] [--missing-rate=R]
+ * [--zip-plus-four-rate=R] [--pennsylvania-rate=R] [--market-value-median=V]
+ * [--market-value-sigma=S] [--livable-area-mean=A] [--livable-area-stddev=A] [--formats=csv,json]}
+ */
+public final class DataGenerator {
+
+  private static final int FIRST_ZIP_CODE = 19102;
+  private static final int MAX_ZIP_CODES = 99999 - FIRST_ZIP_CODE + 1;
+  private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+  private static final String[] VIOLATIONS = {
+          "METER EXPIRED CC", "DOUBLE PARKED", "EXPIRED INSPECTION", "BLOCKING DRIVEWAY", "BUS ONLY ZONE",
+          "STOP PROHIBITED CC", "PARKING PROHBITED", "OVER TIME LIMIT", "HP RESERVED SPACE", "FIRE HYDRANT"
+  };
+  private static final int[] FINES = {26, 31, 36, 41, 51, 76, 101, 301};
+  private static final String[] OTHER_STATES = {"NJ", "NY", "DE", "MD", "FL", "VA", "OH", "CA"};
+  private static final String[] CATEGORIES = {"SINGLE FAMILY", "MULTI FAMILY", "MIXED USE", "APARTMENTS", "VACANT LAND"};
+  private static final String[] BUILDING_CODES = {"ROW 2 STY MASONRY", "ROW 3 STY MASONRY", "TWIN CONVENTIONAL",
+          "DET 2 STY FRAME", "APTS 5-50 UNITS MASONRY"};
+  private static final String[] STREETS = {"MARKET ST", "CHESTNUT ST", "WALNUT ST", "SPRUCE ST", "PINE ST",
+          "BROAD ST", "GIRARD AVE", "SPRING GARDEN ST", "CHRISTIAN ST", "BALTIMORE AVE"};
+
+  // distinct streams per file, so each file is independent of the others' row counts
+  private static final long PARKING_STREAM = 1;
+  private static final long PROPERTY_STREAM = 2;
+  private static final long POPULATION_STREAM = 3;
+
+  private static final long FIRST_TIMESTAMP = LocalDateTime.of(2012, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+  private static final long TIMESTAMP_RANGE = LocalDateTime.of(2024, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC)
+          - FIRST_TIMESTAMP;
+
+  private DataGenerator() {
+  }
+
+  /**
+   * What to generate. Every field has a default, except the output directory.
+   */
+  public static final class Options {
+    private Path outputDirectory;
+    private long parkingRows = 100_000;
+    private long propertyRows = 100_000;
+    private int zipCodes = 50;
+    private double zipSkew = 1.0;
+    private long seed = 1;
+    private double malformedRate = 0.01;
+    private double missingRate = 0.05;
+    private double zipPlusFourRate = 0.3;
+    private double pennsylvaniaRate = 0.8;
+    private double marketValueMedian = 180_000;
+    private double marketValueSigma = 0.8;
+    private double livableAreaMean = 1_400;
+    private double livableAreaStddev = 600;
+    private boolean writeCsv = true;
+    private boolean writeJson = true;
+
+    /**
+     * Parses {@code --name=value} arguments.
+     * @throws IllegalArgumentException if an argument is unknown, malformed or out of range
+     */
+    public static Options parse(String[] args) {
+      Options options = new Options();
+      for (String arg : args) {
+        int equals = arg.indexOf('=');
+        if (!arg.startsWith("--") || equals < 0) {
+          throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+        }
+        String name = arg.substring(2, equals);
+        String value = arg.substring(equals + 1);
+        try {
+          switch (name) {
+            case "out": options.outputDirectory(Paths.get(value)); break;
+            case "parking-rows": options.parkingRows(Long.parseLong(value)); break;
+            case "property-rows": options.propertyRows(Long.parseLong(value)); break;
+            case "zip-codes": options.zipCodes(Integer.parseInt(value)); break;
+            case "zip-skew": options.zipSkew(Double.parseDouble(value)); break;
+            case "seed": options.seed(Long.parseLong(value)); break;
+            case "malformed-rate": options.malformedRate(Double.parseDouble(value)); break;
+            case "missing-rate": options.missingRate(Double.parseDouble(value)); break;
+            case "zip-plus-four-rate": options.zipPlusFourRate(Double.parseDouble(value)); break;
+            case "pennsylvania-rate": options.pennsylvaniaRate(Double.parseDouble(value)); break;
+            case "market-value-median": options.marketValueMedian(Double.parseDouble(value)); break;
+            case "market-value-sigma": options.marketValueSigma(Double.parseDouble(value)); break;
+            case "livable-area-mean": options.livableAreaMean(Double.parseDouble(value)); break;
+            case "livable-area-stddev": options.livableAreaStddev(Double.parseDouble(value)); break;
+            case "formats": options.formats(value); break;
+            default: throw new IllegalArgumentException("Unknown option: --" + name);
+          }
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Invalid number for --" + name + ": " + value);
+        }
+      }
+      if (options.outputDirectory == null) {
+        throw new IllegalArgumentException("Missing --out=<directory>");
+      }
+      return options;
+    }
+
+    public Options outputDirectory(Path outputDirectory) {
+      if (outputDirectory == null) {
+        throw new IllegalArgumentException("Output directory cannot be null");
+      }
+      this.outputDirectory = outputDirectory;
+      return this;
+    }
+
+    public Options parkingRows(long parkingRows) {
+      this.parkingRows = requireNonNegative("Parking rows", parkingRows);
+      return this;
+    }
+
+    public Options propertyRows(long propertyRows) {
+      this.propertyRows = requireNonNegative("Property rows", propertyRows);
+      return this;
+    }
+
+    /** @param zipCodes the number of distinct ZIP Codes, starting at 19102 */
+    public Options zipCodes(int zipCodes) {
+      if (zipCodes < 1 || zipCodes > MAX_ZIP_CODES) {
+        throw new IllegalArgumentException("ZIP Codes must be between 1 and " + MAX_ZIP_CODES);
+      }
+      this.zipCodes = zipCodes;
+      return this;
+    }
+
+    /** @param zipSkew Zipf exponent of the ZIP Code frequencies; 0 is uniform */
+    public Options zipSkew(double zipSkew) {
+      if (!(zipSkew >= 0)) {
+        throw new IllegalArgumentException("ZIP skew must be non-negative");
+      }
+      this.zipSkew = zipSkew;
+      return this;
+    }
+
+    public Options seed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    /** @param malformedRate the share of rows in every file that the readers skip */
+    public Options malformedRate(double malformedRate) {
+      this.malformedRate = requireRate("Malformed rate", malformedRate);
+      return this;
+    }
+
+    /** @param missingRate the share of property rows with an empty market value, and separately an empty area */
+    public Options missingRate(double missingRate) {
+      this.missingRate = requireRate("Missing rate", missingRate);
+      return this;
+    }
+
+    /** @param zipPlusFourRate the share of property ZIP Codes written in ZIP+4 form */
+    public Options zipPlusFourRate(double zipPlusFourRate) {
+      this.zipPlusFourRate = requireRate("ZIP+4 rate", zipPlusFourRate);
+      return this;
+    }
+
+    /** @param pennsylvaniaRate the share of violations with a PA plate */
+    public Options pennsylvaniaRate(double pennsylvaniaRate) {
+      this.pennsylvaniaRate = requireRate("Pennsylvania rate", pennsylvaniaRate);
+      return this;
+    }
+
+    /** @param marketValueMedian median of the log-normal market value distribution */
+    public Options marketValueMedian(double marketValueMedian) {
+      this.marketValueMedian = requirePositive("Market value median", marketValueMedian);
+      return this;
+    }
+
+    /** @param marketValueSigma standard deviation of the log of the market value */
+    public Options marketValueSigma(double marketValueSigma) {
+      this.marketValueSigma = requireNonNegative("Market value sigma", marketValueSigma);
+      return this;
+    }
+
+    /** @param livableAreaMean mean of the normal livable area distribution, in square feet */
+    public Options livableAreaMean(double livableAreaMean) {
+      this.livableAreaMean = requirePositive("Livable area mean", livableAreaMean);
+      return this;
+    }
+
+    public Options livableAreaStddev(double livableAreaStddev) {
+      this.livableAreaStddev = requireNonNegative("Livable area standard deviation", livableAreaStddev);
+      return this;
+    }
+
+    /** @param formats the parking file formats to write: "csv", "json" or "csv,json" */
+    public Options formats(String formats) {
+      boolean csv = false;
+      boolean json = false;
+      for (String format : formats.split(",")) {
+        switch (format.trim()) {
+          case "csv": csv = true; break;
+          case "json": json = true; break;
+          default: throw new IllegalArgumentException("Unknown parking format: " + format);
+        }
+      }
+      this.writeCsv = csv;
+      this.writeJson = json;
+      return this;
+    }
+
+    private static long requireNonNegative(String name, long value) {
+      if (value < 0) {
+        throw new IllegalArgumentException(name + " must be non-negative");
+      }
+      return value;
+    }
+
+    private static double requireNonNegative(String name, double value) {
+      if (!(value >= 0) || Double.isInfinite(value)) {
+        throw new IllegalArgumentException(name + " must be a non-negative number");
+      }
+      return value;
+    }
+
+    private static double requirePositive(String name, double value) {
+      if (!(value > 0) || Double.isInfinite(value)) {
+        throw new IllegalArgumentException(name + " must be a positive number");
+      }
+      return value;
+    }
+
+    private static double requireRate(String name, double value) {
+      if (!(value >= 0 && value <= 1)) {
+        throw new IllegalArgumentException(name + " must be between 0 and 1");
+      }
+      return value;
+    }
+  }
+
+  /**
+   * The number of rows written per file, and how many of them the readers will skip.
+   */
+  public static final class Summary {
+    private long parkingRows;
+    private long malformedParkingRows;
+    private long propertyRows;
+    private long malformedPropertyRows;
+    private long populationRows;
+    private long malformedPopulationRows;
+
+    public long getParkingRows() {
+      return parkingRows;
+    }
+
+    public long getMalformedParkingRows() {
+      return malformedParkingRows;
+    }
+
+    public long getPropertyRows() {
+      return propertyRows;
+    }
+
+    public long getMalformedPropertyRows() {
+      return malformedPropertyRows;
+    }
+
+    public long getPopulationRows() {
+      return populationRows;
+    }
+
+    public long getMalformedPopulationRows() {
+      return malformedPopulationRows;
+    }
+
+    @Override
+    public String toString() {
+      return "parking: " + parkingRows + " rows (" + malformedParkingRows + " malformed), property: "
+              + propertyRows + " rows (" + malformedPropertyRows + " malformed), population: "
+              + populationRows + " rows (" + malformedPopulationRows + " malformed)";
+    }
+  }
+
+  /**
+   * @return the ZIP Code with the given index; index 0 is the most frequent when the ZIP skew is positive
+   */
+  public static String zipCode(int index) {
+    return Integer.toString(FIRST_ZIP_CODE + index);
+  }
+
+  /**
+   * Writes every file into the output directory, creating it if needed and replacing existing files.
+   * @return the row counts written
+   * @throws IOException if a file cannot be written
+   */
+  public static Summary generate(Options options) throws IOException {
+    if (options == null || options.outputDirectory == null) {
+      throw new IllegalArgumentException("Options must name an output directory");
+    }
+    Files.createDirectories(options.outputDirectory);
+    ZipCodeSampler zipCodes = new ZipCodeSampler(options.zipCodes, options.zipSkew);
+    Summary summary = new Summary();
+    writeParking(options, zipCodes, summary);
+    writeProperty(options, zipCodes, summary);
+    writePopulation(options, summary);
+    return summary;
+  }
+
+  private static void writeParking(Options options, ZipCodeSampler zipCodes, Summary summary) throws IOException {
+    if (!options.writeCsv && !options.writeJson) {
+      return;
+    }
+    SplittableRandom random = new SplittableRandom(options.seed * 31 + PARKING_STREAM);
+    Path directory = options.outputDirectory;
+    try (Writer csv = options.writeCsv ? newWriter(directory.resolve("parking.csv")) : Writer.nullWriter();
+         Writer json = options.writeJson ? newWriter(directory.resolve("parking.json")) : Writer.nullWriter()) {
+      StringBuilder csvLine = new StringBuilder(128);
+      StringBuilder jsonObject = new StringBuilder(256);
+      json.write('[');
+      for (long row = 0; row < options.parkingRows; row++) {
+        String date = formatTimestamp(FIRST_TIMESTAMP + random.nextLong(TIMESTAMP_RANGE));
+        String fine = Integer.toString(FINES[random.nextInt(FINES.length)]);
+        String violation = VIOLATIONS[random.nextInt(VIOLATIONS.length)];
+        String plate = Integer.toString(1_000_000 + random.nextInt(9_000_000));
+        String state = random.nextDouble() < options.pennsylvaniaRate
+                ? "PA" : OTHER_STATES[random.nextInt(OTHER_STATES.length)];
+        long ticket = 2_900_000L + row;
+        String zipCode = zipCode(zipCodes.next(random));
+        boolean missingZipCode = false;
+
+        if (random.nextDouble() < options.malformedRate) {
+          summary.malformedParkingRows++;
+          switch (random.nextInt(3)) {
+            case 0: date = "2013-13-45T99:00:00Z"; break;
+            case 1: fine = "-" + fine; break;
+            default: missingZipCode = true; break;
+          }
+        }
+
+        csvLine.setLength(0);
+        csvLine.append(date).append(',').append(fine).append(',').append(violation).append(',')
+               .append(plate).append(',').append(state).append(',').append(ticket);
+        if (!missingZipCode) {
+          csvLine.append(',').append(zipCode);
+        }
+        csvLine.append('\n');
+        csv.append(csvLine);
+
+        jsonObject.setLength(0);
+        if (row > 0) {
+          jsonObject.append(',');
+        }
+        jsonObject.append("{\"ticket_number\":").append(ticket)
+                  .append(",\"plate_id\":\"").append(plate)
+                  .append("\",\"date\":\"").append(date)
+                  .append("\",\"zip_code\":");
+        if (missingZipCode) {
+          jsonObject.append("null");
+        } else {
+          jsonObject.append('"').append(zipCode).append('"');
+        }
+        jsonObject.append(",\"violation\":\"").append(violation)
+                  .append("\",\"fine\":").append(fine)
+                  .append(",\"state\":\"").append(state).append("\"}\n");
+        json.append(jsonObject);
+      }
+      json.write(']');
+    }
+    summary.parkingRows = options.parkingRows;
+  }
+
+  private static void writeProperty(Options options, ZipCodeSampler zipCodes, Summary summary) throws IOException {
+    SplittableRandom random = new SplittableRandom(options.seed * 31 + PROPERTY_STREAM);
+    double logMedian = Math.log(options.marketValueMedian);
+    // no field contains a comma: the property reader splits rows on every comma
+    try (Writer csv = newWriter(options.outputDirectory.resolve("property.csv"))) {
+      csv.write("objectid,parcel_number,location,category_code_description,building_code_description,"
+              + "number_of_bedrooms,number_of_bathrooms,year_built,sale_price,market_value,total_area,"
+              + "total_livable_area,zip_code,assessment_date\n");
+      StringBuilder line = new StringBuilder(256);
+      for (long row = 0; row < options.propertyRows; row++) {
+        String marketValue = random.nextDouble() < options.missingRate
+                ? "" : Long.toString(Math.round(Math.exp(logMedian + options.marketValueSigma * random.nextGaussian())));
+        String livableArea;
+        if (random.nextDouble() < options.missingRate) {
+          livableArea = "";
+        } else {
+          // a few vacant lots with no livable area, as in the real data
+          double area = random.nextInt(50) == 0 ? 0
+                  : Math.max(100, options.livableAreaMean + options.livableAreaStddev * random.nextGaussian());
+          livableArea = Long.toString(Math.round(area));
+        }
+        String zipCode = zipCode(zipCodes.next(random));
+        if (random.nextDouble() < options.zipPlusFourRate) {
+          zipCode = zipCode + "-" + (1000 + random.nextInt(9000));
+        }
+
+        line.setLength(0);
+        line.append(row).append(',')
+            .append(880_000_000L + row).append(',')
+            .append(1 + random.nextInt(9_999)).append(' ').append(STREETS[random.nextInt(STREETS.length)]).append(',')
+            .append(CATEGORIES[random.nextInt(CATEGORIES.length)]).append(',')
+            .append(BUILDING_CODES[random.nextInt(BUILDING_CODES.length)]).append(',')
+            .append(random.nextInt(7)).append(',')
+            .append(1 + random.nextInt(4)).append(',')
+            .append(1880 + random.nextInt(145)).append(',')
+            .append(1_000 * random.nextInt(1_000)).append(',')
+            .append(marketValue).append(',')
+            .append(500 + random.nextInt(5_000)).append(',')
+            .append(livableArea).append(',')
+            .append(zipCode).append(',')
+            .append("2024-05-31");
+        if (random.nextDouble() < options.malformedRate) {
+          // a truncated row, too short to reach the required columns
+          summary.malformedPropertyRows++;
+          line.setLength(line.indexOf(","));
+        }
+        line.append('\n');
+        csv.append(line);
+      }
+    }
+    summary.propertyRows = options.propertyRows;
+  }
+
+  private static void writePopulation(Options options, Summary summary) throws IOException {
+    SplittableRandom random = new SplittableRandom(options.seed * 31 + POPULATION_STREAM);
+    try (Writer txt = newWriter(options.outputDirectory.resolve("population.txt"))) {
+      for (int index = 0; index < options.zipCodes; index++) {
+        String population = Integer.toString(1_000 + random.nextInt(60_000));
+        if (random.nextDouble() < options.malformedRate) {
+          summary.malformedPopulationRows++;
+          population = "n/a";
+        }
+        txt.write(zipCode(index) + " " + population + "\n");
+      }
+    }
+    summary.populationRows = options.zipCodes;
+  }
+
+  private static Writer newWriter(Path path) throws IOException {
+    return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8),
+            WRITE_BUFFER_SIZE);
+  }
+
+  private static String formatTimestamp(long epochSecond) {
+    LocalDateTime time = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    StringBuilder text = new StringBuilder(20);
+    text.append(time.getYear()).append('-');
+    appendTwoDigits(text, time.getMonthValue()).append('-');
+    appendTwoDigits(text, time.getDayOfMonth()).append('T');
+    appendTwoDigits(text, time.getHour()).append(':');
+    appendTwoDigits(text, time.getMinute()).append(':');
+    appendTwoDigits(text, time.getSecond()).append('Z');
+    return text.toString();
+  }
+
+  private static StringBuilder appendTwoDigits(StringBuilder text, int value) {
+    return text.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+  }
+
+  /**
+   * Draws ZIP Code indexes with Zipf-distributed frequencies: index i has weight 1 / (i + 1)^skew.
+   */
+  static final class ZipCodeSampler {
+    private final double[] cumulativeWeights;
+
+    ZipCodeSampler(int zipCodes, double skew) {
+      cumulativeWeights = new double[zipCodes];
+      double total = 0;
+      for (int i = 0; i < zipCodes; i++) {
+        total += 1 / Math.pow(i + 1, skew);
+        cumulativeWeights[i] = total;
+      }
+    }
+
+    int next(SplittableRandom random) {
+      double target = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+      int low = 0;
+      int high = cumulativeWeights.length - 1;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (cumulativeWeights[middle] <= target) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+  }
+
+  public static void main(String[] args) {
+    Options options;
+    try {
+      options = Options.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error: " + e.getMessage());
+      System.err.println("Usage: java tools.DataGenerator --out=<directory> [--parking-rows=N] [--property-rows=N]"
+              + " [--zip-codes=N] [--zip-skew=S] [--seed=N] [--malformed-rate=R] [--missing-rate=R]"
+              + " [--zip-plus-four-rate=R] [--pennsylvania-rate=R] [--market-value-median=V]"
+              + " [--market-value-sigma=S] [--livable-area-mean=A] [--livable-area-stddev=A] [--formats=csv,json]");
+      System.exit(1);
+      return;
+    }
+    try {
+      Summary summary = generate(options);
+      System.out.println("Wrote " + options.outputDirectory + ": " + summary);
+    } catch (IOException e) {
+      System.err.println("Error writing files: " + e.getMessage());
+      System.exit(1);
+    }
+  }
+}
@@ -0,0 +1,531 @@
+package tools;
+
+import data.DatasetRepository;
+import data.JsonPullParser;
+import metrics.LatencyHistogram;
+import processor.QueryCache;
+import processor.Services;
+import ui.BatchRunner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the processor services from concurrent clients and reports throughput and latency percentiles,
+ * to see how the service layer behaves under load before it is put behind a shared server.
+ * <p>
+ * The queries come from a request log in the JSON Lines format of the batch mode (one
+ * {@code {"option": 3, "zip_code": "19104"}} object per line, parsed by {@link BatchRunner.Request}), replayed in order
+ * and from the start again when it runs out, or from a synthetic mix of menu options over the ZIP Codes
+ * of {@link DataGenerator}, drawn with the same Zipf skew as the generated data.
+ * <p>
+ * Each client is a virtual thread. Without a target rate the clients send their next query as soon as
+ * the last one returns (closed loop). With a target rate the queries are scheduled at fixed intervals and
+ * a query's latency runs from its scheduled time, so time spent queued behind a slow query is counted
+ * rather than hidden. Queries scheduled during the warmup are run but not reported.
+ * The datasets are loaded before the clock starts.
+ * <p>
+ * Usage: {@code java tools.LoadTest --parking=FILE --property=FILE --population=FILE [--requests=FILE]
+ * [--mix=1:1,2:1,3:4,...] [--zip-codes=N] [--zip-skew=S] [--seed=N] [--clients=N] [--rate=R]
+ * [--warmup=SECONDS] [--duration=SECONDS] [--cache-size=N]}
+ */
+public final class LoadTest {
+
+  /** The menu options the services answer. */
+  static final int OPTIONS = 8;
+
+  private static final int SYNTHETIC_QUERIES = 1 << 16;
+  private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+  private static final double NANOS_PER_MILLISECOND = 1e6;
+
+  private LoadTest() {
+  }
+
+  /**
+   * How to run the load. Every field has a default, except the dataset files.
+   */
+  public static final class Options {
+    private String parkingFile;
+    private String propertyFile;
+    private String populationFile;
+    private Path requestFile;
+    // weight of each option, 1 to 8; the report (option 8) is left out of the default mix
+    private double[] mix = {0, 1, 1, 4, 4, 4, 4, 4, 0};
+    private int zipCodes = 50;
+    private double zipSkew = 1.0;
+    private long seed = 1;
+    private int clients = 16;
+    private double rate;
+    private Duration warmup = Duration.ofSeconds(5);
+    private Duration duration = Duration.ofSeconds(30);
+    private int cacheSize = QueryCache.DEFAULT_MAXIMUM_SIZE;
+
+    /**
+     * Parses {@code --name=value} arguments.
+     * @throws IllegalArgumentException if an argument is unknown, malformed or out of range
+     */
+    public static Options parse(String[] args) {
+      Options options = new Options();
+      for (String arg : args) {
+        int equals = arg.indexOf('=');
+        if (!arg.startsWith("--") || equals < 0) {
+          throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+        }
+        String name = arg.substring(2, equals);
+        String value = arg.substring(equals + 1);
+        try {
+          switch (name) {
+            case "parking": options.parkingFile(value); break;
+            case "property": options.propertyFile(value); break;
+            case "population": options.populationFile(value); break;
+            case "requests": options.requestFile(Paths.get(value)); break;
+            case "mix": options.mix(value); break;
+            case "zip-codes": options.zipCodes(Integer.parseInt(value)); break;
+            case "zip-skew": options.zipSkew(Double.parseDouble(value)); break;
+            case "seed": options.seed(Long.parseLong(value)); break;
+            case "clients": options.clients(Integer.parseInt(value)); break;
+            case "rate": options.rate(Double.parseDouble(value)); break;
+            case "warmup": options.warmup(seconds(value)); break;
+            case "duration": options.duration(seconds(value)); break;
+            case "cache-size": options.cacheSize(Integer.parseInt(value)); break;
+            default: throw new IllegalArgumentException("Unknown option: --" + name);
+          }
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Invalid number for --" + name + ": " + value);
+        }
+      }
+      if (options.parkingFile == null || options.propertyFile == null || options.populationFile == null) {
+        throw new IllegalArgumentException("Missing --parking, --property or --population");
+      }
+      return options;
+    }
+
+    public Options parkingFile(String parkingFile) {
+      this.parkingFile = requireFileName("Parking file", parkingFile);
+      return this;
+    }
+
+    public Options propertyFile(String propertyFile) {
+      this.propertyFile = requireFileName("Property file", propertyFile);
+      return this;
+    }
+
+    public Options populationFile(String populationFile) {
+      this.populationFile = requireFileName("Population file", populationFile);
+      return this;
+    }
+
+    /** @param requestFile the request log to replay, or null for the synthetic mix */
+    public Options requestFile(Path requestFile) {
+      this.requestFile = requestFile;
+      return this;
+    }
+
+    /** @param mix the relative weight of each option in the synthetic mix, e.g. "1:1,3:10,7:2" */
+    public Options mix(String mix) {
+      double[] weights = new double[OPTIONS + 1];
+      double total = 0;
+      for (String entry : mix.split(",")) {
+        int colon = entry.indexOf(':');
+        if (colon < 0) {
+          throw new IllegalArgumentException("Expected option:weight in the mix but got: " + entry);
+        }
+        int option = Integer.parseInt(entry.substring(0, colon).trim());
+        double weight = Double.parseDouble(entry.substring(colon + 1).trim());
+        if (option < 1 || option > OPTIONS) {
+          throw new IllegalArgumentException("Mix options must be between 1 and " + OPTIONS);
+        }
+        if (!(weight >= 0) || Double.isInfinite(weight)) {
+          throw new IllegalArgumentException("Mix weights must be non-negative numbers");
+        }
+        weights[option] = weight;
+        total += weight;
+      }
+      if (total == 0) {
+        throw new IllegalArgumentException("The mix needs at least one positive weight");
+      }
+      this.mix = weights;
+      return this;
+    }
+
+    /** @param zipCodes the number of ZIP Codes the synthetic mix draws from, as in {@link DataGenerator} */
+    public Options zipCodes(int zipCodes) {
+      if (zipCodes < 1) {
+        throw new IllegalArgumentException("ZIP Codes must be at least 1");
+      }
+      this.zipCodes = zipCodes;
+      return this;
+    }
+
+    /** @param zipSkew Zipf exponent of the ZIP Code frequencies; 0 is uniform */
+    public Options zipSkew(double zipSkew) {
+      if (!(zipSkew >= 0)) {
+        throw new IllegalArgumentException("ZIP skew must be non-negative");
+      }
+      this.zipSkew = zipSkew;
+      return this;
+    }
+
+    public Options seed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    /** @param clients the number of concurrent clients, each on its own virtual thread */
+    public Options clients(int clients) {
+      if (clients < 1) {
+        throw new IllegalArgumentException("Clients must be at least 1");
+      }
+      this.clients = clients;
+      return this;
+    }
+
+    /** @param rate the target number of queries per second over all clients; 0 sends as fast as they can */
+    public Options rate(double rate) {
+      if (!(rate >= 0) || Double.isInfinite(rate)) {
+        throw new IllegalArgumentException("Rate must be a non-negative number");
+      }
+      this.rate = rate;
+      return this;
+    }
+
+    public Options warmup(Duration warmup) {
+      if (warmup == null || warmup.isNegative()) {
+        throw new IllegalArgumentException("Warmup must be zero or more");
+      }
+      this.warmup = warmup;
+      return this;
+    }
+
+    public Options duration(Duration duration) {
+      if (duration == null || duration.isNegative() || duration.isZero()) {
+        throw new IllegalArgumentException("Duration must be positive");
+      }
+      this.duration = duration;
+      return this;
+    }
+
+    /** @param cacheSize the bound of the shared query cache */
+    public Options cacheSize(int cacheSize) {
+      if (cacheSize < 1) {
+        throw new IllegalArgumentException("Cache size must be at least 1");
+      }
+      this.cacheSize = cacheSize;
+      return this;
+    }
+
+    private static String requireFileName(String name, String fileName) {
+      if (fileName == null || fileName.trim().isEmpty()) {
+        throw new IllegalArgumentException(name + " cannot be null or empty");
+      }
+      return fileName;
+    }
+
+    private static Duration seconds(String value) {
+      double seconds = Double.parseDouble(value);
+      if (!(seconds >= 0) || Double.isInfinite(seconds)) {
+        throw new IllegalArgumentException("Seconds must be a non-negative number: " + value);
+      }
+      return Duration.ofNanos((long) (seconds * 1e9));
+    }
+  }
+
+  /**
+   * The measured queries: their count, errors and latencies, overall and per option.
+   */
+  public static final class Result {
+    private final int clients;
+    private final double rate;
+    private final Duration measured;
+    private final long datasetLoadNanos;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LatencyHistogram[] latenciesByOption = new LatencyHistogram[OPTIONS + 1];
+    private final LongAdder[] errorsByOption = new LongAdder[OPTIONS + 1];
+
+    private Result(int clients, double rate, Duration measured, long datasetLoadNanos) {
+      this.clients = clients;
+      this.rate = rate;
+      this.measured = measured;
+      this.datasetLoadNanos = datasetLoadNanos;
+      for (int option = 1; option <= OPTIONS; option++) {
+        latenciesByOption[option] = new LatencyHistogram();
+        errorsByOption[option] = new LongAdder();
+      }
+    }
+
+    private void record(int option, long nanos, boolean failed) {
+      if (failed) {
+        errorsByOption[option].increment();
+      } else {
+        latencies.record(nanos);
+        latenciesByOption[option].record(nanos);
+      }
+    }
+
+    /** @return the measured queries, including failed ones */
+    public long getRequests() {
+      return latencies.getCount() + getErrors();
+    }
+
+    /** @return the measured queries that threw */
+    public long getErrors() {
+      long errors = 0;
+      for (int option = 1; option <= OPTIONS; option++) {
+        errors += errorsByOption[option].sum();
+      }
+      return errors;
+    }
+
+    /** @return measured queries per second */
+    public double getThroughput() {
+      return getRequests() / (measured.toNanos() / 1e9);
+    }
+
+    /** @return the latencies of the successful measured queries */
+    public LatencyHistogram getLatencies() {
+      return latencies;
+    }
+
+    /** @return the latencies of the successful measured queries of one menu option */
+    public LatencyHistogram getLatencies(int option) {
+      if (option < 1 || option > OPTIONS) {
+        throw new IllegalArgumentException("Option must be between 1 and " + OPTIONS);
+      }
+      return latenciesByOption[option];
+    }
+
+    public long getErrors(int option) {
+      if (option < 1 || option > OPTIONS) {
+        throw new IllegalArgumentException("Option must be between 1 and " + OPTIONS);
+      }
+      return errorsByOption[option].sum();
+    }
+
+    public long getDatasetLoadNanos() {
+      return datasetLoadNanos;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder text = new StringBuilder();
+      text.append(String.format(Locale.ROOT, "Datasets loaded in %.0f ms%n", datasetLoadNanos / NANOS_PER_MILLISECOND));
+      text.append(String.format(Locale.ROOT, "%d clients, %s, measured for %.1f s%n", clients,
+              rate > 0 ? String.format(Locale.ROOT, "target rate %.1f/s", rate) : "no target rate",
+              measured.toNanos() / 1e9));
+      text.append(String.format(Locale.ROOT, "%d queries, %d errors, %.1f queries/s%n",
+              getRequests(), getErrors(), getThroughput()));
+      text.append(String.format(Locale.ROOT, "%-8s %10s %8s %10s %10s %10s %10s %10s%n",
+              "Option", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+      for (int option = 1; option <= OPTIONS; option++) {
+        appendRow(text, Integer.toString(option), latenciesByOption[option], errorsByOption[option].sum());
+      }
+      appendRow(text, "all", latencies, getErrors());
+      return text.toString();
+    }
+
+    private static void appendRow(StringBuilder text, String name, LatencyHistogram histogram, long errors) {
+      if (histogram.getCount() == 0 && errors == 0) {
+        return;
+      }
+      text.append(String.format(Locale.ROOT, "%-8s %10d %8d", name, histogram.getCount(), errors));
+      for (long nanos : histogram.getValuesAtPercentiles(PERCENTILES)) {
+        text.append(String.format(Locale.ROOT, " %10.3f", nanos / NANOS_PER_MILLISECOND));
+      }
+      text.append(String.format(Locale.ROOT, " %10.3f%n", histogram.getMaxNanos() / NANOS_PER_MILLISECOND));
+    }
+  }
+
+  /**
+   * One query: a menu option and its ZIP Code, if it takes one.
+   */
+  static final class Query {
+    final int option;
+    final String zipCode;
+
+    Query(int option, String zipCode) {
+      this.option = option;
+      this.zipCode = zipCode;
+    }
+  }
+
+  /**
+   * Loads the datasets, runs the warmup and the measured period, and waits for the last query.
+   * @return the measured queries
+   * @throws IOException if the request log cannot be read
+   * @throws IllegalArgumentException if the request log has an invalid request
+   */
+  public static Result run(Options options) throws IOException {
+    if (options == null || options.parkingFile == null || options.propertyFile == null
+            || options.populationFile == null) {
+      throw new IllegalArgumentException("Options must name the parking, property and population files");
+    }
+    Query[] queries = options.requestFile != null ? readRequests(options.requestFile) : synthetic(options);
+
+    DatasetRepository repository = new DatasetRepository(options.parkingFile, options.propertyFile,
+            options.populationFile);
+    long loadStart = System.nanoTime();
+    repository.getParkingViolations();
+    repository.getPropertyZipIndex();
+    repository.getPopulationTable();
+    long datasetLoadNanos = System.nanoTime() - loadStart;
+
+    Services services = new Services(repository, options.cacheSize);
+    Result result = new Result(options.clients, options.rate, options.duration, datasetLoadNanos);
+    long start = System.nanoTime();
+    long measureStart = start + options.warmup.toNanos();
+    long end = measureStart + options.duration.toNanos();
+    AtomicLong next = new AtomicLong();
+    try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int client = 0; client < options.clients; client++) {
+        clients.submit(() -> runClient(services, queries, next, options.rate, start, measureStart, end, result));
+      }
+    }
+    return result;
+  }
+
+  private static void runClient(Services services, Query[] queries, AtomicLong next, double rate,
+                                long start, long measureStart, long end, Result result) {
+    while (true) {
+      long index = next.getAndIncrement();
+      long scheduled;
+      if (rate > 0) {
+        scheduled = start + (long) (index * 1e9 / rate);
+        if (scheduled >= end) {
+          return;
+        }
+        long wait;
+        while ((wait = scheduled - System.nanoTime()) > 0) {
+          LockSupport.parkNanos(wait);
+        }
+      } else {
+        scheduled = System.nanoTime();
+        if (scheduled >= end) {
+          return;
+        }
+      }
+      Query query = queries[(int) (index % queries.length)];
+      boolean failed = false;
+      try {
+        execute(services, query);
+      } catch (RuntimeException e) {
+        failed = true;
+      }
+      if (scheduled >= measureStart) {
+        result.record(query.option, System.nanoTime() - scheduled, failed);
+      }
+    }
+  }
+
+  /**
+   * Reads a request log: one JSON object per non-blank line with a numeric "option" between 1 and 8
+   * and, for options 3 to 7, a "zip_code".
+   * @throws IllegalArgumentException naming the line of the first invalid request
+   */
+  static Query[] readRequests(Path requestFile) throws IOException {
+    List<Query> queries = new ArrayList<>();
+    try (BufferedReader reader = Files.newBufferedReader(requestFile, StandardCharsets.UTF_8)) {
+      String line;
+      int lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.trim().isEmpty()) {
+          continue;
+        }
+        try {
+          queries.add(parseRequest(line));
+        } catch (IllegalArgumentException | JsonPullParser.SyntaxException e) {
+          throw new IllegalArgumentException("Invalid request on line " + lineNumber + ": " + e.getMessage());
+        }
+      }
+    }
+    if (queries.isEmpty()) {
+      throw new IllegalArgumentException("No requests in " + requestFile);
+    }
+    return queries.toArray(new Query[0]);
+  }
+
+  private static Query parseRequest(String line) throws IOException {
+    BatchRunner.Request request = BatchRunner.Request.parse(line);
+    int option = request.getOption();
+    String zipCode = request.getZipCode();
+    if (option < 1 || option > OPTIONS) {
+      throw new IllegalArgumentException("\"option\" must be a number between 1 and " + OPTIONS);
+    }
+    if (option >= 3 && option <= 7 && (zipCode == null || zipCode.isEmpty())) {
+      throw new IllegalArgumentException("missing \"zip_code\" for option " + option);
+    }
+    return new Query(option, zipCode);
+  }
+
+  static Query[] synthetic(Options options) {
+    double[] cumulativeWeights = new double[OPTIONS + 1];
+    for (int option = 1; option <= OPTIONS; option++) {
+      cumulativeWeights[option] = cumulativeWeights[option - 1] + options.mix[option];
+    }
+    DataGenerator.ZipCodeSampler zipCodes = new DataGenerator.ZipCodeSampler(options.zipCodes, options.zipSkew);
+    SplittableRandom random = new SplittableRandom(options.seed);
+    Query[] queries = new Query[SYNTHETIC_QUERIES];
+    for (int i = 0; i < queries.length; i++) {
+      double target = random.nextDouble() * cumulativeWeights[OPTIONS];
+      int option = 1;
+      while (option < OPTIONS && (cumulativeWeights[option] <= target || options.mix[option] == 0)) {
+        option++;
+      }
+      String zipCode = option >= 3 && option <= 7 ? DataGenerator.zipCode(zipCodes.next(random)) : null;
+      queries[i] = new Query(option, zipCode);
+    }
+    return queries;
+  }
+
+  private static Object execute(Services services, Query query) {
+    switch (query.option) {
+      case 1: return services.getPopulationService().getPopulationAllZipCodes();
+      case 2: return services.getFinesService().getFinesPerCapitaPerZipCode();
+      case 3: return services.getMarketValueService().getAverageMarketValue(query.zipCode);
+      case 4: return services.getResidentialAreaService().getAverageResidentialArea(query.zipCode);
+      case 5: return services.getMarketValueService().getResidentialMarketValuePerCapita(query.zipCode);
+      case 6: return services.getMarketValueService().getAverageMarketValuePerSquareFoot(query.zipCode);
+      case 7: return services.getResidentialAreaService().getMinAndMaxLivableAreas(query.zipCode);
+      case 8: return services.getReportService().getReport();
+      default: throw new IllegalArgumentException("Unknown option " + query.option);
+    }
+  }
+
+  public static void main(String[] args) {
+    Options options;
+    try {
+      options = Options.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error: " + e.getMessage());
+      System.err.println("Usage: java tools.LoadTest --parking=<file> --property=<file> --population=<file>"
+              + " [--requests=<file>] [--mix=1:1,2:1,3:4,...] [--zip-codes=N] [--zip-skew=S] [--seed=N]"
+              + " [--clients=N] [--rate=R] [--warmup=SECONDS] [--duration=SECONDS] [--cache-size=N]");
+      System.exit(1);
+      return;
+    }
+    try {
+      System.out.print(run(options));
+    } catch (IOException e) {
+      System.err.println("Error reading requests: " + e.getMessage());
+      System.exit(1);
+    } catch (RuntimeException e) {
+      // invalid requests, or datasets that cannot be loaded
+      System.err.println("Error: " + e.getMessage());
+      System.exit(1);
+    }
+  }
+}
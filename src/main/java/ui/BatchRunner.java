@@ -0,0 +1,226 @@
+package ui;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import data.JsonPullParser;
+import data.JsonPullParser.Token;
+
+/**
+ * Runs a file of JSON Lines queries and writes one JSON Lines result per query, in input order.
+ * <p>
+ * Each input line is an object such as {@code {"id": "a1", "option": 3, "zip_code": "19104"}};
+ * {@code id} is optional and echoed back, {@code zip_code} is only needed by options 3 to 7.
+ * Each output line repeats the line number, id, option and ZIP Code, followed by either
+ * {@code "result"} (the value from {@link QueryEvaluator}) or {@code "error"} (a message).
+ * A bad request produces an error line and does not stop the batch; blank lines are skipped.
+ * <p>
+ * Queries are independent, so they are evaluated on a pool of worker threads; at most a few
+ * queries per worker are in flight at once, and results are written as soon as every earlier
+ * line has been written.
+ */
+public class BatchRunner {
+
+    private static final int IN_FLIGHT_PER_THREAD = 4;
+
+    private final QueryEvaluator evaluator;
+    private final int parallelism;
+
+    /**
+     * @param evaluator answers the queries
+     * @param parallelism the number of worker threads (at least 1)
+     */
+    public BatchRunner(QueryEvaluator evaluator, int parallelism) {
+        if (evaluator == null) {
+            throw new IllegalArgumentException("Evaluator cannot be null");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.evaluator = evaluator;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Reads every request from {@code in} and writes its result to {@code out}.
+     * @return the number of requests processed
+     * @throws IOException if reading the requests or writing the results fails
+     */
+    public int run(BufferedReader in, Writer out) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>();
+        int maxInFlight = parallelism * IN_FLIGHT_PER_THREAD;
+        int processed = 0;
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (pending.size() >= maxInFlight) {
+                    writeResult(pending.removeFirst(), out);
+                }
+                String request = line;
+                int number = lineNumber;
+                pending.addLast(executor.submit(() -> process(number, request)));
+                processed++;
+            }
+            while (!pending.isEmpty()) {
+                writeResult(pending.removeFirst(), out);
+            }
+            out.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+        return processed;
+    }
+
+    /**
+     * Parses and evaluates one request line.
+     * @return the result line; never throws, failures are reported in the line itself
+     */
+    String process(int lineNumber, String line) {
+        StringBuilder result = new StringBuilder(64);
+        result.append("{\"line\":").append(lineNumber);
+        Request request;
+        try {
+            request = Request.parse(line);
+        } catch (IOException | IllegalArgumentException e) {
+            result.append(",\"error\":");
+            Json.appendString(result, "Invalid request: " + e.getMessage());
+            return result.append('}').toString();
+        }
+
+        result.append(",\"id\":").append(request.id == null ? "null" : request.id);
+        result.append(",\"option\":").append(request.option);
+        result.append(",\"zip_code\":");
+        Json.appendString(result, request.zipCode);
+        try {
+            String value = evaluator.evaluate(request.option, request.zipCode);
+            result.append(",\"result\":").append(value);
+        } catch (RuntimeException e) {
+            result.append(",\"error\":");
+            Json.appendString(result, e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+        return result.append('}').toString();
+    }
+
+    private static void writeResult(Future<String> result, Writer out) throws IOException {
+        try {
+            out.write(result.get());
+            out.write('\n');
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a result", e);
+        } catch (ExecutionException e) {
+            // process() reports its own failures, so this is a bug rather than a bad request
+            throw new IllegalStateException("Query evaluation failed", e.getCause());
+        }
+    }
+
+    /**
+     * One line of a request file. Also read by other tools that replay request files, so the format
+     * is parsed in one place.
+     */
+    public static final class Request {
+        private String id;
+        private int option;
+        private String zipCode;
+
+        private Request() {
+        }
+
+        /**
+         * Parses one request line. Only the shape is checked here; whether the option exists and has
+         * the ZIP Code it needs is left to the evaluator.
+         * @throws IllegalArgumentException if the line is not an object with a numeric "option", or a
+         *         known field has the wrong type
+         * @throws IOException if the line is not valid JSON
+         */
+        public static Request parse(String line) throws IOException {
+            Request request = new Request();
+            request.read(line);
+            return request;
+        }
+
+        /**
+         * @return the request's id as JSON text (a quoted string or a number), or null if it has none
+         */
+        public String getId() {
+            return id;
+        }
+
+        public int getOption() {
+            return option;
+        }
+
+        /**
+         * @return the ZIP Code as given, or null if the request has none
+         */
+        public String getZipCode() {
+            return zipCode;
+        }
+
+        private void read(String line) throws IOException {
+            boolean hasOption = false;
+            JsonPullParser parser = new JsonPullParser(new StringReader(line));
+            if (parser.next() != Token.BEGIN_OBJECT) {
+                throw new IllegalArgumentException("expected a JSON object");
+            }
+            while (parser.next() == Token.NAME) {
+                String name = parser.textAsString();
+                Token value = parser.next();
+                switch (name) {
+                    case "id":
+                        if (value == Token.STRING) {
+                            id = Json.appendString(new StringBuilder(), parser.textAsString()).toString();
+                        } else if (value == Token.NUMBER) {
+                            id = parser.textAsString();
+                        } else if (value != Token.NULL) {
+                            throw new IllegalArgumentException("\"id\" must be a string or a number");
+                        }
+                        break;
+                    case "option":
+                        if (value != Token.NUMBER) {
+                            throw new IllegalArgumentException("\"option\" must be a number");
+                        }
+                        try {
+                            option = Integer.parseInt(parser.textAsString());
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("\"option\" must be a whole number");
+                        }
+                        hasOption = true;
+                        break;
+                    case "zip_code":
+                        if (value == Token.STRING || value == Token.NUMBER) {
+                            zipCode = parser.textAsString();
+                        } else if (value != Token.NULL) {
+                            throw new IllegalArgumentException("\"zip_code\" must be a string");
+                        }
+                        break;
+                    default:
+                        // unknown fields are ignored so request files can carry their own annotations
+                        if (value == Token.BEGIN_OBJECT || value == Token.BEGIN_ARRAY) {
+                            parser.skipContainer();
+                        }
+                        break;
+                }
+            }
+            if (parser.next() != Token.END_DOCUMENT) {
+                throw new IllegalArgumentException("unexpected content after the request object");
+            }
+            if (!hasOption) {
+                throw new IllegalArgumentException("missing \"option\"");
+            }
+        }
+    }
+}
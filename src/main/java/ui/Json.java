@@ -0,0 +1,57 @@
+package ui;
+
+/**
+ * Helpers for writing JSON text by hand; the output modes build small documents directly into a StringBuilder.
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    /**
+     * Appends a string as a quoted JSON string literal, or null if the string is null.
+     */
+    static StringBuilder appendString(StringBuilder out, String value) {
+        if (value == null) {
+            return out.append("null");
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"');
+    }
+
+    /**
+     * Appends a double as a JSON number; NaN and infinities, which JSON cannot represent, become null.
+     */
+    static StringBuilder appendNumber(StringBuilder out, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return out.append("null");
+        }
+        return out.append(value);
+    }
+}
@@ -0,0 +1,144 @@
+package ui;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import data.DatasetRepository;
+import processor.FinesService;
+import processor.MarketValueService;
+import processor.PopulationService;
+import processor.PropertyMetric;
+import processor.ReportService;
+import processor.ResidentialAreaService;
+import processor.Services;
+import processor.ZipReport;
+
+/**
+ * Answers one menu query (option plus ZIP Code) as a JSON value, for the non-interactive modes.
+ * The results are the same values the interactive menu prints, without its text around them.
+ * Safe to call from several threads at once: the services share the repository and one result cache.
+ */
+public class QueryEvaluator {
+
+    /**
+     * Thrown when a query itself is invalid (an unknown option or a missing ZIP Code), as opposed to a
+     * failure while answering it, such as a dataset that cannot be read.
+     */
+    public static final class InvalidQueryException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        public InvalidQueryException(String message) {
+            super(message);
+        }
+    }
+
+    private final PopulationService populationService;
+    private final FinesService finesService;
+    private final MarketValueService marketValueService;
+    private final ResidentialAreaService residentialAreaService;
+    private final ReportService reportService;
+
+    public QueryEvaluator(DatasetRepository datasetRepository) {
+        Services services = new Services(datasetRepository);
+        this.populationService = services.getPopulationService();
+        this.finesService = services.getFinesService();
+        this.marketValueService = services.getMarketValueService();
+        this.residentialAreaService = services.getResidentialAreaService();
+        this.reportService = services.getReportService();
+    }
+
+    /**
+     * @return true if the option takes a ZIP Code (options 3 to 7)
+     */
+    public static boolean requiresZipCode(int option) {
+        return option >= 3 && option <= 7;
+    }
+
+    /**
+     * Evaluates a query.
+     * @param option the menu option, 1 to 8
+     * @param zipCode the ZIP Code for options 3 to 7; ignored otherwise
+     * @return the result as JSON text
+     * @throws InvalidQueryException if the option is unknown or a required ZIP Code is missing
+     */
+    public String evaluate(int option, String zipCode) {
+        if (option < 1 || option > 8) {
+            throw new InvalidQueryException("Unknown option " + option + "; expected a number between 1 and 8");
+        }
+        if (requiresZipCode(option)) {
+            zipCode = zipCode == null ? "" : zipCode.trim();
+            if (zipCode.isEmpty()) {
+                throw new InvalidQueryException("ZIP Code cannot be empty for option " + option);
+            }
+        }
+
+        StringBuilder out = new StringBuilder();
+        switch (option) {
+            case 1:
+                out.append(populationService.getPopulationAllZipCodes());
+                break;
+            case 2:
+                appendFinesPerCapita(out, finesService.getFinesPerCapitaPerZipCode());
+                break;
+            case 3:
+                out.append(marketValueService.getAverageMarketValue(zipCode));
+                break;
+            case 4:
+                out.append(residentialAreaService.getAverageResidentialArea(zipCode));
+                break;
+            case 5:
+                out.append(marketValueService.getResidentialMarketValuePerCapita(zipCode));
+                break;
+            case 6:
+                out.append(marketValueService.getAverageMarketValuePerSquareFoot(zipCode));
+                break;
+            case 7:
+                int[] minMax = residentialAreaService.getMinAndMaxLivableAreas(zipCode);
+                out.append("{\"min\":").append(minMax[0]).append(",\"max\":").append(minMax[1]).append('}');
+                break;
+            default:
+                appendReport(out, reportService.getReport());
+                break;
+        }
+        return out.toString();
+    }
+
+    // Same filter as menu option 2: ZIP Codes without a positive value are left out
+    private static void appendFinesPerCapita(StringBuilder out, Map<String, Double> finesPerCapita) {
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Double> entry : finesPerCapita.entrySet()) {
+            Double value = entry.getValue();
+            if (value == null || value <= 0.0) continue;
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            Json.appendString(out, entry.getKey()).append(':');
+            Json.appendNumber(out, value);
+        }
+        out.append('}');
+    }
+
+    private static void appendReport(StringBuilder out, List<ZipReport> report) {
+        out.append('[');
+        for (int i = 0; i < report.size(); i++) {
+            ZipReport row = report.get(i);
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append("{\"zip_code\":");
+            Json.appendString(out, row.getZipCode());
+            out.append(",\"population\":").append(row.getPopulation());
+            out.append(",\"fines_per_capita\":");
+            Json.appendNumber(out, row.getFinesPerCapita());
+            for (PropertyMetric metric : PropertyMetric.values()) {
+                out.append(",\"").append(metric.name().toLowerCase(Locale.ROOT)).append("\":")
+                   .append(row.getPropertyMetric(metric));
+            }
+            out.append('}');
+        }
+        out.append(']');
+    }
+}
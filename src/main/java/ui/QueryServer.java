@@ -0,0 +1,172 @@
+package ui;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import metrics.Metrics;
+import ui.QueryEvaluator.InvalidQueryException;
+
+/**
+ * Serves the menu queries as JSON over HTTP, from datasets loaded once and shared by every request.
+ * Built on the JDK's own {@code com.sun.net.httpserver}; each request runs on its own virtual thread,
+ * so a request waiting for a dataset to finish loading does not hold up the others.
+ * <p>
+ * Endpoints (GET only), each answering {@code {"result": ...}} or {@code {"error": "..."}}, with status 400
+ * for an invalid query and 500 when answering it fails:
+ * <ul>
+ *   <li>{@code /population} - option 1</li>
+ *   <li>{@code /fines-per-capita} - option 2</li>
+ *   <li>{@code /average-market-value?zip=19104} - option 3</li>
+ *   <li>{@code /average-residential-area?zip=19104} - option 4</li>
+ *   <li>{@code /market-value-per-capita?zip=19104} - option 5</li>
+ *   <li>{@code /market-value-per-square-foot?zip=19104} - option 6</li>
+ *   <li>{@code /livable-area-range?zip=19104} - option 7</li>
+ *   <li>{@code /report} - option 8</li>
+ * </ul>
+ * {@code /metrics} answers the reader and service metrics in the Prometheus text format.
+ * The server binds to the loopback address only.
+ */
+public class QueryServer {
+
+    private static final Map<String, Integer> OPTIONS_BY_PATH = new LinkedHashMap<>();
+
+    static {
+        OPTIONS_BY_PATH.put("/population", 1);
+        OPTIONS_BY_PATH.put("/fines-per-capita", 2);
+        OPTIONS_BY_PATH.put("/average-market-value", 3);
+        OPTIONS_BY_PATH.put("/average-residential-area", 4);
+        OPTIONS_BY_PATH.put("/market-value-per-capita", 5);
+        OPTIONS_BY_PATH.put("/market-value-per-square-foot", 6);
+        OPTIONS_BY_PATH.put("/livable-area-range", 7);
+        OPTIONS_BY_PATH.put("/report", 8);
+    }
+
+    private final QueryEvaluator evaluator;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates the server without starting it.
+     * @param evaluator answers the queries
+     * @param port the port to listen on; 0 picks a free port
+     * @throws IOException if the port cannot be bound
+     */
+    public QueryServer(QueryEvaluator evaluator, int port) throws IOException {
+        if (evaluator == null) {
+            throw new IllegalArgumentException("Evaluator cannot be null");
+        }
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Port must be between 0 and 65535");
+        }
+        this.evaluator = evaluator;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits up to the given delay for in-flight requests to finish.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                sendError(exchange, 405, "Only GET is supported");
+                return;
+            }
+            if ("/metrics".equals(exchange.getRequestURI().getPath())) {
+                send(exchange, 200, "text/plain; version=0.0.4; charset=utf-8", Metrics.toPrometheusText());
+                return;
+            }
+            Integer option = OPTIONS_BY_PATH.get(exchange.getRequestURI().getPath());
+            if (option == null) {
+                sendError(exchange, 404, "Unknown endpoint; expected one of " + OPTIONS_BY_PATH.keySet());
+                return;
+            }
+            String result;
+            try {
+                String zipCode = queryParameter(exchange.getRequestURI().getRawQuery(), "zip");
+                result = evaluator.evaluate(option, zipCode);
+            } catch (InvalidQueryException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            } catch (RuntimeException e) {
+                sendError(exchange, 500, e.getMessage() != null ? e.getMessage() : e.toString());
+                return;
+            }
+            send(exchange, 200, "{\"result\":" + result + "}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * @return the decoded value of the first parameter with the given name, or null if absent
+     * @throws InvalidQueryException if the query string has a malformed percent-escape
+     */
+    static String queryParameter(String rawQuery, String name) {
+        if (rawQuery == null) {
+            return null;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            if (name.equals(decode(key))) {
+                return equals < 0 ? "" : decode(pair.substring(equals + 1));
+            }
+        }
+        return null;
+    }
+
+    private static String decode(String component) {
+        try {
+            return URLDecoder.decode(component, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidQueryException("Malformed query string: " + e.getMessage());
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, Json.appendString(new StringBuilder("{\"error\":"), message).append('}').toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        send(exchange, status, "application/json; charset=utf-8", body);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
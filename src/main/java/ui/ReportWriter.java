@@ -0,0 +1,36 @@
+package ui;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Locale;
+
+import processor.PropertyMetric;
+import processor.ZipReport;
+
+/**
+ * Writes the full-city report as CSV, one ZIP Code per line after a header.
+ * Fines per capita use the four decimals of menu option 2; property metrics are whole numbers.
+ */
+public class ReportWriter {
+
+    private ReportWriter() {
+    }
+
+    public static void writeCsv(List<ZipReport> report, PrintStream out) {
+        StringBuilder header = new StringBuilder("zip_code,population,fines_per_capita");
+        for (PropertyMetric metric : PropertyMetric.values()) {
+            header.append(',').append(metric.name().toLowerCase(Locale.ROOT));
+        }
+        out.println(header);
+        for (ZipReport row : report) {
+            StringBuilder line = new StringBuilder();
+            line.append(row.getZipCode())
+                .append(',').append(row.getPopulation())
+                .append(',').append(String.format(Locale.ROOT, "%.4f", row.getFinesPerCapita()));
+            for (PropertyMetric metric : PropertyMetric.values()) {
+                line.append(',').append(row.getPropertyMetric(metric));
+            }
+            out.println(line);
+        }
+    }
+}
@@ -3,11 +3,17 @@ package ui;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.function.Consumer;
 
+import data.DatasetRepository;
+import metrics.Metrics;
 import processor.FinesService;
 import processor.MarketValueService;
 import processor.PopulationService;
+import processor.ReportService;
 import processor.ResidentialAreaService;
+import processor.Services;
+import processor.ZipReport;
 
 public class UI {
     private static UI instance;
@@ -16,22 +22,26 @@ public class UI {
     private FinesService finesService;
     private MarketValueService marketValueService;
     private ResidentialAreaService residentialAreaService;
+    private ReportService reportService;
 
-    private UI(String parkingViolationFilePath, String propertyValueFilePath, String populationFilePath, Scanner scanner) {
+    private UI(DatasetRepository datasetRepository, Scanner scanner) {
         this.scanner = scanner;
-        this.populationService = new PopulationService(parkingViolationFilePath, propertyValueFilePath, populationFilePath);
-        this.finesService = new FinesService(parkingViolationFilePath, propertyValueFilePath, populationFilePath);
-        this.marketValueService = new MarketValueService(parkingViolationFilePath, propertyValueFilePath, populationFilePath);
-        this.residentialAreaService = new ResidentialAreaService(parkingViolationFilePath, propertyValueFilePath, populationFilePath);
+        // One bounded result cache for every ZIP-parameterized query; -DqueryCache.maximumSize overrides the bound
+        Services services = new Services(datasetRepository);
+        this.populationService = services.getPopulationService();
+        this.finesService = services.getFinesService();
+        this.marketValueService = services.getMarketValueService();
+        this.residentialAreaService = services.getResidentialAreaService();
+        this.reportService = services.getReportService();
     }
 
     /**
      * Returns the singleton instance of UI.
      * Initializes the instance if it hasn't been created yet.
      */
-    public static synchronized UI getInstance(String parkingViolationFilePath, String propertyValueFilePath, String populationFilePath, Scanner scanner) {
+    public static synchronized UI getInstance(DatasetRepository datasetRepository, Scanner scanner) {
         if (instance == null) {
-            instance = new UI(parkingViolationFilePath, propertyValueFilePath, populationFilePath, scanner);
+            instance = new UI(datasetRepository, scanner);
         }
         return instance;
     }
@@ -51,6 +61,7 @@ public class UI {
             System.out.println("5. Show residential market value per capita for a specified ZIP Code");
             System.out.println("6. Show average market value per square foot for residences in a specified ZIP Code");
             System.out.println("7. Show minimum and maximum livable areas for homes in a specified ZIP Code");
+            System.out.println("8. Show a report of every metric for every ZIP Code");
             System.out.println("0. Exit");
             System.out.print("Enter your choice: ");
 
@@ -58,7 +69,7 @@ public class UI {
             try {
                 input = scanner.nextLine();
                 if (input == null) {
-                    System.out.println("Invalid input. Please enter a number between 0 and 7.");
+                    System.out.println("Invalid input. Please enter a number between 0 and 8.");
                     continue;
                 }
                 input = input.trim();
@@ -71,166 +82,80 @@ public class UI {
             try {
                 choice = Integer.parseInt(input);
             } catch (NumberFormatException e) {
-                System.out.println("Invalid input. Please enter a number between 0 and 7.");
+                System.out.println("Invalid input. Please enter a number between 0 and 8.");
                 continue;
             }
 
-            //declaring zipCode. cases below after 1 still untouched!
-            String zipCode;
-
             switch (choice) {
                 case 1:
                     //"If the user enters the number 1, the program should show the total population for all ZIP Codes"
-                    try {
+                    runOption(choice, "Error retrieving total population: ", () -> {
                         Long totalPopulation = populationService.getPopulationAllZipCodes();
                         if (totalPopulation == null) {
                             System.out.println("Unable to retrieve total population. Data may be unavailable.");
                         } else {
                             System.out.println("Total population for all ZIP Codes: " + totalPopulation);
                         }
-                    } catch (Exception e) {
-                        System.err.println("Error retrieving total population: " + e.getMessage());
-                    }
+                    });
                     break;
                 case 2:
-                    try {
+                    runOption(choice, "Error retrieving fines per capita: ", () -> {
                         Map<String, Double> finesMap = finesService.getFinesPerCapitaPerZipCode();
                         if (finesMap == null || finesMap.isEmpty()) {
                             System.out.println("Error: Unable to retrieve fines data.");
-                            break;
+                            return;
                         }
-                        // Filter out any ZIP with null/0 fines per capita
-                        List<String> filteredZipCodes = new java.util.ArrayList<>();
+                        // The map is already in ascending ZIP Code order; filter out any ZIP with null/0 fines per capita
                         for (Map.Entry<String, Double> entry : finesMap.entrySet()) {
-                            Double value = entry.getValue();
-                            if (value != null && value > 0.0) {
-                                filteredZipCodes.add(entry.getKey());
-                            }
-                        }
-                        // Sort numerically ascending
-                        java.util.Collections.sort(filteredZipCodes, (z1, z2) -> {
-                            try {
-                                return Integer.compare(Integer.parseInt(z1), Integer.parseInt(z2));
-                            } catch (NumberFormatException e) {
-                                return z1.compareTo(z2);
-                            }
-                        });
-
-                        for (String zip : filteredZipCodes) {
-                            Double finesPerCapita = finesMap.get(zip);
-                            if (finesPerCapita == null) continue;
+                            Double finesPerCapita = entry.getValue();
+                            if (finesPerCapita == null || finesPerCapita <= 0.0) continue;
                             String formattedValue = String.format("%.4f", finesPerCapita);
-                            System.out.println(zip + " " + formattedValue);
+                            System.out.println(entry.getKey() + " " + formattedValue);
                         }
-                    } catch (Exception e) {
-                        System.err.println("Error retrieving fines per capita: " + e.getMessage());
-                    }
+                    });
                     break;
                 case 3:
-                    System.out.print("Enter ZIP Code: ");
-                    try {
-                        zipCode = scanner.nextLine();
-                        if (zipCode == null) {
-                            System.out.println("Invalid ZIP Code. Please try again.");
-                            break;
-                        }
-                        zipCode = zipCode.trim();
-                        if (zipCode.isEmpty()) {
-                            System.out.println("ZIP Code cannot be empty. Please try again.");
-                            break;
-                        }
+                    runZipCodeOption(choice, "Error retrieving average market value: ", zipCode -> {
                         int avgMarketValue = marketValueService.getAverageMarketValue(zipCode);
                         if (avgMarketValue == 0) {
                             System.out.println("No data found for ZIP Code: " + zipCode);
                         } else {
                             System.out.println("Average market value for ZIP Code " + zipCode + ": " + avgMarketValue);
                         }
-                    } catch (Exception e) {
-                        System.err.println("Error retrieving average market value: " + e.getMessage());
-                    }
+                    });
                     break;
                 case 4:
-                    System.out.print("Enter ZIP Code: ");
-                    try {
-                        zipCode = scanner.nextLine();
-                        if (zipCode == null) {
-                            System.out.println("Invalid ZIP Code. Please try again.");
-                            break;
-                        }
-                        zipCode = zipCode.trim();
-                        if (zipCode.isEmpty()) {
-                            System.out.println("ZIP Code cannot be empty. Please try again.");
-                            break;
-                        }
+                    runZipCodeOption(choice, "Error retrieving average residential area: ", zipCode -> {
                         int avgArea = residentialAreaService.getAverageResidentialArea(zipCode);
                         if (avgArea == 0) {
                             System.out.println("No data found for ZIP Code: " + zipCode);
                         } else {
                             System.out.println("Average total livable area for ZIP Code " + zipCode + ": " + avgArea);
                         }
-                    } catch (Exception e) {
-                        System.err.println("Error retrieving average residential area: " + e.getMessage());
-                    }
+                    });
                     break;
                 case 5:
-                    System.out.print("Enter ZIP Code: ");
-                    try {
-                        zipCode = scanner.nextLine();
-                        if (zipCode == null) {
-                            System.out.println("Invalid ZIP Code. Please try again.");
-                            break;
-                        }
-                        zipCode = zipCode.trim();
-                        if (zipCode.isEmpty()) {
-                            System.out.println("ZIP Code cannot be empty. Please try again.");
-                            break;
-                        }
+                    runZipCodeOption(choice, "Error retrieving residential market value per capita: ", zipCode -> {
                         int valuePerCapita = marketValueService.getResidentialMarketValuePerCapita(zipCode);
                         if (valuePerCapita == 0) {
                             System.out.println("No data found for ZIP Code: " + zipCode);
                         } else {
                             System.out.println("Residential market value per capita for ZIP Code " + zipCode + ": " + valuePerCapita);
                         }
-                    } catch (Exception e) {
-                        System.err.println("Error retrieving residential market value per capita: " + e.getMessage());
-                    }
+                    });
                     break;
                 case 6:
-                    System.out.print("Enter ZIP Code: ");
-                    try {
-                        zipCode = scanner.nextLine();
-                        if (zipCode == null) {
-                            System.out.println("Invalid ZIP Code. Please try again.");
-                            break;
-                        }
-                        zipCode = zipCode.trim();
-                        if (zipCode.isEmpty()) {
-                            System.out.println("ZIP Code cannot be empty. Please try again.");
-                            break;
-                        }
+                    runZipCodeOption(choice, "Error retrieving average market value per square foot: ", zipCode -> {
                         int valuePerSqFoot = marketValueService.getAverageMarketValuePerSquareFoot(zipCode);
                         if (valuePerSqFoot == 0) {
                             System.out.println("No data found for ZIP Code: " + zipCode);
                         } else {
                             System.out.println("Average market value per square foot for ZIP Code " + zipCode + ": " + valuePerSqFoot);
                         }
-                    } catch (Exception e) {
-                        System.err.println("Error retrieving average market value per square foot: " + e.getMessage());
-                    }
+                    });
                     break;
                 case 7:
-                    System.out.print("Enter ZIP Code: ");
-                    try {
-                        zipCode = scanner.nextLine();
-                        if (zipCode == null) {
-                            System.out.println("Invalid ZIP Code. Please try again.");
-                            break;
-                        }
-                        zipCode = zipCode.trim();
-                        if (zipCode.isEmpty()) {
-                            System.out.println("ZIP Code cannot be empty. Please try again.");
-                            break;
-                        }
+                    runZipCodeOption(choice, "Error retrieving min and max livable areas: ", zipCode -> {
                         int[] minMaxAreas = residentialAreaService.getMinAndMaxLivableAreas(zipCode);
                         if (minMaxAreas == null || minMaxAreas.length != 2) {
                             System.out.println("Error: Invalid data returned for ZIP Code: " + zipCode);
@@ -239,20 +164,78 @@ public class UI {
                         } else {
                             System.out.println("Minimum and maximum livable areas for ZIP Code " + zipCode + ": Min: " + minMaxAreas[0] + ", Max: " + minMaxAreas[1]);
                         }
-                    } catch (Exception e) {
-                        System.err.println("Error retrieving min and max livable areas: " + e.getMessage());
-                    }
+                    });
+                    break;
+                case 8:
+                    runOption(choice, "Error retrieving report: ", () -> {
+                        List<ZipReport> report = reportService.getReport();
+                        if (report == null || report.isEmpty()) {
+                            System.out.println("Error: Unable to retrieve report data.");
+                            return;
+                        }
+                        ReportWriter.writeCsv(report, System.out);
+                    });
+                    break;
+                case 9:
+                    // hidden: latency percentiles of every option and service method so far
+                    System.out.print(Metrics.latencyReport());
                     break;
                 case 0:
                     System.out.println("Exiting program...");
                     System.out.println();
                     return;
                 default:
-                    System.out.println("Invalid input. Please enter a number between 0 and 7.");
+                    System.out.println("Invalid input. Please enter a number between 0 and 8.");
                     continue;
             }
         }
         
     }
 
+    /**
+     * Runs one menu option's query and prints its answer, reporting a failure with the given prefix.
+     */
+    private static void runOption(int choice, String errorPrefix, Runnable query) {
+        try {
+            timed(choice, query);
+        } catch (Exception e) {
+            System.err.println(errorPrefix + e.getMessage());
+        }
+    }
+
+    /**
+     * Prompts for a ZIP Code and, if one is given, runs the option's query for it.
+     */
+    private void runZipCodeOption(int choice, String errorPrefix, Consumer<String> query) {
+        System.out.print("Enter ZIP Code: ");
+        try {
+            String zipCode = scanner.nextLine();
+            if (zipCode == null) {
+                System.out.println("Invalid ZIP Code. Please try again.");
+                return;
+            }
+            String trimmed = zipCode.trim();
+            if (trimmed.isEmpty()) {
+                System.out.println("ZIP Code cannot be empty. Please try again.");
+                return;
+            }
+            timed(choice, () -> query.accept(trimmed));
+        } catch (Exception e) {
+            System.err.println(errorPrefix + e.getMessage());
+        }
+    }
+
+    /**
+     * Records an option's latency, from its query (after any ZIP Code prompt) to its printed answer,
+     * whether or not the query fails.
+     */
+    private static void timed(int choice, Runnable query) {
+        long start = System.nanoTime();
+        try {
+            query.run();
+        } finally {
+            Metrics.uiTimer(Integer.toString(choice)).recordSince(start);
+        }
+    }
+
 }
@@ -0,0 +1,48 @@
+package common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParkingViolationTableTest {
+
+    @Test
+    void testOf_EncodesRepeatedStringsOnce() {
+        ParkingViolationTable table = ParkingViolationTable.of(Arrays.asList(
+            new ParkingViolation(Instant.parse("2013-04-03T15:15:00Z"), 36.5, "METER EXPIRED", "P1", "PA", "T1", "19104"),
+            null,
+            new ParkingViolation(Instant.parse("2013-04-03T15:16:00Z"), 51.0, "METER EXPIRED", "P2", "NJ", "T2", "19104"),
+            new ParkingViolation(null, 26.0, "BUS ONLY", "P3", "PA", "T3", null)
+        ));
+
+        assertEquals(3, table.size());
+        assertEquals(Arrays.asList("METER EXPIRED", "BUS ONLY"), table.getDescriptions());
+        assertEquals(Arrays.asList("PA", "NJ"), table.getStates());
+        assertEquals(19104, table.getZipCode(1));
+        assertEquals(ZipCode.NONE, table.getZipCode(2));
+        assertEquals(1, table.getStateCode(1));
+        assertEquals(36.5, table.getFine(0));
+        assertEquals(Instant.parse("2013-04-03T15:16:00Z").getEpochSecond(), table.getEpochSecond(1));
+        assertEquals(ParkingViolationTable.NO_TIMESTAMP, table.getEpochSecond(2));
+    }
+
+    @Test
+    void testOf_KeepsEveryFineExactly() {
+        List<ParkingViolation> violations = Arrays.asList(
+            new ParkingViolation(Instant.now(), 12.345, "HALF CENT", "P1", "PA", "T1", "19104"),
+            new ParkingViolation(Instant.now(), 1e12, "TOO LARGE", "P2", "PA", "T2", "19104"),
+            new ParkingViolation(Instant.now(), 0.07, "SEVEN CENTS", "P3", "PA", "T3", "19104")
+        );
+
+        ParkingViolationTable table = ParkingViolationTable.of(violations);
+
+        assertEquals(3, table.size());
+        assertEquals(12.345, table.getFine(0));
+        assertEquals(1e12, table.getFine(1));
+        assertEquals(0.07, table.getFine(2));
+    }
+}
@@ -0,0 +1,36 @@
+package common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PopulationTableTest {
+
+    @Test
+    void testOf_KeepsTheFirstRowOfADuplicateZipCode() {
+        PopulationTable table = PopulationTable.of(Arrays.asList(
+            new Population("19104", 100),
+            new Population("19103", 50),
+            new Population("19104", 7)));
+
+        assertEquals(100, table.getPopulation(19104));
+        assertEquals(50, table.getPopulation(19103));
+        assertEquals(157, table.getTotalPopulation());
+    }
+
+    @Test
+    void testOf_CountsShortZipCodesOnlyInTheTotal() {
+        PopulationTable table = PopulationTable.of(Arrays.asList(
+            new Population("1910", 40),
+            new Population("19104", 100),
+            null));
+
+        assertEquals(ZipCode.NONE, ZipCode.parse("1910"));
+        assertFalse(table.contains(ZipCode.parse("1910")));
+        assertEquals(0, table.getPopulation(ZipCode.parse("1910")));
+        assertTrue(table.contains(19104));
+        assertEquals(140, table.getTotalPopulation());
+    }
+}
@@ -0,0 +1,26 @@
+package common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZipCodeTest {
+
+    @Test
+    void testParse_AcceptsOnlyFiveDigits() {
+        assertEquals(19104, ZipCode.parse("19104"));
+        assertEquals(1234, ZipCode.parse("01234"));
+        assertEquals(ZipCode.NONE, ZipCode.parse(null));
+        assertEquals(ZipCode.NONE, ZipCode.parse("1910"));
+        assertEquals(ZipCode.NONE, ZipCode.parse("191040"));
+        assertEquals(ZipCode.NONE, ZipCode.parse(" 9104"));
+        assertEquals(19104, ZipCode.parse("19104-1234", 0, 5));
+    }
+
+    @Test
+    void testFormat_RestoresLeadingZeros() {
+        assertEquals("01234", ZipCode.format(1234));
+        assertSame(ZipCode.format(19104), ZipCode.format(19104));
+        assertThrows(IllegalArgumentException.class, () -> ZipCode.format(ZipCode.NONE));
+    }
+}
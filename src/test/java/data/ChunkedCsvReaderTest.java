@@ -0,0 +1,114 @@
+package data;
+
+import common.ParkingViolation;
+import common.ParkingViolationTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkedCsvReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testStream_MatchesSequentialReaderAcrossChunkBoundaries() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            csv.append("2013-04-03T15:15:00Z,").append(i % 90).append(",METER EXPIRED CC,").append(1322731 + i)
+               .append(",PA,").append(2905938 + i).append(",19104\r\n");
+            csv.append("\n");
+            csv.append("2013-04-03T07:35:00Z,-5,NEGATIVE,1,PA,2,19104\n");
+            csv.append("not-a-date,51,BAD DATE,1,PA,3,19104\r");
+            csv.append("2013-09-18T14:58:00Z,41,TOO,FEW,FIELDS\n");
+            csv.append(" 2013-09-18T14:58:00Z , 41 , CAFÉ ZONE , 9 , NJ , ").append(i).append(" , 19103 ,\n");
+        }
+        csv.append("2013-09-18T14:58:00Z,41,NO TERMINATOR,1,PA,4,19147");
+        Path file = tempDir.resolve("parking.csv");
+        Files.writeString(file, csv.toString(), StandardCharsets.UTF_8);
+
+        List<ParkingViolation> expected;
+        try (Stream<ParkingViolation> violations = ChunkedCsvReader.stream(file, 1, 97)) {
+            expected = violations.collect(Collectors.toList());
+        }
+        List<ParkingViolation> actual;
+        try (Stream<ParkingViolation> violations = ChunkedCsvReader.stream(file, 4, 97)) {
+            actual = violations.collect(Collectors.toList());
+        }
+
+        assertEquals(401, expected.size());
+        assertEquals(expected, actual);
+        assertEquals(Instant.parse("2013-04-03T15:15:00Z"), expected.get(0).getTimestamp());
+        assertEquals("CAFÉ ZONE", expected.get(1).getDescription());
+        assertEquals("19103", expected.get(1).getZipCode());
+        assertEquals("NO TERMINATOR", expected.get(400).getDescription());
+    }
+
+    @Test
+    void testReadTable_MatchesTheStreamedRows() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        String[] states = {"PA", "NJ", "PA", "NY", "DE"};
+        for (int i = 0; i < 300; i++) {
+            csv.append("2013-04-03T15:15:00Z,").append(i % 90).append(".345,VIOLATION ").append(i % 40)
+               .append(',').append(i).append(',').append(states[i % states.length]).append(',').append(i)
+               .append(',').append(i % 7 == 0 ? "1910" : String.valueOf(19100 + i % 13)).append('\n');
+            csv.append("2013-04-03T07:35:00Z,-5,NEGATIVE,1,PA,2,19104\r\n");
+            csv.append(" 2013-09-18T14:58:00Z , 41 , CAFÉ ZONE , 9 , NJ , ").append(i).append(" , 19103 ,\n");
+        }
+        Path file = tempDir.resolve("parking.csv");
+        Files.writeString(file, csv.toString(), StandardCharsets.UTF_8);
+
+        ParkingViolationTable expected;
+        try (Stream<ParkingViolation> violations = ChunkedCsvReader.stream(file, 1, 97)) {
+            expected = ParkingViolationTable.build(violations);
+        }
+
+        assertEquals(600, expected.size());
+        for (int parallelism : new int[]{1, 4}) {
+            ParkingViolationTable actual = ChunkedCsvReader.readTable(file, parallelism, 97);
+            assertEquals(expected.size(), actual.size());
+            assertEquals(expected.getDescriptions(), actual.getDescriptions());
+            assertEquals(expected.getStates(), actual.getStates());
+            for (int row = 0; row < expected.size(); row++) {
+                assertEquals(expected.getEpochSecond(row), actual.getEpochSecond(row));
+                assertEquals(expected.getFine(row), actual.getFine(row));
+                assertEquals(expected.getDescriptionCode(row), actual.getDescriptionCode(row));
+                assertEquals(expected.getStateCode(row), actual.getStateCode(row));
+                assertEquals(expected.getZipCode(row), actual.getZipCode(row));
+            }
+        }
+    }
+
+    @Test
+    void testReadTable_RejectsInvalidUtf8InAFieldItDoesNotKeep() throws IOException {
+        Path file = tempDir.resolve("parking.csv");
+        byte[] line = "2013-04-03T15:15:00Z,36,METER,T\u00ff1,PA,P1,19104\n".getBytes(StandardCharsets.ISO_8859_1);
+        Files.write(file, line);
+
+        assertThrows(UncheckedIOException.class, () -> ChunkedCsvReader.readTable(file, 1, 97));
+        assertThrows(UncheckedIOException.class, () -> {
+            try (Stream<ParkingViolation> violations = ChunkedCsvReader.stream(file, 1, 97)) {
+                violations.count();
+            }
+        });
+    }
+
+    @Test
+    void testReadCsvFile_ParallelMatchesSequentialOnSample() {
+        List<ParkingViolation> expected = ParkingViolationReader.readCsvFile("parking.csv");
+        List<ParkingViolation> actual = ParkingViolationReader.readCsvFile("parking.csv", 4);
+
+        assertEquals(expected, actual);
+    }
+}
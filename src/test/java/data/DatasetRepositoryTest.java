@@ -0,0 +1,76 @@
+package data;
+
+import common.Population;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatasetRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testGetPopulations_LoadedOnceWhileFileUnchanged() throws IOException {
+        Path populationFile = tempDir.resolve("population.txt");
+        Files.writeString(populationFile, "15213 1000\n15217 2000\n");
+
+        DatasetRepository repository = new DatasetRepository("parking.csv", "property.csv", populationFile.toString());
+
+        List<Population> first = repository.getPopulations();
+        List<Population> second = repository.getPopulations();
+
+        assertEquals(2, first.size());
+        assertSame(first, second);
+    }
+
+    @Test
+    void testGetPopulations_ReloadedWhenFileChanges() throws IOException {
+        Path populationFile = tempDir.resolve("population.txt");
+        Files.writeString(populationFile, "15213 1000\n");
+
+        DatasetRepository repository = new DatasetRepository("parking.csv", "property.csv", populationFile.toString());
+        List<Population> first = repository.getPopulations();
+
+        Files.writeString(populationFile, "15213 1000\n15217 2000\n");
+        Files.setLastModifiedTime(populationFile, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        List<Population> second = repository.getPopulations();
+
+        assertEquals(1, first.size());
+        assertEquals(2, second.size());
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void testGetPopulations_ReturnsImmutableList() throws IOException {
+        Path populationFile = tempDir.resolve("population.txt");
+        Files.writeString(populationFile, "15213 1000\n");
+
+        DatasetRepository repository = new DatasetRepository("parking.csv", "property.csv", populationFile.toString());
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> repository.getPopulations().add(new Population("15217", 2000)));
+    }
+
+    @Test
+    void testPreload_LoadsEachDatasetOnce() throws IOException {
+        Path populationFile = tempDir.resolve("population.txt");
+        Files.writeString(populationFile, "15213 1000\n15217 2000\n");
+
+        DatasetRepository repository = new DatasetRepository("parking.csv", "property.csv", populationFile.toString());
+        CompletableFuture<Void> preload = repository.preload();
+        List<Population> duringPreload = repository.getPopulations();
+        preload.exceptionally(e -> null).join();
+
+        assertSame(duringPreload, repository.getPopulations());
+        assertEquals(3000, repository.getPopulationTable().getTotalPopulation());
+    }
+}
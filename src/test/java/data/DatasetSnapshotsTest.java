@@ -0,0 +1,187 @@
+package data;
+
+import common.ParkingViolationTable;
+import common.Population;
+import common.PropertyValueTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatasetSnapshotsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path parkingFile;
+    private DatasetSnapshots snapshots;
+    private final AtomicInteger parses = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        parkingFile = tempDir.resolve("parking.csv");
+        Files.writeString(parkingFile, String.join("\n",
+            "2013-04-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA,2905938,19104",
+            "2013-04-04T09:00:00Z,51,PARKING PROHBITED,1322732,NJ,2905939,19103",
+            "2013-04-05T10:30:00Z,36,METER EXPIRED CC,1322733,PA,2905940,1910",
+            "2013-04-06T11:45:00Z,26.5,EXPIRED INSPECTION,1322734,PA,2905941,19102"));
+        snapshots = new DatasetSnapshots(tempDir.resolve("snapshots"));
+    }
+
+    @Test
+    void testLoadParking_ParsesOnceThenReadsTheSnapshot() {
+        ParkingViolationTable parsed = snapshots.loadParking(parkingFile.toString(), countingParser());
+        ParkingViolationTable restored = snapshots.loadParking(parkingFile.toString(), countingParser());
+
+        assertEquals(1, parses.get());
+        assertNotSame(parsed, restored);
+        assertTablesEqual(parsed, restored);
+        assertEquals(List.of("METER EXPIRED CC", "PARKING PROHBITED", "EXPIRED INSPECTION"), restored.getDescriptions());
+    }
+
+    @Test
+    void testLoadParking_ReparsesWhenTheSourceChanges() throws IOException {
+        snapshots.loadParking(parkingFile.toString(), countingParser());
+
+        Files.writeString(parkingFile, "2013-04-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA,2905938,19104\n");
+        Files.setLastModifiedTime(parkingFile, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        ParkingViolationTable changed = snapshots.loadParking(parkingFile.toString(), countingParser());
+        ParkingViolationTable restored = snapshots.loadParking(parkingFile.toString(), countingParser());
+
+        assertEquals(2, parses.get());
+        assertEquals(1, changed.size());
+        assertTablesEqual(changed, restored);
+    }
+
+    @Test
+    void testLoadParking_KeepsTheSnapshotOfATouchedButIdenticalSource() throws IOException {
+        snapshots.loadParking(parkingFile.toString(), countingParser());
+
+        Files.setLastModifiedTime(parkingFile, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        snapshots.loadParking(parkingFile.toString(), countingParser());
+        snapshots.loadParking(parkingFile.toString(), countingParser());
+
+        assertEquals(1, parses.get());
+    }
+
+    @Test
+    void testLoadParking_ReplacesADamagedSnapshot() throws IOException {
+        ParkingViolationTable parsed = snapshots.loadParking(parkingFile.toString(), countingParser());
+        Path snapshot = onlySnapshot();
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 3));
+
+        ParkingViolationTable reparsed = snapshots.loadParking(parkingFile.toString(), countingParser());
+        ParkingViolationTable restored = snapshots.loadParking(parkingFile.toString(), countingParser());
+
+        assertEquals(2, parses.get());
+        assertTablesEqual(parsed, reparsed);
+        assertTablesEqual(parsed, restored);
+        assertArrayEquals(bytes, Files.readAllBytes(snapshot));
+    }
+
+    @Test
+    void testLoadParking_RejectsASnapshotOfAnotherSource() throws IOException {
+        Path otherFile = Files.createDirectory(tempDir.resolve("other")).resolve("parking.csv");
+        Files.writeString(otherFile, Files.readString(parkingFile).replace(",36,", ",37,"));
+        FileTime lastModified = FileTime.fromMillis(1_700_000_000_000L);
+        Files.setLastModifiedTime(parkingFile, lastModified);
+        Files.setLastModifiedTime(otherFile, lastModified);
+        snapshots.loadParking(parkingFile.toString(), countingParser());
+
+        // as if both paths hashed to the same snapshot name
+        Path otherSource = otherFile.toAbsolutePath().normalize();
+        Files.copy(onlySnapshot(), tempDir.resolve("snapshots").resolve("parking.csv."
+            + Integer.toHexString(otherSource.toString().hashCode()) + ".parking.snap"));
+        ParkingViolationTable other = snapshots.loadParking(otherFile.toString(), countingParser());
+
+        assertEquals(2, parses.get());
+        assertEquals(37.0, other.getFine(0));
+    }
+
+    @Test
+    void testLoadPropertyAndPopulation_RoundTrip() throws IOException {
+        Path propertyFile = tempDir.resolve("property.csv");
+        Files.writeString(propertyFile, "market_value,total_livable_area,zip_code\n"
+            + "100000,1000,19104\n,1500,19103-1234\n250000,,abc\n");
+        Path populationFile = tempDir.resolve("population.txt");
+        Files.writeString(populationFile, "19104 100\n19103 200\n");
+
+        PropertyValueTable parsedProperty = snapshots.loadProperty(propertyFile.toString(), PropertyValueReader::readTable);
+        PropertyValueTable restoredProperty = snapshots.loadProperty(propertyFile.toString(), path -> fail("parsed again"));
+        List<Population> parsedPopulation = snapshots.loadPopulation(populationFile.toString(),
+            PopulationReader::readPopulationFile);
+        List<Population> restoredPopulation = snapshots.loadPopulation(populationFile.toString(),
+            path -> fail("parsed again"));
+
+        assertEquals(parsedProperty.size(), restoredProperty.size());
+        for (int row = 0; row < parsedProperty.size(); row++) {
+            assertEquals(parsedProperty.getMarketValue(row), restoredProperty.getMarketValue(row));
+            assertEquals(parsedProperty.getTotalLivableArea(row), restoredProperty.getTotalLivableArea(row));
+            assertEquals(parsedProperty.getZipCode(row), restoredProperty.getZipCode(row));
+        }
+        assertTrue(Double.isNaN(restoredProperty.getMarketValue(1)));
+        assertEquals(parsedPopulation.size(), restoredPopulation.size());
+        for (int row = 0; row < parsedPopulation.size(); row++) {
+            assertEquals(parsedPopulation.get(row).getZipCode(), restoredPopulation.get(row).getZipCode());
+            assertEquals(parsedPopulation.get(row).getPopulation(), restoredPopulation.get(row).getPopulation());
+        }
+        assertThrows(UnsupportedOperationException.class, () -> restoredPopulation.add(new Population("19102", 1)));
+    }
+
+    @Test
+    void testDatasetRepository_UsesTheSnapshots() throws IOException {
+        Path populationFile = tempDir.resolve("population.txt");
+        Files.writeString(populationFile, "19104 100\n");
+
+        new DatasetRepository(parkingFile.toString(), "property.csv", populationFile.toString(), snapshots)
+            .getParkingViolations();
+        DatasetRepository restarted =
+            new DatasetRepository(parkingFile.toString(), "property.csv", populationFile.toString(), snapshots);
+
+        assertEquals(4, restarted.getParkingViolations().size());
+        assertEquals(1, restarted.getPopulations().size());
+        try (Stream<Path> files = Files.list(tempDir.resolve("snapshots"))) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    private Function<String, ParkingViolationTable> countingParser() {
+        return path -> {
+            parses.incrementAndGet();
+            return ParkingViolationReader.readTable(path);
+        };
+    }
+
+    private Path onlySnapshot() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir.resolve("snapshots"))) {
+            List<Path> snapshotFiles = files.toList();
+            assertEquals(1, snapshotFiles.size());
+            return snapshotFiles.get(0);
+        }
+    }
+
+    private static void assertTablesEqual(ParkingViolationTable expected, ParkingViolationTable actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.getDescriptions(), actual.getDescriptions());
+        assertEquals(expected.getStates(), actual.getStates());
+        for (int row = 0; row < expected.size(); row++) {
+            assertEquals(expected.getEpochSecond(row), actual.getEpochSecond(row));
+            assertEquals(expected.getFine(row), actual.getFine(row));
+            assertEquals(expected.getDescriptionCode(row), actual.getDescriptionCode(row));
+            assertEquals(expected.getStateCode(row), actual.getStateCode(row));
+            assertEquals(expected.getZipCode(row), actual.getZipCode(row));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package data;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FieldParserTest {
+
+    @Test
+    void testParseEpochSecond_MatchesInstantParse() {
+        String[] instants = {
+                "2013-04-03T15:15:00Z", "1970-01-01T00:00:00Z", "2000-02-29T23:59:59Z",
+                "1969-12-31T23:59:59Z", "0001-01-01T00:00:00Z", "2013-04-03T15:15:00.5Z", "2013-04-03T15:15:00+01:00", "2013-04-03T24:00:00Z"
+        };
+        for (String instant : instants) {
+            assertEquals(Instant.parse(instant).getEpochSecond(), FieldParser.parseEpochSecond(buffer(instant), 0, instant.length()),
+                    instant);
+        }
+    }
+
+    @Test
+    void testParseEpochSecond_RejectsInvalidDates() {
+        String[] invalid = {"2013-02-29T00:00:00Z", "2013-13-01T00:00:00Z", "2013-04-03T25:00:00Z", "2013-04-0XT15:15:00Z", "not-a-date"};
+        for (String instant : invalid) {
+            assertThrows(DateTimeException.class, () -> FieldParser.parseEpochSecond(buffer(instant), 0, instant.length()), instant);
+        }
+    }
+
+    @Test
+    void testParseDouble_MatchesDoubleParseDouble() {
+        String[] numbers = {"0", "41", "36.5", ".5", "0.1", "123456789012345", "1234567890.12345", "1.", "1e3", "-5", "9999999999999999.9"};
+        for (String number : numbers) {
+            assertEquals(Double.parseDouble(number), FieldParser.parseDouble(buffer(number), 0, number.length()), number);
+        }
+        assertThrows(NumberFormatException.class, () -> FieldParser.parseDouble(buffer("4x"), 0, 2));
+    }
+
+    @Test
+    void testParseZipCode_AcceptsOnlyFiveDigits() {
+        assertEquals(19104, FieldParser.parseZipCode(buffer("19104"), 0, 5));
+        assertEquals(-1, FieldParser.parseZipCode(buffer("1910"), 0, 4));
+        assertEquals(-1, FieldParser.parseZipCode(buffer("1910A"), 0, 5));
+    }
+
+    private static ByteBuffer buffer(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
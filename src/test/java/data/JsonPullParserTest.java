@@ -0,0 +1,67 @@
+package data;
+
+import data.JsonPullParser.Token;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonPullParserTest {
+
+    @Test
+    void testNext_TokenizesNestedDocument() throws IOException {
+        JsonPullParser parser = new JsonPullParser(new StringReader(
+                " [ {\"a\": \"x\\\"y\\u0041\", \"b\": -12.5e3, \"c\": [true, false, null]}, {} ] "));
+
+        assertEquals(Token.BEGIN_ARRAY, parser.next());
+        assertEquals(Token.BEGIN_OBJECT, parser.next());
+        assertEquals(Token.NAME, parser.next());
+        assertTrue(parser.textEquals("a"));
+        assertEquals(Token.STRING, parser.next());
+        assertEquals("x\"yA", parser.textAsString());
+        assertEquals(Token.NAME, parser.next());
+        assertEquals(Token.NUMBER, parser.next());
+        assertEquals("-12.5e3", parser.textAsString());
+        assertEquals(Token.NAME, parser.next());
+        assertEquals(Token.BEGIN_ARRAY, parser.next());
+        assertEquals(Token.TRUE, parser.next());
+        assertEquals(Token.FALSE, parser.next());
+        assertEquals(Token.NULL, parser.next());
+        assertEquals(Token.END_ARRAY, parser.next());
+        assertEquals(Token.END_OBJECT, parser.next());
+        assertEquals(Token.BEGIN_OBJECT, parser.next());
+        assertEquals(Token.END_OBJECT, parser.next());
+        assertEquals(Token.END_ARRAY, parser.next());
+        assertEquals(Token.END_DOCUMENT, parser.next());
+    }
+
+    @Test
+    void testSkipContainer_SkipsToMatchingEnd() throws IOException {
+        JsonPullParser parser = new JsonPullParser(new StringReader("[[1, {\"x\": [2]}], 3]"));
+
+        assertEquals(Token.BEGIN_ARRAY, parser.next());
+        assertEquals(Token.BEGIN_ARRAY, parser.next());
+        parser.skipContainer();
+        assertEquals(Token.NUMBER, parser.next());
+        assertEquals("3", parser.textAsString());
+        assertEquals(Token.END_ARRAY, parser.next());
+    }
+
+    @Test
+    void testNext_RejectsMalformedInput() {
+        assertThrows(JsonPullParser.SyntaxException.class, () -> drain("[1, 2"));
+        assertThrows(JsonPullParser.SyntaxException.class, () -> drain("{\"a\" 1}"));
+        assertThrows(JsonPullParser.SyntaxException.class, () -> drain("[01]"));
+        assertThrows(JsonPullParser.SyntaxException.class, () -> drain("[1] 2"));
+        assertThrows(JsonPullParser.SyntaxException.class, () -> drain(""));
+    }
+
+    private static void drain(String json) throws IOException {
+        JsonPullParser parser = new JsonPullParser(new StringReader(json));
+        while (parser.next() != Token.END_DOCUMENT) {
+            // consume every token
+        }
+    }
+}
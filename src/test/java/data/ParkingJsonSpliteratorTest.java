@@ -0,0 +1,99 @@
+package data;
+
+import common.ParkingViolation;
+import data.JsonPullParser.Token;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParkingJsonSpliteratorTest {
+
+    private static final String VALID = "\"ticket_number\":1,\"plate_id\":\"p\",\"date\":\"2013-04-03T15:15:00Z\","
+        + "\"zip_code\":\"19104\",\"violation\":\"v\",\"fine\":36,\"state\":\"PA\"";
+
+    @Test
+    void testTryAdvance_AcceptsACompleteObject() throws IOException {
+        ParkingJsonSpliterator spliterator = spliterator("[{" + VALID + "}]");
+
+        List<ParkingViolation> violations = readAll(spliterator);
+
+        assertEquals(1, violations.size());
+        assertEquals(36.0, violations.get(0).getFine());
+        assertEquals("1", violations.get(0).getViolationId());
+        assertEquals(0, spliterator.getSkipped());
+    }
+
+    @Test
+    void testTryAdvance_SkipsElementsThatAreNotObjects() throws IOException {
+        ParkingJsonSpliterator spliterator = spliterator("[42, \"text\", null, [{" + VALID + "}], {" + VALID + "}]");
+
+        assertEquals(1, readAll(spliterator).size());
+        assertEquals(4, spliterator.getSkipped());
+    }
+
+    @Test
+    void testTryAdvance_SkipsNullMissingAndEmptyFields() throws IOException {
+        ParkingJsonSpliterator spliterator = spliterator("["
+            + "{" + VALID.replace("\"zip_code\":\"19104\"", "\"zip_code\":null") + "},"
+            + "{" + VALID.replace("\"plate_id\":\"p\",", "") + "},"
+            + "{" + VALID.replace("\"state\":\"PA\"", "\"state\":\"  \"") + "},"
+            + "{" + VALID + "}]");
+
+        assertEquals(1, readAll(spliterator).size());
+        assertEquals(3, spliterator.getSkipped());
+    }
+
+    @Test
+    void testTryAdvance_SkipsNestedValuesButIgnoresUnknownOnes() throws IOException {
+        ParkingJsonSpliterator spliterator = spliterator("["
+            + "{" + VALID.replace("\"violation\":\"v\"", "\"violation\":{\"code\":\"v\"}") + "},"
+            + "{" + VALID.replace("\"fine\":36", "\"fine\":[36]") + "},"
+            + "{" + VALID + ",\"extra\":{\"nested\":[1,{\"a\":2}]}}]");
+
+        List<ParkingViolation> violations = readAll(spliterator);
+
+        assertEquals(1, violations.size());
+        assertEquals("v", violations.get(0).getDescription());
+        assertEquals(2, spliterator.getSkipped());
+    }
+
+    @Test
+    void testTryAdvance_SkipsNegativeAndInvalidFines() throws IOException {
+        ParkingJsonSpliterator spliterator = spliterator("["
+            + "{" + VALID.replace("\"fine\":36", "\"fine\":-36") + "},"
+            + "{" + VALID.replace("\"fine\":36", "\"fine\":\"-1.5\"") + "},"
+            + "{" + VALID.replace("\"fine\":36", "\"fine\":\"abc\"") + "},"
+            + "{" + VALID.replace("\"fine\":36", "\"fine\":\"12.5\"") + "}]");
+
+        List<ParkingViolation> violations = readAll(spliterator);
+
+        assertEquals(1, violations.size());
+        assertEquals(12.5, violations.get(0).getFine());
+        assertEquals(3, spliterator.getSkipped());
+    }
+
+    @Test
+    void testTryAdvance_RejectsContentAfterTheArray() throws IOException {
+        ParkingJsonSpliterator spliterator = spliterator("[{" + VALID + "}]x");
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> readAll(spliterator));
+        assertInstanceOf(JsonPullParser.SyntaxException.class, e.getCause());
+        assertEquals(1, readAll(spliterator("[{" + VALID + "}]  \n")).size());
+    }
+
+    private static ParkingJsonSpliterator spliterator(String json) throws IOException {
+        JsonPullParser parser = new JsonPullParser(new StringReader(json));
+        assertEquals(Token.BEGIN_ARRAY, parser.next());
+        return new ParkingJsonSpliterator(parser, "test.json",
+            ParkingJsonSpliterator.METRICS.startLoad("test.json", "json"));
+    }
+
+    private static List<ParkingViolation> readAll(ParkingJsonSpliterator spliterator) {
+        return StreamSupport.stream(spliterator, false).toList();
+    }
+}
@@ -0,0 +1,71 @@
+package data;
+
+import common.PropertyValue;
+import common.PropertyValueTable;
+import common.ZipCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PropertyValueReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReadTable_MatchesReadCsvFile() throws IOException {
+        Path file = tempDir.resolve("property.csv");
+        Files.writeString(file, "zip_code,market_value,other,total_livable_area\n"
+                + "19104-1234,250000,x,1200\n"
+                + "19103,0,x,-5\n"
+                + " 1910 ,abc,x,\n"
+                + ",100,x,900\n"
+                + "19104,300000\n"
+                + "19104,125000.5,x,800.25\n");
+
+        List<PropertyValue> expected = PropertyValueReader.readCsvFile(file.toString());
+        PropertyValueTable table = PropertyValueReader.readTable(file.toString());
+
+        assertEquals(expected.size(), table.size());
+        for (int row = 0; row < table.size(); row++) {
+            PropertyValue propertyValue = expected.get(row);
+            assertEquals(orNaN(propertyValue.getMarketValue()), table.getMarketValue(row));
+            assertEquals(orNaN(propertyValue.getTotalLivableArea()), table.getTotalLivableArea(row));
+            assertEquals(ZipCode.parse(propertyValue.getZipCode()), table.getZipCode(row));
+        }
+    }
+
+    @Test
+    void testReadTable_LeavesShortZipCodesOutOfTheIndex() throws IOException {
+        Path file = tempDir.resolve("property.csv");
+        Files.writeString(file, "market_value,total_livable_area,zip_code\n"
+                + "100000,1000,1910\n"
+                + "200000,2000,19104-1234\n");
+
+        PropertyValueTable table = PropertyValueReader.readTable(file.toString());
+        PropertyZipIndex index = PropertyZipIndex.build(table);
+
+        assertEquals(2, table.size());
+        assertEquals(ZipCode.NONE, table.getZipCode(0));
+        assertNull(index.get("1910"));
+        assertNotNull(index.get("19104"));
+    }
+
+    @Test
+    void testReadTable_RejectsMissingColumns() throws IOException {
+        Path file = tempDir.resolve("property.csv");
+        Files.writeString(file, "zip_code,market_value\n19104,250000\n");
+
+        assertThrows(RuntimeException.class, () -> PropertyValueReader.readTable(file.toString()));
+    }
+
+    private static double orNaN(Double value) {
+        return value == null ? Double.NaN : value;
+    }
+}
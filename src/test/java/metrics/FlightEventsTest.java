@@ -0,0 +1,99 @@
+package metrics;
+
+import data.DatasetRepository;
+import data.ParkingViolationReader;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import processor.MarketValueService;
+import processor.QueryCache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlightEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDatasetLoad_ReportsTheRowsOfTheFile() throws IOException {
+        Path file = tempDir.resolve("parking.csv");
+        Files.writeString(file, String.join("\n",
+            "2013-04-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA,2905938,19104",
+            "2013-04-03T15:15:00Z,-36,METER EXPIRED CC,1322731,PA,2905939,19104",
+            "2013-04-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA,2905940,19103"));
+
+        List<RecordedEvent> events = record(() -> ParkingViolationReader.readCsvFile(file.toString()));
+
+        List<RecordedEvent> loads = ofType(events, DatasetLoadEvent.NAME);
+        assertEquals(1, loads.size());
+        RecordedEvent load = loads.get(0);
+        assertEquals("parking_csv", load.getString("dataset"));
+        assertEquals(file.toString(), load.getString("file"));
+        assertEquals("csv", load.getString("format"));
+        assertEquals(Files.size(file), load.getLong("bytes"));
+        assertEquals(2, load.getLong("rowsAccepted"));
+        assertEquals(1, load.getLong("rowsSkipped"));
+    }
+
+    @Test
+    void testQueryExecution_ReportsRowsScannedAndCacheOutcome() throws IOException {
+        Path property = tempDir.resolve("property.csv");
+        Files.writeString(property, "market_value,total_livable_area,zip_code\n"
+            + "100000,1000,19104\n200000,1500,19104\n300000,2000,19103\n");
+        DatasetRepository repository = new DatasetRepository(tempDir.resolve("parking.csv").toString(),
+            property.toString(), tempDir.resolve("population.txt").toString());
+        MarketValueService service = new MarketValueService(repository, new QueryCache());
+
+        List<RecordedEvent> events = record(() -> {
+            assertEquals(150000, service.getAverageMarketValue("19104"));
+            assertEquals(150000, service.getAverageMarketValue("19104"));
+        });
+
+        List<RecordedEvent> queries = ofType(events, QueryExecutionEvent.NAME);
+        assertEquals(2, queries.size());
+        for (RecordedEvent query : queries) {
+            assertEquals("MarketValueService.getAverageMarketValue", query.getString("method"));
+            assertEquals("19104", query.getString("zipCode"));
+        }
+        // the first call computes from the two properties, the second is answered from the cache
+        assertEquals(2, queries.get(0).getLong("rowsScanned"));
+        assertEquals(0, queries.get(1).getLong("rowsScanned"));
+
+        List<RecordedEvent> lookups = ofType(events, QueryCacheEvent.NAME);
+        assertEquals(2, lookups.size());
+        assertEquals("averageMarketValue", lookups.get(0).getString("query"));
+        assertFalse(lookups.get(0).getBoolean("hit"));
+        assertTrue(lookups.get(1).getBoolean("hit"));
+        assertEquals(1, ofType(events, DatasetLoadEvent.NAME).size());
+    }
+
+    private List<RecordedEvent> record(Runnable action) throws IOException {
+        Path dump = tempDir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(DatasetLoadEvent.NAME);
+            recording.enable(QueryExecutionEvent.NAME);
+            recording.enable(QueryCacheEvent.NAME);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(dump);
+        }
+        return RecordingFile.readAllEvents(dump);
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream()
+            .filter(event -> event.getEventType().getName().equals(name))
+            .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,93 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void testBuckets_KeepEveryValueWithinOneSixtyFourth() {
+        for (long value = 0; value < (1L << LatencyHistogram.MAX_EXPONENT); value = value * 5 / 4 + 1) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            long highest = LatencyHistogram.highestValueOf(bucket);
+            assertTrue(highest >= value, "value " + value);
+            assertTrue(highest - value <= value / LatencyHistogram.SUB_BUCKETS, "value " + value);
+            if (bucket > 0) {
+                assertTrue(LatencyHistogram.highestValueOf(bucket - 1) < value, "value " + value);
+            }
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testPercentiles_OfAUniformDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        long[] values = histogram.getValuesAtPercentiles(50, 90, 99, 99.9, 100);
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(5_000_000, values[0], 5_000_000 / 64.0);
+        assertEquals(9_000_000, values[1], 9_000_000 / 64.0);
+        assertEquals(9_900_000, values[2], 9_900_000 / 64.0);
+        assertEquals(9_990_000, values[3], 9_990_000 / 64.0);
+        assertEquals(10_000_000, values[4]);
+        assertEquals(10_000_000, histogram.getMaxNanos());
+    }
+
+    @Test
+    void testPercentiles_SeeTheTail() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 990; i++) {
+            histogram.record(50_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(3_000_000_000L);
+        }
+
+        assertEquals(50_000, histogram.getValueAtPercentile(99), 50_000 / 64.0);
+        assertEquals(3_000_000_000L, histogram.getValueAtPercentile(99.9), 3_000_000_000L / 64.0);
+    }
+
+    @Test
+    void testEmptyAndInvalid() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertArrayEquals(new long[]{0, 0}, histogram.getValuesAtPercentiles(50, 99));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(Double.NaN));
+    }
+
+    @Test
+    void testRecord_FromManyThreads() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100_000; i++) {
+                        histogram.record(i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(400_000, histogram.getCount());
+        assertEquals(99_999, histogram.getMaxNanos());
+    }
+}
@@ -0,0 +1,147 @@
+package metrics;
+
+import data.ParkingViolationReader;
+import data.PopulationReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    // the registry is process-wide, so every assertion compares against a snapshot taken before
+    @Test
+    void testParkingCsvReader_CountsRowsBySkipReason() throws IOException {
+        Path file = tempDir.resolve("parking.csv");
+        Files.writeString(file, String.join("\n",
+            "2013-04-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA,2905938,19104",
+            "2013-04-03T15:15:00Z,-36,METER EXPIRED CC,1322731,PA,2905939,19104",
+            "2013-04-03T15:15:00Z,abc,METER EXPIRED CC,1322731,PA,2905940,19104",
+            "2013-13-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA,2905941,19104",
+            "2013-04-03T15:15:00Z,36,METER EXPIRED CC,1322731,,2905942,19104",
+            "2013-04-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA,2905943",
+            "",
+            "2013-04-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA,2905944,19104"));
+        ReaderMetrics metrics = Metrics.reader("parking_csv");
+        long accepted = metrics.getRowsAccepted();
+        long read = metrics.getRowsRead();
+        long bytes = metrics.getBytesRead();
+        long parses = metrics.getParseTimer().getCount();
+        long[] skipped = skippedByReason(metrics);
+
+        assertEquals(2, ParkingViolationReader.readCsvFile(file.toString()).size());
+
+        assertEquals(2, metrics.getRowsAccepted() - accepted);
+        assertEquals(7, metrics.getRowsRead() - read);
+        assertEquals(Files.size(file), metrics.getBytesRead() - bytes);
+        assertEquals(1, metrics.getParseTimer().getCount() - parses);
+        assertEquals(1, metrics.getRowsSkipped(SkipReason.NEGATIVE_NUMBER) - skipped[SkipReason.NEGATIVE_NUMBER.ordinal()]);
+        assertEquals(1, metrics.getRowsSkipped(SkipReason.INVALID_NUMBER) - skipped[SkipReason.INVALID_NUMBER.ordinal()]);
+        assertEquals(1, metrics.getRowsSkipped(SkipReason.INVALID_TIMESTAMP) - skipped[SkipReason.INVALID_TIMESTAMP.ordinal()]);
+        assertEquals(1, metrics.getRowsSkipped(SkipReason.MISSING_FIELD) - skipped[SkipReason.MISSING_FIELD.ordinal()]);
+        assertEquals(1, metrics.getRowsSkipped(SkipReason.FIELD_COUNT) - skipped[SkipReason.FIELD_COUNT.ordinal()]);
+    }
+
+    @Test
+    void testParkingJsonReader_CountsRowsBySkipReason() throws IOException {
+        Path file = tempDir.resolve("parking.json");
+        Files.writeString(file, "[{\"ticket_number\":1,\"plate_id\":\"p\",\"date\":\"2013-04-03T15:15:00Z\",\"zip_code\":\"19104\","
+            + "\"violation\":\"v\",\"fine\":36,\"state\":\"PA\"},"
+            + "{\"ticket_number\":2,\"plate_id\":\"p\",\"date\":\"2013-04-03T15:15:00Z\",\"zip_code\":null,"
+            + "\"violation\":\"v\",\"fine\":36,\"state\":\"PA\"},"
+            + "{\"ticket_number\":3,\"plate_id\":\"p\",\"date\":\"yesterday\",\"zip_code\":\"19104\","
+            + "\"violation\":\"v\",\"fine\":36,\"state\":\"PA\"},"
+            + "42]");
+        ReaderMetrics metrics = Metrics.reader("parking_json");
+        long accepted = metrics.getRowsAccepted();
+        long[] skipped = skippedByReason(metrics);
+
+        assertEquals(1, ParkingViolationReader.readJsonFile(file.toString()).size());
+
+        assertEquals(1, metrics.getRowsAccepted() - accepted);
+        assertEquals(1, metrics.getRowsSkipped(SkipReason.MISSING_FIELD) - skipped[SkipReason.MISSING_FIELD.ordinal()]);
+        assertEquals(1, metrics.getRowsSkipped(SkipReason.INVALID_TIMESTAMP) - skipped[SkipReason.INVALID_TIMESTAMP.ordinal()]);
+        assertEquals(1, metrics.getRowsSkipped(SkipReason.NOT_AN_OBJECT) - skipped[SkipReason.NOT_AN_OBJECT.ordinal()]);
+    }
+
+    @Test
+    void testPopulationReader_CountsRowsBySkipReason() throws IOException {
+        Path file = tempDir.resolve("population.txt");
+        Files.writeString(file, "19104 100\n19103 -5\n19102 many\n19106\n\n");
+        ReaderMetrics metrics = Metrics.reader("population");
+        long accepted = metrics.getRowsAccepted();
+        long[] skipped = skippedByReason(metrics);
+
+        assertEquals(1, PopulationReader.readPopulationFile(file.toString()).size());
+
+        assertEquals(1, metrics.getRowsAccepted() - accepted);
+        assertEquals(1, metrics.getRowsSkipped(SkipReason.NEGATIVE_NUMBER) - skipped[SkipReason.NEGATIVE_NUMBER.ordinal()]);
+        assertEquals(1, metrics.getRowsSkipped(SkipReason.INVALID_NUMBER) - skipped[SkipReason.INVALID_NUMBER.ordinal()]);
+        assertEquals(1, metrics.getRowsSkipped(SkipReason.FIELD_COUNT) - skipped[SkipReason.FIELD_COUNT.ordinal()]);
+    }
+
+    @Test
+    void testPrometheusText_HasHelpTypeAndLabelledSamples() {
+        Timer timer = Metrics.serviceTimer("TestService", "testMethod");
+        timer.record(1_500_000_000L);
+        timer.record(500_000_000L);
+
+        String text = Metrics.toPrometheusText();
+
+        assertTrue(text.contains("# TYPE cood_service_call_duration_seconds summary\n"));
+        assertTrue(text.contains("cood_service_call_duration_seconds_count{service=\"TestService\",method=\"testMethod\"} 2\n"));
+        assertTrue(text.contains("cood_service_call_duration_seconds_sum{service=\"TestService\",method=\"testMethod\"} 2\n"));
+        assertTrue(text.contains("cood_service_call_duration_seconds_max{service=\"TestService\",method=\"testMethod\"} 1.5\n"));
+        // each family's HELP and TYPE appear once, before all of its samples
+        assertEquals(text.indexOf("# TYPE cood_service_call_duration_seconds summary"),
+            text.lastIndexOf("# TYPE cood_service_call_duration_seconds summary"));
+    }
+
+    @Test
+    void testLatencyReport_ListsPercentilesOfCalledOperations() {
+        Timer timer = Metrics.uiTimer("42");
+        for (int i = 0; i < 100; i++) {
+            timer.record(2_000_000);
+        }
+        Metrics.serviceTimer("TestService", "neverCalled");
+
+        String report = Metrics.latencyReport();
+
+        assertTrue(report.startsWith("Operation"));
+        assertTrue(report.lines().anyMatch(line -> line.matches("UI option 42 +100 +2\\.000 +2\\.000 +2\\.000 +2\\.000 +2\\.000")),
+            report);
+        assertFalse(report.contains("neverCalled"));
+        assertTrue(Metrics.toPrometheusText().contains("cood_ui_option_duration_seconds{option=\"42\",quantile=\"0.99\"} 0.002\n"));
+    }
+
+    @Test
+    void testRegisterMBean_ExposesSamplesOverJmx() throws Exception {
+        Metrics.serviceTimer("TestService", "jmxMethod").record(1_000);
+        Metrics.registerMBean();
+        Metrics.registerMBean();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        String text = (String) server.getAttribute(new ObjectName(Metrics.OBJECT_NAME), "PrometheusText");
+
+        assertTrue(text.contains("method=\"jmxMethod\""));
+        assertNotNull(server.getAttribute(new ObjectName(Metrics.OBJECT_NAME), "Samples"));
+    }
+
+    private static long[] skippedByReason(ReaderMetrics metrics) {
+        long[] skipped = new long[SkipReason.values().length];
+        for (SkipReason reason : SkipReason.values()) {
+            skipped[reason.ordinal()] = metrics.getRowsSkipped(reason);
+        }
+        return skipped;
+    }
+}
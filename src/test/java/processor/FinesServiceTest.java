@@ -1,7 +1,9 @@
 package processor;
 
 import common.ParkingViolation;
+import common.ParkingViolationTable;
 import common.Population;
+import data.DatasetRepository;
 import data.ParkingViolationReader;
 import data.PopulationReader;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,7 +28,7 @@ public class FinesServiceTest {
         parkingViolationFilePath = "parking.json";
         propertyValueFilePath = "property.csv";
         populationFilePath = "population.txt";
-        finesService = new FinesService(parkingViolationFilePath, propertyValueFilePath, populationFilePath);
+        finesService = new FinesService(new DatasetRepository(parkingViolationFilePath, propertyValueFilePath, populationFilePath));
     }
 
     @Test
@@ -45,8 +47,9 @@ public class FinesServiceTest {
         try (MockedStatic<ParkingViolationReader> mockedParkingReader = mockStatic(ParkingViolationReader.class);
              MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
 
-            mockedParkingReader.when(() -> ParkingViolationReader.readFile(parkingViolationFilePath))
-                .thenReturn(parkingViolations);
+            mockedParkingReader.when(() -> ParkingViolationReader.readTable(anyString())).thenCallRealMethod();
+            mockedParkingReader.when(() -> ParkingViolationReader.streamFile(parkingViolationFilePath))
+                .thenAnswer(invocation -> parkingViolations.stream());
             mockedPopulationReader.when(() -> PopulationReader.readPopulationFile(populationFilePath))
                 .thenReturn(populations);
 
@@ -58,6 +61,36 @@ public class FinesServiceTest {
         }
     }
 
+    @Test
+    void testGetFinesPerCapitaPerZipCode_KeepsFinesThatAreNotWholeCents() {
+        List<ParkingViolation> parkingViolations = Arrays.asList(
+            new ParkingViolation(Instant.now(), 12.345, "Violation1", "ABC123", "PA", "T1", "15213"),
+            new ParkingViolation(Instant.now(), 0.1, "Violation2", "DEF456", "PA", "T2", "15213"),
+            new ParkingViolation(Instant.now(), 0.2, "Violation3", "GHI789", "PA", "T3", "15213")
+        );
+
+        List<Population> populations = Arrays.asList(new Population("15213", 3));
+
+        try (MockedStatic<ParkingViolationReader> mockedParkingReader = mockStatic(ParkingViolationReader.class);
+             MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
+
+            mockedParkingReader.when(() -> ParkingViolationReader.readTable(anyString())).thenCallRealMethod();
+            mockedParkingReader.when(() -> ParkingViolationReader.streamFile(parkingViolationFilePath))
+                .thenAnswer(invocation -> parkingViolations.stream());
+            mockedPopulationReader.when(() -> PopulationReader.readPopulationFile(populationFilePath))
+                .thenReturn(populations);
+
+            Map<String, Double> result = finesService.getFinesPerCapitaPerZipCode();
+
+            // the per-violation sum in file order, divided by the population, exactly
+            double expected = 0.0;
+            for (ParkingViolation parkingViolation : parkingViolations) {
+                expected += parkingViolation.getFine();
+            }
+            assertEquals(expected / 3, result.get("15213"));
+        }
+    }
+
     @Test
     void testGetFinesPerCapitaPerZipCode_FilterNonPAStates() {
         List<ParkingViolation> parkingViolations = Arrays.asList(
@@ -72,8 +105,9 @@ public class FinesServiceTest {
         try (MockedStatic<ParkingViolationReader> mockedParkingReader = mockStatic(ParkingViolationReader.class);
              MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
 
-            mockedParkingReader.when(() -> ParkingViolationReader.readFile(parkingViolationFilePath))
-                .thenReturn(parkingViolations);
+            mockedParkingReader.when(() -> ParkingViolationReader.readTable(anyString())).thenCallRealMethod();
+            mockedParkingReader.when(() -> ParkingViolationReader.streamFile(parkingViolationFilePath))
+                .thenAnswer(invocation -> parkingViolations.stream());
             mockedPopulationReader.when(() -> PopulationReader.readPopulationFile(populationFilePath))
                 .thenReturn(populations);
 
@@ -97,8 +131,9 @@ public class FinesServiceTest {
         try (MockedStatic<ParkingViolationReader> mockedParkingReader = mockStatic(ParkingViolationReader.class);
              MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
 
-            mockedParkingReader.when(() -> ParkingViolationReader.readFile(parkingViolationFilePath))
-                .thenReturn(parkingViolations);
+            mockedParkingReader.when(() -> ParkingViolationReader.readTable(anyString())).thenCallRealMethod();
+            mockedParkingReader.when(() -> ParkingViolationReader.streamFile(parkingViolationFilePath))
+                .thenAnswer(invocation -> parkingViolations.stream());
             mockedPopulationReader.when(() -> PopulationReader.readPopulationFile(populationFilePath))
                 .thenReturn(populations);
 
@@ -120,8 +155,9 @@ public class FinesServiceTest {
         try (MockedStatic<ParkingViolationReader> mockedParkingReader = mockStatic(ParkingViolationReader.class);
              MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
 
-            mockedParkingReader.when(() -> ParkingViolationReader.readFile(parkingViolationFilePath))
-                .thenReturn(parkingViolations);
+            mockedParkingReader.when(() -> ParkingViolationReader.readTable(anyString())).thenCallRealMethod();
+            mockedParkingReader.when(() -> ParkingViolationReader.streamFile(parkingViolationFilePath))
+                .thenAnswer(invocation -> parkingViolations.stream());
             mockedPopulationReader.when(() -> PopulationReader.readPopulationFile(populationFilePath))
                 .thenReturn(populations);
 
@@ -141,8 +177,9 @@ public class FinesServiceTest {
         try (MockedStatic<ParkingViolationReader> mockedParkingReader = mockStatic(ParkingViolationReader.class);
              MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
 
-            mockedParkingReader.when(() -> ParkingViolationReader.readFile(parkingViolationFilePath))
-                .thenReturn(parkingViolations);
+            mockedParkingReader.when(() -> ParkingViolationReader.readTable(anyString())).thenCallRealMethod();
+            mockedParkingReader.when(() -> ParkingViolationReader.streamFile(parkingViolationFilePath))
+                .thenAnswer(invocation -> parkingViolations.stream());
             mockedPopulationReader.when(() -> PopulationReader.readPopulationFile(populationFilePath))
                 .thenReturn(populations);
 
@@ -160,8 +197,9 @@ public class FinesServiceTest {
         try (MockedStatic<ParkingViolationReader> mockedParkingReader = mockStatic(ParkingViolationReader.class);
              MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
 
-            mockedParkingReader.when(() -> ParkingViolationReader.readFile(parkingViolationFilePath))
-                .thenReturn(parkingViolations);
+            mockedParkingReader.when(() -> ParkingViolationReader.readTable(anyString())).thenCallRealMethod();
+            mockedParkingReader.when(() -> ParkingViolationReader.streamFile(parkingViolationFilePath))
+                .thenAnswer(invocation -> parkingViolations.stream());
             mockedPopulationReader.when(() -> PopulationReader.readPopulationFile(populationFilePath))
                 .thenReturn(populations);
 
@@ -184,8 +222,9 @@ public class FinesServiceTest {
         try (MockedStatic<ParkingViolationReader> mockedParkingReader = mockStatic(ParkingViolationReader.class);
              MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
 
-            mockedParkingReader.when(() -> ParkingViolationReader.readFile(parkingViolationFilePath))
-                .thenReturn(parkingViolations);
+            mockedParkingReader.when(() -> ParkingViolationReader.readTable(anyString())).thenCallRealMethod();
+            mockedParkingReader.when(() -> ParkingViolationReader.streamFile(parkingViolationFilePath))
+                .thenAnswer(invocation -> parkingViolations.stream());
             mockedPopulationReader.when(() -> PopulationReader.readPopulationFile(populationFilePath))
                 .thenReturn(populations);
 
@@ -207,8 +246,9 @@ public class FinesServiceTest {
         try (MockedStatic<ParkingViolationReader> mockedParkingReader = mockStatic(ParkingViolationReader.class);
              MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
 
-            mockedParkingReader.when(() -> ParkingViolationReader.readFile(parkingViolationFilePath))
-                .thenReturn(parkingViolations);
+            mockedParkingReader.when(() -> ParkingViolationReader.readTable(anyString())).thenCallRealMethod();
+            mockedParkingReader.when(() -> ParkingViolationReader.streamFile(parkingViolationFilePath))
+                .thenAnswer(invocation -> parkingViolations.stream());
             mockedPopulationReader.when(() -> PopulationReader.readPopulationFile(populationFilePath))
                 .thenReturn(populations);
 
@@ -237,8 +277,9 @@ public class FinesServiceTest {
         try (MockedStatic<ParkingViolationReader> mockedParkingReader = mockStatic(ParkingViolationReader.class);
              MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
 
-            mockedParkingReader.when(() -> ParkingViolationReader.readFile(parkingViolationFilePath))
-                .thenReturn(parkingViolations);
+            mockedParkingReader.when(() -> ParkingViolationReader.readTable(anyString())).thenCallRealMethod();
+            mockedParkingReader.when(() -> ParkingViolationReader.streamFile(parkingViolationFilePath))
+                .thenAnswer(invocation -> parkingViolations.stream());
             mockedPopulationReader.when(() -> PopulationReader.readPopulationFile(populationFilePath))
                 .thenReturn(populations);
 
@@ -267,8 +308,9 @@ public class FinesServiceTest {
         try (MockedStatic<ParkingViolationReader> mockedParkingReader = mockStatic(ParkingViolationReader.class);
              MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
 
-            mockedParkingReader.when(() -> ParkingViolationReader.readFile(parkingViolationFilePath))
-                .thenReturn(parkingViolations);
+            mockedParkingReader.when(() -> ParkingViolationReader.readTable(anyString())).thenCallRealMethod();
+            mockedParkingReader.when(() -> ParkingViolationReader.streamFile(parkingViolationFilePath))
+                .thenAnswer(invocation -> parkingViolations.stream());
             mockedPopulationReader.when(() -> PopulationReader.readPopulationFile(populationFilePath))
                 .thenReturn(populations);
 
@@ -278,4 +320,57 @@ public class FinesServiceTest {
             assertEquals(0.225, result.get("15213"), 0.001); // (50 + 75 + 100) / 1000 = 0.225
         }
     }
+
+    @Test
+    void testGetFinesPerCapitaPerZipCode_SortedByZipCode() {
+        List<ParkingViolation> parkingViolations = Arrays.asList(
+            new ParkingViolation(Instant.now(), 50.0, "Violation1", "ABC123", "PA", "T1", "19147"),
+            new ParkingViolation(Instant.now(), 75.0, "Violation2", "DEF456", "PA", "T2", "08002"),
+            new ParkingViolation(Instant.now(), 100.0, "Violation3", "GHI789", "PA", "T3", "19104")
+        );
+
+        List<Population> populations = Arrays.asList(
+            new Population("19104", 1000),
+            new Population("19147", 1000),
+            new Population("08002", 1000)
+        );
+
+        try (MockedStatic<ParkingViolationReader> mockedParkingReader = mockStatic(ParkingViolationReader.class);
+             MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
+
+            mockedParkingReader.when(() -> ParkingViolationReader.readTable(anyString())).thenCallRealMethod();
+            mockedParkingReader.when(() -> ParkingViolationReader.streamFile(parkingViolationFilePath))
+                .thenAnswer(invocation -> parkingViolations.stream());
+            mockedPopulationReader.when(() -> PopulationReader.readPopulationFile(populationFilePath))
+                .thenReturn(populations);
+
+            Map<String, Double> result = finesService.getFinesPerCapitaPerZipCode();
+
+            assertEquals(Arrays.asList("08002", "19104", "19147"), new ArrayList<>(result.keySet()));
+        }
+    }
+
+    @Test
+    void testSumFinesByZipCode_SameTotalsForAnySliceCount() {
+        List<ParkingViolation> parkingViolations = new ArrayList<>();
+        String[] states = {"PA", "NJ", " PA ", "NY"};
+        for (int i = 0; i < 10_000; i++) {
+            parkingViolations.add(new ParkingViolation(Instant.now(), (i % 97) + 0.25, "Violation", "P" + i,
+                states[i % states.length], "T" + i, String.valueOf(19100 + i % 50)));
+        }
+        ParkingViolationTable table = ParkingViolationTable.of(parkingViolations);
+        boolean[] isPennsylvania = new boolean[table.getStates().size()];
+        for (int code = 0; code < isPennsylvania.length; code++) {
+            isPennsylvania[code] = table.getStates().get(code).trim().equals("PA");
+        }
+
+        // quarter-dollar fines add up exactly in any order, so the slices must agree bit for bit
+        double[] sequential = FinesService.sumFinesByZipCode(table, isPennsylvania, 1);
+
+        for (int slices : new int[]{2, 3, 8, 13}) {
+            assertArrayEquals(sequential, FinesService.sumFinesByZipCode(table, isPennsylvania, slices));
+        }
+        assertTrue(sequential[19100] > 0);
+        assertEquals(0, sequential[19101]);
+    }
 }
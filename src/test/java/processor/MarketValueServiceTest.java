@@ -2,6 +2,8 @@ package processor;
 
 import common.Population;
 import common.PropertyValue;
+import common.PropertyValueTable;
+import data.DatasetRepository;
 import data.PopulationReader;
 import data.PropertyValueReader;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +11,9 @@ import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -25,7 +30,7 @@ public class MarketValueServiceTest {
         parkingViolationFilePath = "parking.json";
         propertyValueFilePath = "property.csv";
         populationFilePath = "population.txt";
-        marketValueService = new MarketValueService(parkingViolationFilePath, propertyValueFilePath, populationFilePath);
+        marketValueService = new MarketValueService(new DatasetRepository(parkingViolationFilePath, propertyValueFilePath, populationFilePath));
     }
 
     @Test
@@ -37,8 +42,8 @@ public class MarketValueServiceTest {
         );
 
         try (MockedStatic<PropertyValueReader> mockedReader = mockStatic(PropertyValueReader.class)) {
-            mockedReader.when(() -> PropertyValueReader.readCsvFile(propertyValueFilePath))
-                .thenReturn(propertyValues);
+            mockedReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
 
             int result1 = marketValueService.getAverageMarketValue("15213");
             assertEquals(200000, result1);
@@ -46,7 +51,7 @@ public class MarketValueServiceTest {
             int result2 = marketValueService.getAverageMarketValue("15213");
             assertEquals(200000, result2);
 
-            mockedReader.verify(() -> PropertyValueReader.readCsvFile(propertyValueFilePath), times(1));
+            mockedReader.verify(() -> PropertyValueReader.readTable(propertyValueFilePath), times(1));
         }
     }
 
@@ -57,8 +62,8 @@ public class MarketValueServiceTest {
         );
 
         try (MockedStatic<PropertyValueReader> mockedReader = mockStatic(PropertyValueReader.class)) {
-            mockedReader.when(() -> PropertyValueReader.readCsvFile(propertyValueFilePath))
-                .thenReturn(propertyValues);
+            mockedReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
 
             assertEquals(0, marketValueService.getAverageMarketValue(null));
             assertEquals(0, marketValueService.getAverageMarketValue(""));
@@ -77,8 +82,8 @@ public class MarketValueServiceTest {
         );
 
         try (MockedStatic<PropertyValueReader> mockedReader = mockStatic(PropertyValueReader.class)) {
-            mockedReader.when(() -> PropertyValueReader.readCsvFile(propertyValueFilePath))
-                .thenReturn(propertyValues);
+            mockedReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
 
             int result = marketValueService.getAverageMarketValue("15213");
             assertEquals(200000, result); // (100000 + 300000) / 2 = 200000
@@ -96,8 +101,8 @@ public class MarketValueServiceTest {
         try (MockedStatic<PropertyValueReader> mockedPropertyReader = mockStatic(PropertyValueReader.class);
              MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
 
-            mockedPropertyReader.when(() -> PropertyValueReader.readCsvFile(propertyValueFilePath))
-                .thenReturn(propertyValues);
+            mockedPropertyReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
             mockedPopulationReader.when(() -> PopulationReader.readPopulationFile(populationFilePath))
                 .thenReturn(populations);
 
@@ -119,8 +124,8 @@ public class MarketValueServiceTest {
         try (MockedStatic<PropertyValueReader> mockedPropertyReader = mockStatic(PropertyValueReader.class);
              MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
 
-            mockedPropertyReader.when(() -> PropertyValueReader.readCsvFile(propertyValueFilePath))
-                .thenReturn(propertyValues);
+            mockedPropertyReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
             mockedPopulationReader.when(() -> PopulationReader.readPopulationFile(populationFilePath))
                 .thenReturn(populations);
 
@@ -147,8 +152,8 @@ public class MarketValueServiceTest {
         try (MockedStatic<PropertyValueReader> mockedPropertyReader = mockStatic(PropertyValueReader.class);
              MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
 
-            mockedPropertyReader.when(() -> PropertyValueReader.readCsvFile(propertyValueFilePath))
-                .thenReturn(propertyValues);
+            mockedPropertyReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
             mockedPopulationReader.when(() -> PopulationReader.readPopulationFile(populationFilePath))
                 .thenReturn(populations);
 
@@ -165,8 +170,8 @@ public class MarketValueServiceTest {
         );
 
         try (MockedStatic<PropertyValueReader> mockedReader = mockStatic(PropertyValueReader.class)) {
-            mockedReader.when(() -> PropertyValueReader.readCsvFile(propertyValueFilePath))
-                .thenReturn(propertyValues);
+            mockedReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
 
             int result = marketValueService.getAverageMarketValuePerSquareFoot("15213");
             assertEquals(100, result);
@@ -185,8 +190,8 @@ public class MarketValueServiceTest {
         );
 
         try (MockedStatic<PropertyValueReader> mockedReader = mockStatic(PropertyValueReader.class)) {
-            mockedReader.when(() -> PropertyValueReader.readCsvFile(propertyValueFilePath))
-                .thenReturn(propertyValues);
+            mockedReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
 
             assertEquals(0, marketValueService.getAverageMarketValuePerSquareFoot(null));
             assertEquals(0, marketValueService.getAverageMarketValuePerSquareFoot(""));
@@ -194,4 +199,83 @@ public class MarketValueServiceTest {
             assertEquals(0, marketValueService.getAverageMarketValuePerSquareFoot("15219"));
         }
     }
+
+    @Test
+    void testGetMetrics_MatchesSingleZipMethods() {
+        List<PropertyValue> propertyValues = Arrays.asList(
+            new PropertyValue(100000.0, 1000.0, "15213"),
+            new PropertyValue(200000.0, null, "15213"),
+            new PropertyValue(300000.0, 2000.0, "15217")
+        );
+        List<Population> populations = Arrays.asList(new Population("15213", 1000), new Population("15217", 0));
+
+        try (MockedStatic<PropertyValueReader> mockedPropertyReader = mockStatic(PropertyValueReader.class);
+             MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
+
+            mockedPropertyReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
+            mockedPopulationReader.when(() -> PopulationReader.readPopulationFile(populationFilePath))
+                .thenReturn(populations);
+
+            List<String> zipCodes = Arrays.asList("15217", "15213", "99999", "");
+            Map<String, Map<PropertyMetric, Integer>> result = marketValueService.getMetrics(zipCodes, MarketValueService.METRICS);
+
+            assertEquals(zipCodes, new ArrayList<>(result.keySet()));
+            for (String zipCode : zipCodes) {
+                Map<PropertyMetric, Integer> metrics = result.get(zipCode);
+                assertEquals(marketValueService.getAverageMarketValue(zipCode), metrics.get(PropertyMetric.AVERAGE_MARKET_VALUE));
+                assertEquals(marketValueService.getResidentialMarketValuePerCapita(zipCode),
+                    metrics.get(PropertyMetric.RESIDENTIAL_MARKET_VALUE_PER_CAPITA));
+                assertEquals(marketValueService.getAverageMarketValuePerSquareFoot(zipCode),
+                    metrics.get(PropertyMetric.AVERAGE_MARKET_VALUE_PER_SQUARE_FOOT));
+            }
+            assertEquals(150000, result.get("15213").get(PropertyMetric.AVERAGE_MARKET_VALUE));
+            assertThrows(IllegalArgumentException.class,
+                () -> marketValueService.getMetrics(zipCodes, EnumSet.of(PropertyMetric.MIN_LIVABLE_AREA)));
+        }
+    }
+
+    @Test
+    void testAsyncMethods_RunOnGivenExecutorAndCompose() {
+        List<PropertyValue> propertyValues = Arrays.asList(
+            new PropertyValue(100000.0, 1000.0, "15213"),
+            new PropertyValue(300000.0, 2000.0, "15213")
+        );
+        List<Population> populations = Arrays.asList(new Population("15213", 1000));
+        List<Runnable> submitted = new ArrayList<>();
+        // runs tasks on the calling thread, where the static mocks are visible
+        Executor recordingExecutor = task -> {
+            submitted.add(task);
+            task.run();
+        };
+
+        try (MockedStatic<PropertyValueReader> mockedPropertyReader = mockStatic(PropertyValueReader.class);
+             MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
+
+            mockedPropertyReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
+            mockedPopulationReader.when(() -> PopulationReader.readPopulationFile(populationFilePath))
+                .thenReturn(populations);
+
+            MarketValueService service = new MarketValueService(
+                new DatasetRepository(parkingViolationFilePath, propertyValueFilePath, populationFilePath),
+                new QueryCache(), recordingExecutor);
+
+            CompletableFuture<Integer> average = service.getAverageMarketValueAsync("15213");
+            CompletableFuture<Integer> perCapita = service.getResidentialMarketValuePerCapitaAsync("15213");
+            CompletableFuture<Integer> perSquareFoot = service.getAverageMarketValuePerSquareFootAsync("15213");
+            int sum = average.thenCombine(perCapita, Integer::sum).thenCombine(perSquareFoot, Integer::sum).join();
+
+            assertEquals(200000 + 400 + 133, sum);
+            assertEquals(3, submitted.size());
+            assertEquals(200000, service.getMetricsAsync(Arrays.asList("15213"), MarketValueService.METRICS)
+                .join().get("15213").get(PropertyMetric.AVERAGE_MARKET_VALUE));
+
+            CompletionException e = assertThrows(CompletionException.class,
+                () -> service.getMetricsAsync(null, MarketValueService.METRICS).join());
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new MarketValueService(
+            new DatasetRepository(parkingViolationFilePath, propertyValueFilePath, populationFilePath), new QueryCache(), null));
+    }
 }
@@ -1,6 +1,7 @@
 package processor;
 
 import common.Population;
+import data.DatasetRepository;
 import data.PopulationReader;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,7 +24,7 @@ public class PopulationServiceTest {
         parkingViolationFilePath = "parking.json";
         propertyValueFilePath = "property.csv";
         populationFilePath = "population.txt";
-        populationService = new PopulationService(parkingViolationFilePath, propertyValueFilePath, populationFilePath);
+        populationService = new PopulationService(new DatasetRepository(parkingViolationFilePath, propertyValueFilePath, populationFilePath));
     }
 
     @Test
@@ -0,0 +1,116 @@
+package processor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryCacheTest {
+
+    @Test
+    void testGet_ComputesOncePerKeyAndVersion() {
+        QueryCache cache = new QueryCache(10);
+        Object version = new Object();
+        AtomicInteger computations = new AtomicInteger();
+
+        assertEquals(42, cache.get("query", "19104", version, () -> computations.incrementAndGet() + 41));
+        assertEquals(42, cache.get("query", "19104", version, () -> computations.incrementAndGet() + 41));
+        assertEquals(7, cache.get("other", "19104", version, () -> 7));
+
+        assertEquals(1, computations.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void testGet_RecomputesWhenDatasetVersionChanges() {
+        QueryCache cache = new QueryCache(10);
+
+        assertEquals(1, cache.get("query", "19104", new Object(), () -> 1));
+        assertEquals(2, cache.get("query", "19104", new Object(), () -> 2));
+
+        assertEquals(1, cache.getInvalidations());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testGet_EvictsLeastRecentlyUsed() {
+        QueryCache cache = new QueryCache(2);
+        Object version = new Object();
+
+        cache.get("query", "1", version, () -> 1);
+        cache.get("query", "2", version, () -> 2);
+        cache.get("query", "1", version, () -> -1);
+        cache.get("query", "3", version, () -> 3);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(1, cache.get("query", "1", version, () -> -1));
+        assertEquals(-2, cache.get("query", "2", version, () -> -2));
+    }
+
+    @Test
+    void testGet_KeepsAReferencedEntryWhileOtherKeysChurn() {
+        QueryCache cache = new QueryCache(4);
+        Object version = new Object();
+        cache.get("query", "hot", version, () -> 0);
+
+        for (int i = 1; i <= 100; i++) {
+            assertEquals(0, cache.get("query", "hot", version, () -> -1));
+            cache.get("query", Integer.toString(i), version, () -> 1);
+            // a reloaded dataset leaves a stale entry behind in the eviction order
+            cache.get("stale", Integer.toString(i % 3), new Object(), () -> 2);
+        }
+
+        assertEquals(4, cache.size());
+        assertEquals(0, cache.get("query", "hot", version, () -> -1));
+        assertEquals(1, cache.get("query", "100", version, () -> -1));
+    }
+
+    @Test
+    void testGet_CountsCallersJoiningAComputationAsCoalesced() throws Exception {
+        QueryCache cache = new QueryCache(10);
+        Object version = new Object();
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get("query", "19104", version, () -> {
+                    computations.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 42;
+                })));
+            }
+            while (computations.get() == 0) {
+                Thread.onSpinWait();
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Integer> result : results) {
+                assertEquals(42, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, computations.get());
+        assertEquals(1, cache.getMisses());
+        // a caller that started after the result was cached is a hit rather than coalesced
+        assertEquals(7, cache.getCoalesced() + cache.getHits());
+    }
+}
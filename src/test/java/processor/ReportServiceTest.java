@@ -0,0 +1,121 @@
+package processor;
+
+import common.ParkingViolation;
+import common.Population;
+import common.PropertyValue;
+import common.PropertyValueTable;
+import data.DatasetRepository;
+import data.ParkingViolationReader;
+import data.PopulationReader;
+import data.PropertyValueReader;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReportServiceTest {
+
+    @Test
+    void testGetReport_JoinsEveryMetricByPopulationZipCode() {
+        List<ParkingViolation> parkingViolations = Arrays.asList(
+            new ParkingViolation(Instant.now(), 50.0, "Violation1", "ABC123", "PA", "T1", "15213"),
+            new ParkingViolation(Instant.now(), 75.0, "Violation2", "DEF456", "NJ", "T2", "15217")
+        );
+        List<PropertyValue> propertyValues = Arrays.asList(
+            new PropertyValue(100000.0, 1000.0, "15213"),
+            new PropertyValue(300000.0, 2000.0, "15213"),
+            new PropertyValue(500000.0, 2500.0, "19104")
+        );
+        List<Population> populations = Arrays.asList(
+            new Population("15217", 2000),
+            new Population("15213", 1000)
+        );
+
+        try (MockedStatic<ParkingViolationReader> mockedParkingReader = mockStatic(ParkingViolationReader.class);
+             MockedStatic<PropertyValueReader> mockedPropertyReader = mockStatic(PropertyValueReader.class);
+             MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
+
+            mockedParkingReader.when(() -> ParkingViolationReader.readTable(anyString())).thenCallRealMethod();
+            mockedParkingReader.when(() -> ParkingViolationReader.streamFile("parking.json"))
+                .thenAnswer(invocation -> parkingViolations.stream());
+            mockedPropertyReader.when(() -> PropertyValueReader.readTable("property.csv"))
+                .thenReturn(PropertyValueTable.of(propertyValues));
+            mockedPopulationReader.when(() -> PopulationReader.readPopulationFile("population.txt"))
+                .thenReturn(populations);
+
+            DatasetRepository repository = new DatasetRepository("parking.json", "property.csv", "population.txt");
+            ReportService reportService = new ReportService(repository, new FinesService(repository),
+                new MarketValueService(repository), new ResidentialAreaService(repository));
+
+            List<ZipReport> report = reportService.getReport();
+
+            assertEquals(2, report.size());
+            ZipReport first = report.get(0);
+            assertEquals("15213", first.getZipCode());
+            assertEquals(1000, first.getPopulation());
+            assertEquals(0.05, first.getFinesPerCapita(), 0.0001);
+            assertEquals(200000, first.getPropertyMetric(PropertyMetric.AVERAGE_MARKET_VALUE));
+            assertEquals(400, first.getPropertyMetric(PropertyMetric.RESIDENTIAL_MARKET_VALUE_PER_CAPITA));
+            assertEquals(133, first.getPropertyMetric(PropertyMetric.AVERAGE_MARKET_VALUE_PER_SQUARE_FOOT));
+            assertEquals(1500, first.getPropertyMetric(PropertyMetric.AVERAGE_RESIDENTIAL_AREA));
+            assertEquals(1000, first.getPropertyMetric(PropertyMetric.MIN_LIVABLE_AREA));
+            assertEquals(2000, first.getPropertyMetric(PropertyMetric.MAX_LIVABLE_AREA));
+
+            ZipReport second = report.get(1);
+            assertEquals("15217", second.getZipCode());
+            assertEquals(0.0, second.getFinesPerCapita());
+            assertEquals(0, second.getPropertyMetric(PropertyMetric.AVERAGE_MARKET_VALUE));
+        }
+    }
+
+    @Test
+    void testGetReportAsync_MatchesGetReport() {
+        List<ParkingViolation> parkingViolations = Arrays.asList(
+            new ParkingViolation(Instant.now(), 50.0, "Violation1", "ABC123", "PA", "T1", "15213")
+        );
+        List<PropertyValue> propertyValues = Arrays.asList(
+            new PropertyValue(100000.0, 1000.0, "15213"),
+            new PropertyValue(500000.0, 2500.0, "19104")
+        );
+        List<Population> populations = Arrays.asList(new Population("19104", 500), new Population("15213", 1000));
+        // static mocks are thread-local, so every stage runs on the calling thread
+        Executor direct = Runnable::run;
+
+        try (MockedStatic<ParkingViolationReader> mockedParkingReader = mockStatic(ParkingViolationReader.class);
+             MockedStatic<PropertyValueReader> mockedPropertyReader = mockStatic(PropertyValueReader.class);
+             MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
+
+            mockedParkingReader.when(() -> ParkingViolationReader.readTable(anyString())).thenCallRealMethod();
+            mockedParkingReader.when(() -> ParkingViolationReader.streamFile("parking.json"))
+                .thenAnswer(invocation -> parkingViolations.stream());
+            mockedPropertyReader.when(() -> PropertyValueReader.readTable("property.csv"))
+                .thenReturn(PropertyValueTable.of(propertyValues));
+            mockedPopulationReader.when(() -> PopulationReader.readPopulationFile("population.txt"))
+                .thenReturn(populations);
+
+            DatasetRepository repository = new DatasetRepository("parking.json", "property.csv", "population.txt");
+            QueryCache queryCache = new QueryCache();
+            ReportService reportService = new ReportService(repository, new FinesService(repository, 1, direct),
+                new MarketValueService(repository, queryCache, direct),
+                new ResidentialAreaService(repository, queryCache, direct), direct);
+
+            List<ZipReport> expected = reportService.getReport();
+            List<ZipReport> actual = reportService.getReportAsync().join();
+
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getZipCode(), actual.get(i).getZipCode());
+                assertEquals(expected.get(i).getPopulation(), actual.get(i).getPopulation());
+                assertEquals(expected.get(i).getFinesPerCapita(), actual.get(i).getFinesPerCapita());
+                assertEquals(expected.get(i).getPropertyMetrics(), actual.get(i).getPropertyMetrics());
+            }
+            assertEquals("19104", actual.get(1).getZipCode());
+            assertEquals(1000, actual.get(1).getPropertyMetric(PropertyMetric.RESIDENTIAL_MARKET_VALUE_PER_CAPITA));
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package processor;
 
 import common.PropertyValue;
+import common.PropertyValueTable;
+import data.DatasetRepository;
 import data.PropertyValueReader;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,7 +25,7 @@ public class ResidentialAreaServiceTest {
         parkingViolationFilePath = "parking.json";
         propertyValueFilePath = "property.csv";
         populationFilePath = "population.txt";
-        residentialAreaService = new ResidentialAreaService(parkingViolationFilePath, propertyValueFilePath, populationFilePath);
+        residentialAreaService = new ResidentialAreaService(new DatasetRepository(parkingViolationFilePath, propertyValueFilePath, populationFilePath));
     }
 
     @Test
@@ -35,8 +37,8 @@ public class ResidentialAreaServiceTest {
         );
 
         try (MockedStatic<PropertyValueReader> mockedReader = mockStatic(PropertyValueReader.class)) {
-            mockedReader.when(() -> PropertyValueReader.readCsvFile(propertyValueFilePath))
-                .thenReturn(propertyValues);
+            mockedReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
 
             int result = residentialAreaService.getAverageResidentialArea("15213");
             assertEquals(2000, result);
@@ -50,8 +52,8 @@ public class ResidentialAreaServiceTest {
         );
 
         try (MockedStatic<PropertyValueReader> mockedReader = mockStatic(PropertyValueReader.class)) {
-            mockedReader.when(() -> PropertyValueReader.readCsvFile(propertyValueFilePath))
-                .thenReturn(propertyValues);
+            mockedReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
 
             assertEquals(0, residentialAreaService.getAverageResidentialArea(null));
             assertEquals(0, residentialAreaService.getAverageResidentialArea(""));
@@ -69,8 +71,8 @@ public class ResidentialAreaServiceTest {
         );
 
         try (MockedStatic<PropertyValueReader> mockedReader = mockStatic(PropertyValueReader.class)) {
-            mockedReader.when(() -> PropertyValueReader.readCsvFile(propertyValueFilePath))
-                .thenReturn(propertyValues);
+            mockedReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
 
             int result = residentialAreaService.getAverageResidentialArea("15213");
             assertEquals(3000, result);
@@ -86,8 +88,8 @@ public class ResidentialAreaServiceTest {
         );
 
         try (MockedStatic<PropertyValueReader> mockedReader = mockStatic(PropertyValueReader.class)) {
-            mockedReader.when(() -> PropertyValueReader.readCsvFile(propertyValueFilePath))
-                .thenReturn(propertyValues);
+            mockedReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
 
             int[] result = residentialAreaService.getMinAndMaxLivableAreas("15213");
             assertNotNull(result);
@@ -104,8 +106,8 @@ public class ResidentialAreaServiceTest {
         );
 
         try (MockedStatic<PropertyValueReader> mockedReader = mockStatic(PropertyValueReader.class)) {
-            mockedReader.when(() -> PropertyValueReader.readCsvFile(propertyValueFilePath))
-                .thenReturn(propertyValues);
+            mockedReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
 
             int[] result = residentialAreaService.getMinAndMaxLivableAreas("15213");
             assertNotNull(result);
@@ -122,8 +124,8 @@ public class ResidentialAreaServiceTest {
         );
 
         try (MockedStatic<PropertyValueReader> mockedReader = mockStatic(PropertyValueReader.class)) {
-            mockedReader.when(() -> PropertyValueReader.readCsvFile(propertyValueFilePath))
-                .thenReturn(propertyValues);
+            mockedReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
 
             int[] result1 = residentialAreaService.getMinAndMaxLivableAreas(null);
             assertNotNull(result1);
@@ -155,8 +157,8 @@ public class ResidentialAreaServiceTest {
         );
 
         try (MockedStatic<PropertyValueReader> mockedReader = mockStatic(PropertyValueReader.class)) {
-            mockedReader.when(() -> PropertyValueReader.readCsvFile(propertyValueFilePath))
-                .thenReturn(propertyValues);
+            mockedReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
 
             int[] result = residentialAreaService.getMinAndMaxLivableAreas("15213");
             assertNotNull(result);
@@ -165,4 +167,32 @@ public class ResidentialAreaServiceTest {
             assertEquals(3000, result[1]);
         }
     }
+
+    @Test
+    void testGetMetrics_MatchesSingleZipMethods() {
+        List<PropertyValue> propertyValues = Arrays.asList(
+            new PropertyValue(100000.0, 1000.0, "15213"),
+            new PropertyValue(200000.0, 2500.0, "15213"),
+            new PropertyValue(300000.0, null, "15217")
+        );
+
+        try (MockedStatic<PropertyValueReader> mockedReader = mockStatic(PropertyValueReader.class)) {
+            mockedReader.when(() -> PropertyValueReader.readTable(propertyValueFilePath))
+                .thenReturn(PropertyValueTable.of(propertyValues));
+
+            List<String> zipCodes = Arrays.asList("15213", "15217", "99999");
+            Map<String, Map<PropertyMetric, Integer>> result =
+                residentialAreaService.getMetrics(zipCodes, ResidentialAreaService.METRICS);
+
+            for (String zipCode : zipCodes) {
+                Map<PropertyMetric, Integer> metrics = result.get(zipCode);
+                int[] minAndMax = residentialAreaService.getMinAndMaxLivableAreas(zipCode);
+                assertEquals(residentialAreaService.getAverageResidentialArea(zipCode), metrics.get(PropertyMetric.AVERAGE_RESIDENTIAL_AREA));
+                assertEquals(minAndMax[0], metrics.get(PropertyMetric.MIN_LIVABLE_AREA));
+                assertEquals(minAndMax[1], metrics.get(PropertyMetric.MAX_LIVABLE_AREA));
+            }
+            assertEquals(2500, result.get("15213").get(PropertyMetric.MAX_LIVABLE_AREA));
+            mockedReader.verify(() -> PropertyValueReader.readTable(propertyValueFilePath), times(1));
+        }
+    }
 }
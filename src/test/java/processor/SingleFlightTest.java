@@ -0,0 +1,76 @@
+package processor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    @Test
+    void testExecute_ConcurrentCallersShareOneComputation() throws Exception {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("19104", () -> {
+                    computations.incrementAndGet();
+                    await(release);
+                    return 42;
+                })));
+            }
+            // wait until the first caller is computing, give the others time to join, then let it finish
+            while (computations.get() == 0) {
+                Thread.onSpinWait();
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Integer> result : results) {
+                assertEquals(42, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, computations.get());
+            assertEquals(0, singleFlight.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExecute_DifferentKeysDoNotBlockEachOther() {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+
+        int result = singleFlight.execute("19104", () -> singleFlight.execute("19147", () -> 7));
+
+        assertEquals(7, result);
+    }
+
+    @Test
+    void testExecute_FailureIsNotRemembered() {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("19104", () -> {
+            throw new IllegalStateException("load failed");
+        }));
+        assertEquals(1, singleFlight.execute("19104", () -> 1));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
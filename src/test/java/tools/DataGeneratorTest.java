@@ -0,0 +1,68 @@
+package tools;
+
+import common.Population;
+import data.ParkingViolationReader;
+import data.PopulationReader;
+import data.PropertyValueReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testGenerate_ReadersSkipExactlyTheMalformedRows() throws IOException {
+        DataGenerator.Options options = DataGenerator.Options.parse(new String[]{
+            "--out=" + tempDir, "--parking-rows=5000", "--property-rows=4000", "--zip-codes=40",
+            "--seed=7", "--malformed-rate=0.1"
+        });
+
+        DataGenerator.Summary summary = DataGenerator.generate(options);
+
+        assertTrue(summary.getMalformedParkingRows() > 0);
+        assertTrue(summary.getMalformedPropertyRows() > 0);
+        long validParkingRows = summary.getParkingRows() - summary.getMalformedParkingRows();
+        assertEquals(validParkingRows, ParkingViolationReader.readCsvFile(tempDir.resolve("parking.csv").toString()).size());
+        assertEquals(validParkingRows, ParkingViolationReader.readJsonFile(tempDir.resolve("parking.json").toString()).size());
+        assertEquals(summary.getPropertyRows() - summary.getMalformedPropertyRows(),
+            PropertyValueReader.readCsvFile(tempDir.resolve("property.csv").toString()).size());
+
+        List<Population> populations = PopulationReader.readPopulationFile(tempDir.resolve("population.txt").toString());
+        assertEquals(summary.getPopulationRows() - summary.getMalformedPopulationRows(), populations.size());
+        assertEquals("19102", DataGenerator.zipCode(0));
+    }
+
+    @Test
+    void testGenerate_IsReproducibleFromTheSeed() throws IOException {
+        Path first = tempDir.resolve("first");
+        Path second = tempDir.resolve("second");
+        Path otherSeed = tempDir.resolve("other");
+        DataGenerator.generate(new DataGenerator.Options().outputDirectory(first).parkingRows(500).propertyRows(500).seed(3));
+        DataGenerator.generate(new DataGenerator.Options().outputDirectory(second).parkingRows(500).propertyRows(500).seed(3));
+        DataGenerator.generate(new DataGenerator.Options().outputDirectory(otherSeed).parkingRows(500).propertyRows(500).seed(4));
+
+        for (String file : new String[]{"parking.csv", "parking.json", "property.csv", "population.txt"}) {
+            assertArrayEquals(Files.readAllBytes(first.resolve(file)), Files.readAllBytes(second.resolve(file)), file);
+        }
+        assertFalse(Files.readString(first.resolve("parking.csv")).equals(Files.readString(otherSeed.resolve("parking.csv"))));
+    }
+
+    @Test
+    void testOptions_RejectInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> DataGenerator.Options.parse(new String[]{"--parking-rows=10"}));
+        assertThrows(IllegalArgumentException.class, () -> DataGenerator.Options.parse(new String[]{"--out=x", "--rows=10"}));
+        assertThrows(IllegalArgumentException.class, () -> DataGenerator.Options.parse(new String[]{"--out=x", "--seed=abc"}));
+        assertThrows(IllegalArgumentException.class, () -> DataGenerator.Options.parse(new String[]{"--out=x", "--malformed-rate=2"}));
+        assertThrows(IllegalArgumentException.class, () -> DataGenerator.Options.parse(new String[]{"--out=x", "--formats=xml"}));
+        assertThrows(IllegalArgumentException.class, () -> DataGenerator.Options.parse(new String[]{"out=x"}));
+    }
+}
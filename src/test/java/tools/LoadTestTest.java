@@ -0,0 +1,92 @@
+package tools;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadTestTest {
+
+    @TempDir
+    Path tempDir;
+
+    private LoadTest.Options options;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        DataGenerator.generate(new DataGenerator.Options().outputDirectory(tempDir)
+            .parkingRows(2_000).propertyRows(2_000).zipCodes(20).formats("csv"));
+        options = new LoadTest.Options()
+            .parkingFile(tempDir.resolve("parking.csv").toString())
+            .propertyFile(tempDir.resolve("property.csv").toString())
+            .populationFile(tempDir.resolve("population.txt").toString())
+            .clients(4)
+            .warmup(Duration.ofMillis(100))
+            .duration(Duration.ofMillis(300));
+    }
+
+    @Test
+    void testRun_ReplaysTheRequestLog() throws IOException {
+        Path requests = tempDir.resolve("requests.jsonl");
+        Files.writeString(requests, "{\"id\":1,\"option\":3,\"zip_code\":\"19102\"}\n\n"
+            + "{\"option\":7,\"zip_code\":\"19103\",\"note\":{\"ignored\":true}}\n{\"option\":2}\n");
+
+        LoadTest.Result result = LoadTest.run(options.requestFile(requests));
+
+        assertTrue(result.getRequests() > 0);
+        assertEquals(0, result.getErrors());
+        assertTrue(result.getLatencies(3).getCount() > 0);
+        assertTrue(result.getLatencies(7).getCount() > 0);
+        assertTrue(result.getLatencies(2).getCount() > 0);
+        assertEquals(0, result.getLatencies(1).getCount());
+        assertEquals(result.getRequests(), result.getLatencies().getCount());
+        assertTrue(result.toString().contains("all"));
+    }
+
+    @Test
+    void testRun_HoldsTheTargetRate() throws IOException {
+        LoadTest.Result result = LoadTest.run(options.mix("3:1,4:1").rate(200).duration(Duration.ofMillis(500)));
+
+        // 100 queries are scheduled in the measured half second, and clients cannot get ahead of the schedule
+        assertTrue(result.getRequests() >= 80 && result.getRequests() <= 101, "requests " + result.getRequests());
+        assertEquals(0, result.getLatencies(1).getCount() + result.getLatencies(2).getCount());
+    }
+
+    @Test
+    void testSynthetic_FollowsTheMix() {
+        LoadTest.Query[] queries = LoadTest.synthetic(options.mix("1:1,3:3").seed(5));
+
+        int population = 0;
+        for (LoadTest.Query query : queries) {
+            assertTrue(query.option == 1 || query.option == 3);
+            if (query.option == 1) {
+                population++;
+                assertNull(query.zipCode);
+            } else {
+                assertNotNull(query.zipCode);
+            }
+        }
+        assertEquals(0.25, population / (double) queries.length, 0.01);
+    }
+
+    @Test
+    void testInvalidArgumentsAndRequests() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> LoadTest.Options.parse(new String[]{"--clients=4"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadTest.Options.parse(new String[]{
+            "--parking=a", "--property=b", "--population=c", "--mix=9:1"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadTest.Options.parse(new String[]{
+            "--parking=a", "--property=b", "--population=c", "--rate=-1"}));
+
+        Path requests = tempDir.resolve("bad.jsonl");
+        Files.writeString(requests, "{\"option\":3,\"zip_code\":\"19102\"}\n{\"option\":4}\n");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> LoadTest.readRequests(requests));
+        assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+    }
+}
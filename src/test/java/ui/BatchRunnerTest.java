@@ -0,0 +1,103 @@
+package ui;
+
+import common.ParkingViolation;
+import common.Population;
+import common.PropertyValue;
+import common.PropertyValueTable;
+import data.DatasetRepository;
+import data.ParkingViolationReader;
+import data.PopulationReader;
+import data.PropertyValueReader;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class BatchRunnerTest {
+
+    @Test
+    void testRun_WritesResultsAndErrorsInInputOrder() throws IOException {
+        List<ParkingViolation> parkingViolations = Arrays.asList(
+            new ParkingViolation(Instant.now(), 50.0, "Violation1", "ABC123", "PA", "T1", "15213")
+        );
+        List<PropertyValue> propertyValues = Arrays.asList(
+            new PropertyValue(100000.0, 1000.0, "15213"),
+            new PropertyValue(300000.0, 2000.0, "15213")
+        );
+        List<Population> populations = Arrays.asList(new Population("15213", 1000));
+
+        try (MockedStatic<ParkingViolationReader> mockedParkingReader = mockStatic(ParkingViolationReader.class);
+             MockedStatic<PropertyValueReader> mockedPropertyReader = mockStatic(PropertyValueReader.class);
+             MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
+
+            mockedParkingReader.when(() -> ParkingViolationReader.readTable(anyString())).thenCallRealMethod();
+            mockedParkingReader.when(() -> ParkingViolationReader.streamFile("parking.json"))
+                .thenAnswer(invocation -> parkingViolations.stream());
+            mockedPropertyReader.when(() -> PropertyValueReader.readTable("property.csv"))
+                .thenReturn(PropertyValueTable.of(propertyValues));
+            mockedPopulationReader.when(() -> PopulationReader.readPopulationFile("population.txt"))
+                .thenReturn(populations);
+
+            DatasetRepository repository = new DatasetRepository("parking.json", "property.csv", "population.txt");
+            // static mocks are thread-local, so load the datasets here before the worker threads read them
+            repository.getParkingViolations();
+            repository.getPropertyZipIndex();
+            repository.getPopulationTable();
+
+            String requests = String.join("\n",
+                "{\"id\": \"a\", \"option\": 1}",
+                "{\"id\": 7, \"option\": 3, \"zip_code\": \"15213\"}",
+                "",
+                "{\"option\": 7, \"zip_code\": 15213, \"note\": [1, {\"x\": 2}]}",
+                "{\"option\": 2}",
+                "{\"option\": 4}",
+                "{\"option\": 9, \"zip_code\": \"15213\"}",
+                "not json",
+                "{\"zip_code\": \"15213\"}");
+            StringWriter out = new StringWriter();
+            BatchRunner batchRunner = new BatchRunner(new QueryEvaluator(repository), 3);
+
+            int processed = batchRunner.run(new BufferedReader(new StringReader(requests)), out);
+
+            assertEquals(8, processed);
+            String[] lines = out.toString().split("\n");
+            assertEquals(8, lines.length);
+            assertEquals("{\"line\":1,\"id\":\"a\",\"option\":1,\"zip_code\":null,\"result\":1000}", lines[0]);
+            assertEquals("{\"line\":2,\"id\":7,\"option\":3,\"zip_code\":\"15213\",\"result\":200000}", lines[1]);
+            assertEquals("{\"line\":4,\"id\":null,\"option\":7,\"zip_code\":\"15213\",\"result\":{\"min\":1000,\"max\":2000}}", lines[2]);
+            assertEquals("{\"line\":5,\"id\":null,\"option\":2,\"zip_code\":null,\"result\":{\"15213\":0.05}}", lines[3]);
+            assertEquals("{\"line\":6,\"id\":null,\"option\":4,\"zip_code\":null,\"error\":\"ZIP Code cannot be empty for option 4\"}", lines[4]);
+            assertTrue(lines[5].startsWith("{\"line\":7,\"id\":null,\"option\":9,\"zip_code\":\"15213\",\"error\":\"Unknown option 9"));
+            assertTrue(lines[6].startsWith("{\"line\":8,\"error\":\"Invalid request: "));
+            assertEquals("{\"line\":9,\"error\":\"Invalid request: missing \\\"option\\\"\"}", lines[7]);
+        }
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidParallelism() {
+        QueryEvaluator evaluator = new QueryEvaluator(new DatasetRepository("parking.json", "property.csv", "population.txt"));
+        assertThrows(IllegalArgumentException.class, () -> new BatchRunner(evaluator, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BatchRunner(null, 1));
+    }
+
+    @Test
+    void testRequestParse_ReadsTheSharedRequestFormat() throws IOException {
+        BatchRunner.Request request = BatchRunner.Request.parse(
+            "{\"id\":\"a1\",\"option\":3,\"zip_code\":\"19104\",\"note\":{\"x\":[1]}}");
+
+        assertEquals("\"a1\"", request.getId());
+        assertEquals(3, request.getOption());
+        assertEquals("19104", request.getZipCode());
+        assertNull(BatchRunner.Request.parse("{\"option\":1}").getZipCode());
+        assertThrows(IllegalArgumentException.class, () -> BatchRunner.Request.parse("{\"zip_code\":\"19104\"}"));
+        assertThrows(IllegalArgumentException.class, () -> BatchRunner.Request.parse("{\"option\":\"3\"}"));
+    }
+}
@@ -0,0 +1,126 @@
+package ui;
+
+import common.ParkingViolation;
+import common.Population;
+import common.PropertyValue;
+import common.PropertyValueTable;
+import data.DatasetRepository;
+import data.ParkingViolationReader;
+import data.PopulationReader;
+import data.PropertyValueReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.MockedStatic;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class QueryServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEndpoints_AnswerJsonFromSharedDatasets() throws Exception {
+        List<ParkingViolation> parkingViolations = Arrays.asList(
+            new ParkingViolation(Instant.now(), 50.0, "Violation1", "ABC123", "PA", "T1", "15213")
+        );
+        List<PropertyValue> propertyValues = Arrays.asList(
+            new PropertyValue(100000.0, 1000.0, "15213"),
+            new PropertyValue(300000.0, 2000.0, "15213")
+        );
+        List<Population> populations = Arrays.asList(new Population("15213", 1000));
+
+        try (MockedStatic<ParkingViolationReader> mockedParkingReader = mockStatic(ParkingViolationReader.class);
+             MockedStatic<PropertyValueReader> mockedPropertyReader = mockStatic(PropertyValueReader.class);
+             MockedStatic<PopulationReader> mockedPopulationReader = mockStatic(PopulationReader.class)) {
+
+            mockedParkingReader.when(() -> ParkingViolationReader.readTable(anyString())).thenCallRealMethod();
+            mockedParkingReader.when(() -> ParkingViolationReader.streamFile("parking.json"))
+                .thenAnswer(invocation -> parkingViolations.stream());
+            mockedPropertyReader.when(() -> PropertyValueReader.readTable("property.csv"))
+                .thenReturn(PropertyValueTable.of(propertyValues));
+            mockedPopulationReader.when(() -> PopulationReader.readPopulationFile("population.txt"))
+                .thenReturn(populations);
+
+            DatasetRepository repository = new DatasetRepository("parking.json", "property.csv", "population.txt");
+            // static mocks are thread-local, so load the datasets here before the request threads read them
+            repository.getParkingViolations();
+            repository.getPropertyZipIndex();
+            repository.getPopulationTable();
+
+            QueryServer server = new QueryServer(new QueryEvaluator(repository), 0);
+            server.start();
+            try {
+                HttpClient client = HttpClient.newHttpClient();
+                String base = "http://127.0.0.1:" + server.getPort();
+
+                HttpResponse<String> response = get(client, base + "/population");
+                assertEquals(200, response.statusCode());
+                assertEquals("{\"result\":1000}", response.body());
+                assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+
+                assertEquals("{\"result\":{\"15213\":0.05}}", get(client, base + "/fines-per-capita").body());
+                assertEquals("{\"result\":200000}", get(client, base + "/average-market-value?zip=15213").body());
+                assertEquals("{\"result\":{\"min\":1000,\"max\":2000}}",
+                    get(client, base + "/livable-area-range?zip=%2015213").body());
+
+                response = get(client, base + "/average-residential-area");
+                assertEquals(400, response.statusCode());
+                assertEquals("{\"error\":\"ZIP Code cannot be empty for option 4\"}", response.body());
+
+                assertEquals(404, get(client, base + "/unknown").statusCode());
+
+                HttpResponse<String> post = client.send(HttpRequest.newBuilder(URI.create(base + "/population"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+                assertEquals(405, post.statusCode());
+            } finally {
+                server.stop(0);
+            }
+        }
+    }
+
+    @Test
+    void testDatasetFailure_IsAServerError() throws Exception {
+        Path populationFile = tempDir.resolve("population.txt");
+        Files.writeString(populationFile, "15213 1000\n");
+        DatasetRepository repository = new DatasetRepository(tempDir.resolve("missing.json").toString(),
+            tempDir.resolve("property.csv").toString(), populationFile.toString());
+
+        QueryServer server = new QueryServer(new QueryEvaluator(repository), 0);
+        server.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://127.0.0.1:" + server.getPort();
+
+            HttpResponse<String> response = get(client, base + "/fines-per-capita");
+            assertEquals(500, response.statusCode());
+            assertTrue(response.body().contains("missing.json"), response.body());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testQueryParameter_DecodesFirstMatch() {
+        assertEquals("19104", QueryServer.queryParameter("a=1&zip=19104&zip=19103", "zip"));
+        assertEquals(" 19104", QueryServer.queryParameter("zip=+19104", "zip"));
+        assertEquals("", QueryServer.queryParameter("zip", "zip"));
+        assertNull(QueryServer.queryParameter("a=1", "zip"));
+        assertNull(QueryServer.queryParameter(null, "zip"));
+        assertThrows(QueryEvaluator.InvalidQueryException.class, () -> QueryServer.queryParameter("zip=%zz", "zip"));
+    }
+
+    private static HttpResponse<String> get(HttpClient client, String uri) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(uri)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,41 @@
+package ui;
+
+import org.junit.jupiter.api.Test;
+import processor.PropertyMetric;
+import processor.ZipReport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportWriterTest {
+
+    @Test
+    void testWriteCsv_UsesADotDecimalSeparatorInAnyLocale() {
+        Map<PropertyMetric, Integer> metrics = new EnumMap<>(PropertyMetric.class);
+        for (PropertyMetric metric : PropertyMetric.values()) {
+            metrics.put(metric, 1000);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.GERMANY);
+            ReportWriter.writeCsv(List.of(new ZipReport("19104", 1000, 0.1234, metrics)),
+                new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+
+        List<String> lines = bytes.toString(StandardCharsets.UTF_8).lines().toList();
+        int columns = lines.get(0).split(",").length;
+        assertEquals(3 + PropertyMetric.values().length, columns);
+        assertEquals(columns, lines.get(1).split(",").length);
+        assertTrue(lines.get(1).startsWith("19104,1000,0.1234,"), lines.get(1));
+    }
+}